@@ -0,0 +1,110 @@
+package edu.nyu.pqs.connect4.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+import edu.nyu.pqs.connect4.sim.BoardBatch;
+
+/**
+ * Measures the throughput of games played in lockstep: the same recorded
+ * random games played to their end by a BoardBatch, with the Vector API or
+ * plain loops, and by one Connect4Model per game through playMove. The forked
+ * JVM gets the jdk.incubator.vector module.
+ *
+ * @author ajaykhanna
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class BatchBenchmark {
+  @Param({ Shapes.STANDARD, "7x8x5" })
+  public String shape;
+
+  @Param({ "1024", "16384" })
+  public int games;
+
+  private BoardBatch scalar;
+  private BoardBatch vector;
+  private Connect4Model[] models;
+  private BenchmarkListener listener;
+  private int[][] plies;
+  private int[][] recorded;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    int[] size = Shapes.parse(shape);
+    scalar = new BoardBatch(size[0], size[1], size[2], games, false);
+    vector = new BoardBatch(size[0], size[1], size[2], games,
+        BoardBatch.isVectorAvailable());
+    models = new Connect4Model[games];
+    listener = new BenchmarkListener(blackhole);
+    recorded = new int[games][];
+    plies = new int[size[0] * size[1]][games];
+    for (int i = 0; i < games; i++) {
+      models[i] = new Connect4Model(size[0], size[1], size[2]);
+      models[i].joinGame(listener);
+      recorded[i] = Shapes.randomGame(size, i);
+      for (int ply = 0; ply < recorded[i].length; ply++) {
+        plies[ply][i] = recorded[i][ply];
+      }
+    }
+  }
+
+  private int playBatch(BoardBatch batch) {
+    batch.reset();
+    int ply = 0;
+    while (batch.play(plies[ply]) > 0) {
+      ply++;
+    }
+    return ply;
+  }
+
+  @Benchmark
+  public int batchScalar() {
+    return playBatch(scalar);
+  }
+
+  @Benchmark
+  public int batchVector() {
+    return playBatch(vector);
+  }
+
+  /**
+   * Plays the same games one move of every game at a time through playMove.
+   */
+  @Benchmark
+  public int modelPlayMove() {
+    for (Connect4Model model : models) {
+      model.startGame(listener, GameEnums.GameType.TWOPLAYER);
+    }
+    int inPlay = games;
+    int ply = 0;
+    while (inPlay > 0) {
+      inPlay = 0;
+      for (int i = 0; i < games; i++) {
+        if (ply < recorded[i].length) {
+          models[i].playMove(0, recorded[i][ply]);
+          inPlay++;
+        }
+      }
+      ply++;
+    }
+    return ply;
+  }
+}
@@ -0,0 +1,63 @@
+package edu.nyu.pqs.connect4.bench;
+
+import org.openjdk.jmh.infra.Blackhole;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+import edu.nyu.pqs.connect4.model.GameSnapshot;
+
+/**
+ * Listener that hands every event to a Blackhole so that the model's event
+ * delivery is measured without being optimized away.
+ *
+ * @author ajaykhanna
+ *
+ */
+class BenchmarkListener implements Connect4Listener {
+  private final Blackhole blackhole;
+
+  BenchmarkListener(Blackhole blackhole) {
+    this.blackhole = blackhole;
+  }
+
+  @Override
+  public void gameStarted(GameEnums.PlayerType turn,
+      GameEnums.GameType gameType, Connect4Model model) {
+    blackhole.consume(turn);
+  }
+
+  @Override
+  public void gameStopped(Connect4Model model) {
+    blackhole.consume(model);
+  }
+
+  @Override
+  public void playNextMove(int row, int col, GameEnums.PlayerType owner,
+      Connect4Model model) {
+    blackhole.consume(row);
+    blackhole.consume(col);
+  }
+
+  @Override
+  public void playNextMoves(GameSnapshot snapshot, int firstMove,
+      Connect4Model model) {
+    blackhole.consume(snapshot);
+    blackhole.consume(firstMove);
+  }
+
+  @Override
+  public void gameSnapshot(GameSnapshot snapshot, Connect4Model model) {
+    blackhole.consume(snapshot);
+  }
+
+  @Override
+  public void gameWon(int row, int col, GameEnums.PlayerType owner,
+      Connect4Model model) {
+    blackhole.consume(owner);
+  }
+
+  @Override
+  public void gameDraw(Connect4Model model) {
+    blackhole.consume(model);
+  }
+}
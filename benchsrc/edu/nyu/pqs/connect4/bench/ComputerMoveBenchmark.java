@@ -0,0 +1,67 @@
+package edu.nyu.pqs.connect4.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+import edu.nyu.pqs.connect4.sim.Strategy;
+
+/**
+ * Measures the time a computer player takes to choose a column in an opening
+ * position. The ENGINE runs with a fixed node budget and keeps its
+ * transposition table from one call to the next, so its numbers are those of
+ * repeated searches of one position.
+ *
+ * @author ajaykhanna
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComputerMoveBenchmark {
+  @Param({ Shapes.STANDARD, Shapes.WIDE, Shapes.LARGE })
+  public String shape;
+
+  @Param({ "RANDOM", "ONEPLY", "ENGINE" })
+  public String strategy;
+
+  @Param({ "20000" })
+  public long nodesPerMove;
+
+  private Connect4Model model;
+  private ComputerPlayer player;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    int[] size = Shapes.parse(shape);
+    model = new Connect4Model(size[0], size[1], size[2]);
+    BenchmarkListener listener = new BenchmarkListener(blackhole);
+    model.joinGame(listener);
+    model.startGame(listener, GameEnums.GameType.TWOPLAYER);
+    for (int col : Shapes.randomOpening(size, 8, 3)) {
+      model.playMove(0, col);
+    }
+    player = Strategy.valueOf(strategy).create(size[0], size[1], 3,
+        nodesPerMove);
+  }
+
+  @Benchmark
+  public int chooseColumn() {
+    return player.chooseColumn(model);
+  }
+}
@@ -0,0 +1,98 @@
+package edu.nyu.pqs.connect4.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+
+/**
+ * Measures the move path of Connect4Model with a number of listeners joined:
+ * a whole recorded game played through playMove, including the win and draw
+ * checks after every move, the same game played through playMoves, and a
+ * listener joining a game in progress and getting its snapshot.
+ *
+ * @author ajaykhanna
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+  @Param({ Shapes.STANDARD, Shapes.WIDE, Shapes.LARGE })
+  public String shape;
+
+  @Param({ "1", "16", "256" })
+  public int listeners;
+
+  private Connect4Model model;
+  private Connect4Model gameInProgress;
+  private BenchmarkListener starter;
+  private BenchmarkListener joiner;
+  private int[] game;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    int[] size = Shapes.parse(shape);
+    model = new Connect4Model(size[0], size[1], size[2]);
+    gameInProgress = new Connect4Model(size[0], size[1], size[2]);
+    starter = new BenchmarkListener(blackhole);
+    joiner = new BenchmarkListener(blackhole);
+    model.joinGame(starter);
+    gameInProgress.joinGame(starter);
+    for (int i = 1; i < listeners; i++) {
+      model.joinGame(new BenchmarkListener(blackhole));
+      gameInProgress.joinGame(new BenchmarkListener(blackhole));
+    }
+    game = Shapes.randomGame(size, 42);
+    gameInProgress.startGame(starter, GameEnums.GameType.TWOPLAYER);
+    for (int col : Shapes.randomOpening(size, size[0] * size[1] / 2, 42)) {
+      gameInProgress.playMove(0, col);
+    }
+  }
+
+  /**
+   * Plays one recorded game from start to its win or draw.
+   */
+  @Benchmark
+  public boolean playGame() {
+    model.startGame(starter, GameEnums.GameType.TWOPLAYER);
+    boolean played = true;
+    for (int col : game) {
+      played &= model.playMove(0, col);
+    }
+    return played;
+  }
+
+  /**
+   * Plays the same recorded game through one playMoves call.
+   */
+  @Benchmark
+  public boolean playGameBatch() {
+    model.startGame(starter, GameEnums.GameType.TWOPLAYER);
+    return model.playMoves(game);
+  }
+
+  /**
+   * Joins a listener to a half full game, which sends it the snapshot of the
+   * game, and lets it leave again.
+   */
+  @Benchmark
+  public boolean joinGameReplay() {
+    boolean joined = gameInProgress.joinGame(joiner);
+    return joined & gameInProgress.exitGame(joiner);
+  }
+}
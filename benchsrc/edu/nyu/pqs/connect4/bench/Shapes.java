@@ -0,0 +1,100 @@
+package edu.nyu.pqs.connect4.bench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import edu.nyu.pqs.connect4.model.GridBoard;
+
+/**
+ * Board shapes and recorded games shared by the benchmarks. A shape is written
+ * "rowSizeXcolSizeXwinSize" in the benchmark parameters.
+ *
+ * @author ajaykhanna
+ *
+ */
+final class Shapes {
+  static final String STANDARD = "6x7x4";
+  static final String WIDE = "10x12x5";
+  static final String LARGE = "20x20x6";
+
+  private Shapes() {
+  }
+
+  /**
+   * @param shape Shape parameter
+   * @return Row size, column size and winning size of the shape
+   */
+  static int[] parse(String shape) {
+    String[] sizes = shape.split("x");
+    return new int[] { Integer.parseInt(sizes[0]),
+        Integer.parseInt(sizes[1]), Integer.parseInt(sizes[2]) };
+  }
+
+  /**
+   * Records one random game up to and including the move that ends it.
+   *
+   * @param size Row size, column size and winning size
+   * @param seed Seed of the random columns
+   * @return Columns of the moves of the game
+   */
+  static int[] randomGame(int[] size, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    GridBoard board = new GridBoard(size[0], size[1], size[2]);
+    int[] columns = new int[board.getCells()];
+    int count = 0;
+    while (!board.isFull() && !board.lastMoverWon()) {
+      int col = random.nextInt(size[1]);
+      if (board.canPlay(col)) {
+        board.play(col);
+        columns[count++] = col;
+      }
+    }
+    return Arrays.copyOf(columns, count);
+  }
+
+  /**
+   * Records random games until one lasts at least the requested number of
+   * moves, stopping the recording before the move that ends the game.
+   *
+   * @param size Row size, column size and winning size
+   * @param moves Number of moves wanted
+   * @param seed Seed of the random columns
+   * @return Columns of the recorded moves, at most moves long
+   */
+  static int[] randomOpening(int[] size, int moves, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int[] best = new int[0];
+    for (int attempt = 0; attempt < 10000 && best.length < moves; attempt++) {
+      GridBoard board = new GridBoard(size[0], size[1], size[2]);
+      int[] columns = new int[moves];
+      int count = 0;
+      while (count < moves && !board.isFull()) {
+        int col = random.nextInt(size[1]);
+        if (!board.canPlay(col)) {
+          continue;
+        }
+        if (board.isWinningMove(col)) {
+          break;
+        }
+        board.play(col);
+        columns[count++] = col;
+      }
+      if (count > best.length) {
+        best = Arrays.copyOf(columns, count);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @param size Row size, column size and winning size
+   * @param columns Columns to play
+   * @return GridBoard after the moves
+   */
+  static GridBoard gridBoard(int[] size, int[] columns) {
+    GridBoard board = new GridBoard(size[0], size[1], size[2]);
+    for (int col : columns) {
+      board.play(col);
+    }
+    return board;
+  }
+}
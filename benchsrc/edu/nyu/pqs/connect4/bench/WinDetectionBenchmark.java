@@ -0,0 +1,184 @@
+package edu.nyu.pqs.connect4.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import edu.nyu.pqs.connect4.engine.LineEvaluator;
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.GridBoard;
+import edu.nyu.pqs.connect4.model.WideBitBoard;
+
+/**
+ * Measures the win checks the model and the engines run after and before
+ * every move, on a half full board: whether any column wins for the player
+ * to move and whether the last move won. The BitBoard checks only run on the
+ * shapes that fit in a long, the WideBitBoard checks on any shape, standard
+ * included to compare with BitBoard. The LineEvaluator answers from counters
+ * kept up to date by its moves, which are measured with an undo.
+ *
+ * @author ajaykhanna
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WinDetectionBenchmark {
+
+  @State(Scope.Thread)
+  public static class GridState {
+    @Param({ Shapes.STANDARD, Shapes.WIDE, Shapes.LARGE })
+    public String shape;
+
+    private GridBoard board;
+
+    @Setup
+    public void setup() {
+      int[] size = Shapes.parse(shape);
+      board = Shapes.gridBoard(size, Shapes.randomOpening(size, size[0]
+          * size[1] / 2, 7));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class BitState {
+    @Param({ "4x5x4", Shapes.STANDARD, "7x8x4" })
+    public String shape;
+
+    private BitBoard board;
+
+    @Setup
+    public void setup() {
+      int[] size = Shapes.parse(shape);
+      board = new BitBoard(size[0], size[1], size[2]);
+      for (int col : Shapes.randomOpening(size, size[0] * size[1] / 2, 7)) {
+        board.play(col);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class WideState {
+    @Param({ Shapes.STANDARD, Shapes.WIDE, Shapes.LARGE })
+    public String shape;
+
+    private WideBitBoard board;
+    private boolean[] columns;
+
+    @Setup
+    public void setup() {
+      int[] size = Shapes.parse(shape);
+      board = new WideBitBoard(size[0], size[1], size[2]);
+      columns = new boolean[size[1]];
+      for (int col : Shapes.randomOpening(size, size[0] * size[1] / 2, 7)) {
+        board.play(col);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class LineState {
+    @Param({ Shapes.STANDARD, Shapes.WIDE, Shapes.LARGE })
+    public String shape;
+
+    private LineEvaluator evaluator;
+    private int column;
+
+    @Setup
+    public void setup() {
+      int[] size = Shapes.parse(shape);
+      evaluator = new LineEvaluator(Shapes.gridBoard(size, Shapes
+          .randomOpening(size, size[0] * size[1] / 2, 7)));
+      column = 0;
+      while (!evaluator.canPlay(column)) {
+        column++;
+      }
+    }
+  }
+
+  @Benchmark
+  public int gridBoardWinningMoves(GridState state) {
+    GridBoard board = state.board;
+    int wins = 0;
+    for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+      if (board.canPlay(col) && board.isWinningMove(col)) {
+        wins++;
+      }
+    }
+    return wins;
+  }
+
+  @Benchmark
+  public boolean gridBoardLastMoverWon(GridState state) {
+    return state.board.lastMoverWon();
+  }
+
+  @Benchmark
+  public int bitBoardWinningMoves(BitState state) {
+    BitBoard board = state.board;
+    int wins = 0;
+    for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+      if (board.canPlay(col) && board.isWinningMove(col)) {
+        wins++;
+      }
+    }
+    return wins;
+  }
+
+  @Benchmark
+  public long bitBoardWinningCells(BitState state) {
+    BitBoard board = state.board;
+    return board.winningCells(board.getCurrent(), board.getMask());
+  }
+
+  @Benchmark
+  public boolean bitBoardLastMoverWon(BitState state) {
+    return state.board.lastMoverWon();
+  }
+
+  @Benchmark
+  public int wideBitBoardWinningMoves(WideState state) {
+    WideBitBoard board = state.board;
+    int wins = 0;
+    for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+      if (board.canPlay(col) && board.isWinningMove(col)) {
+        wins++;
+      }
+    }
+    return wins;
+  }
+
+  @Benchmark
+  public int wideBitBoardFindWinningMoves(WideState state) {
+    return state.board.findWinningMoves(state.columns);
+  }
+
+  @Benchmark
+  public boolean wideBitBoardLastMoverWon(WideState state) {
+    return state.board.lastMoverWon();
+  }
+
+  @Benchmark
+  public boolean lineEvaluatorCanWinNext(LineState state) {
+    return state.evaluator.canWinNext();
+  }
+
+  @Benchmark
+  public long lineEvaluatorPlayEvaluateUndo(LineState state) {
+    LineEvaluator evaluator = state.evaluator;
+    evaluator.play(state.column);
+    long score = evaluator.evaluate();
+    evaluator.undo(state.column);
+    return score;
+  }
+}
@@ -0,0 +1,253 @@
+package edu.nyu.pqs.connect4.actor;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+
+/**
+ * Runs one Connect4Model as an actor. Any thread can send commands, which go
+ * into a lock free mailbox, and the mailbox is drained by one task at a time
+ * on the executor, so the model and its listeners only ever run on one thread
+ * at a time without any lock on the move path. An actor without commands
+ * holds no thread, so one executor can host as many games as fit in memory;
+ * on a runtime with virtual threads, an executor that starts a virtual thread
+ * per task gives every drain its own virtual thread.
+ *
+ * In GameType.SINGLEPLAYER games the computer's reply is played by the drain
+ * right after playMove has returned, once every listener has seen the
+ * player's move, instead of from within playMove, and before any other
+ * command.
+ *
+ * The model must not be used other than through its actor once the actor is
+ * created.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class GameActor {
+  private static final int BATCH = 64;
+  private final Connect4Model model;
+  private final Executor executor;
+  private final Queue<Command> mailbox;
+  private final AtomicBoolean scheduled;
+  private final AtomicInteger pending;
+  private final Runnable drainer;
+  private volatile boolean stopped;
+
+  /**
+   * Kind of command, one per model operation.
+   */
+  private enum Kind {
+    JOIN, START, MOVE, EXIT, STOP
+  }
+
+  /**
+   * A command in the mailbox with the future that gets its result.
+   */
+  private static final class Command {
+    private final Kind kind;
+    private final Connect4Listener listener;
+    private final GameEnums.GameType gameType;
+    private final int row;
+    private final int col;
+    private final CompletableFuture<Boolean> result;
+
+    Command(Kind kind, Connect4Listener listener,
+        GameEnums.GameType gameType, int row, int col) {
+      this.kind = kind;
+      this.listener = listener;
+      this.gameType = gameType;
+      this.row = row;
+      this.col = col;
+      result = new CompletableFuture<Boolean>();
+    }
+  }
+
+  /**
+   * Constructor of the GameActor.
+   *
+   * @param model The model the actor owns
+   * @param executor Executor running the mailbox drains
+   * @throws NullPointerException if model or executor is Null
+   */
+  public GameActor(Connect4Model model, Executor executor) {
+    if (model == null || executor == null) {
+      throw new NullPointerException("Model and executor cannot be Null");
+    }
+    this.model = model;
+    this.executor = executor;
+    mailbox = new ConcurrentLinkedQueue<Command>();
+    scheduled = new AtomicBoolean(false);
+    pending = new AtomicInteger();
+    drainer = new Runnable() {
+      @Override
+      public void run() {
+        drain();
+      }
+    };
+    model.setAutoComputerMove(false);
+  }
+
+  /**
+   * Sends Connect4Model.joinGame.
+   *
+   * @param listener The listener who joins the game
+   * @return Result of joinGame
+   */
+  public CompletableFuture<Boolean> join(Connect4Listener listener) {
+    return send(new Command(Kind.JOIN, listener, null, -1, -1));
+  }
+
+  /**
+   * Sends Connect4Model.startGame.
+   *
+   * @param listener The listener who requests the start
+   * @param gameType Type of the game
+   * @return Result of startGame
+   */
+  public CompletableFuture<Boolean> start(Connect4Listener listener,
+      GameEnums.GameType gameType) {
+    return send(new Command(Kind.START, listener, gameType, -1, -1));
+  }
+
+  /**
+   * Sends Connect4Model.playMove, followed by the computer's reply in a
+   * GameType.SINGLEPLAYER game.
+   *
+   * @param row Row Location of the move
+   * @param col Column Location of the move
+   * @return Result of playMove, completed after the computer's reply if any,
+   *         failed with IllegalArgumentException if the location is out of
+   *         bounds
+   */
+  public CompletableFuture<Boolean> move(int row, int col) {
+    return send(new Command(Kind.MOVE, null, null, row, col));
+  }
+
+  /**
+   * Sends Connect4Model.exitGame.
+   *
+   * @param listener The listener who leaves the game
+   * @return Result of exitGame
+   */
+  public CompletableFuture<Boolean> exit(Connect4Listener listener) {
+    return send(new Command(Kind.EXIT, listener, null, -1, -1));
+  }
+
+  /**
+   * Stops the actor after the commands already sent. Commands sent later fail
+   * with IllegalStateException and the model is not touched by the actor
+   * again once the returned future is complete.
+   *
+   * @return Completes with true once the actor has stopped
+   */
+  public CompletableFuture<Boolean> stop() {
+    return send(new Command(Kind.STOP, null, null, -1, -1));
+  }
+
+  /**
+   * Hands the model back once the actor has stopped, for instance to reuse it
+   * for another game.
+   *
+   * @return The model
+   * @throws IllegalStateException if the actor has not stopped
+   */
+  public Connect4Model releaseModel() {
+    if (!stopped) {
+      throw new IllegalStateException("Game actor is not stopped");
+    }
+    return model;
+  }
+
+  /**
+   * @return true once the actor has run its stop command
+   */
+  public boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * @return Number of commands sent and not yet run
+   */
+  public int getPendingCommands() {
+    return pending.get();
+  }
+
+  /**
+   * Queues the command and schedules a drain unless one is scheduled.
+   */
+  private CompletableFuture<Boolean> send(Command command) {
+    if (stopped) {
+      command.result.completeExceptionally(new IllegalStateException(
+          "Game actor is stopped"));
+      return command.result;
+    }
+    pending.incrementAndGet();
+    mailbox.offer(command);
+    schedule();
+    return command.result;
+  }
+
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(drainer);
+    }
+  }
+
+  /**
+   * Runs up to BATCH commands, then leaves the thread to other actors and
+   * schedules itself again if commands are left.
+   */
+  private void drain() {
+    for (int n = 0; n < BATCH; n++) {
+      Command command = mailbox.poll();
+      if (command == null) {
+        break;
+      }
+      pending.decrementAndGet();
+      if (stopped) {
+        command.result.completeExceptionally(new IllegalStateException(
+            "Game actor is stopped"));
+        continue;
+      }
+      try {
+        boolean result = run(command);
+        if (!stopped && model.isComputerTurn()) {
+          model.playComputerMove();
+        }
+        command.result.complete(result);
+      } catch (RuntimeException e) {
+        command.result.completeExceptionally(e);
+      }
+    }
+    scheduled.set(false);
+    if (!mailbox.isEmpty()) {
+      schedule();
+    }
+  }
+
+  /**
+   * Runs a command on the model.
+   */
+  private boolean run(Command command) {
+    switch (command.kind) {
+    case JOIN:
+      return model.joinGame(command.listener);
+    case START:
+      return model.startGame(command.listener, command.gameType);
+    case MOVE:
+      return model.playMove(command.row, command.col);
+    case STOP:
+      stopped = true;
+      return true;
+    default:
+      return model.exitGame(command.listener);
+    }
+  }
+}
@@ -0,0 +1,212 @@
+package edu.nyu.pqs.connect4.archive;
+
+import java.util.Arrays;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+import edu.nyu.pqs.connect4.model.GridBoard;
+
+/**
+ * Immutable record of one game: board size, game type, result and the
+ * columns of the moves in the order they were played.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class GameRecord {
+
+  /**
+   * How the game ended. INPLAY is a game that was stopped before it ended.
+   */
+  public enum Result {
+    INPLAY, PLAYER1, PLAYER2, DRAW
+  }
+
+  private final int rowSize;
+  private final int colSize;
+  private final int winSize;
+  private final GameEnums.GameType gameType;
+  private final Result result;
+  private final int[] moves;
+
+  /**
+   * Constructor of the GameRecord.
+   *
+   * @param rowSize Number of Rows in the game
+   * @param colSize Number of Columns in the game
+   * @param winSize Winning Size of the game
+   * @param gameType Type of the game
+   * @param result How the game ended
+   * @param moves Columns of the moves in the order they were played
+   * @throws NullPointerException if gameType, result or moves is Null
+   * @throws IllegalArgumentException if a size is not positive, there are
+   *           more moves than cells or a column is out of bounds
+   */
+  public GameRecord(int rowSize, int colSize, int winSize,
+      GameEnums.GameType gameType, Result result, int[] moves) {
+    this(rowSize, colSize, winSize, gameType, result, moves, true);
+  }
+
+  /**
+   * Constructor of the GameRecord that can keep the moves array rather than
+   * copy it, for the GameRecordReader which decodes every record into a new
+   * array.
+   *
+   * @param rowSize Number of Rows in the game
+   * @param colSize Number of Columns in the game
+   * @param winSize Winning Size of the game
+   * @param gameType Type of the game
+   * @param result How the game ended
+   * @param moves Columns of the moves in the order they were played
+   * @param copy false to keep moves, which the caller must not change after
+   * @throws NullPointerException if gameType, result or moves is Null
+   * @throws IllegalArgumentException if a size is not positive, there are
+   *           more moves than cells or a column is out of bounds
+   */
+  GameRecord(int rowSize, int colSize, int winSize,
+      GameEnums.GameType gameType, Result result, int[] moves, boolean copy) {
+    if (gameType == null || result == null || moves == null) {
+      throw new NullPointerException(
+          "Game Type, result and moves cannot be Null");
+    }
+    if (rowSize <= 0 || colSize <= 0 || winSize <= 0) {
+      throw new IllegalArgumentException("Invalid game size");
+    }
+    if (moves.length > (long) rowSize * colSize) {
+      throw new IllegalArgumentException("More moves than cells");
+    }
+    for (int col : moves) {
+      if (col < 0 || col >= colSize) {
+        throw new IllegalArgumentException("Invalid Grid Location");
+      }
+    }
+    this.rowSize = rowSize;
+    this.colSize = colSize;
+    this.winSize = winSize;
+    this.gameType = gameType;
+    this.result = result;
+    this.moves = copy ? Arrays.copyOf(moves, moves.length) : moves;
+  }
+
+  /**
+   * Records the current or last game of a model.
+   *
+   * @param model Reference to the model
+   * @return Record of the game
+   * @throws NullPointerException if model is Null
+   * @throws IllegalStateException if the model never started a game
+   */
+  public static GameRecord of(Connect4Model model) {
+    if (model == null) {
+      throw new NullPointerException("Model cannot be Null");
+    }
+    if (model.getGameType() == null) {
+      throw new IllegalStateException("No game was started");
+    }
+    Result result;
+    if (model.getWinner() == GameEnums.PlayerType.PLAYER1) {
+      result = Result.PLAYER1;
+    } else if (model.getWinner() == GameEnums.PlayerType.PLAYER2) {
+      result = Result.PLAYER2;
+    } else if (model.getMovesPlayed() == model.getGRIDROWSIZE()
+        * model.getGRIDCOLUMNSIZE()) {
+      result = Result.DRAW;
+    } else {
+      result = Result.INPLAY;
+    }
+    return new GameRecord(model.getGRIDROWSIZE(), model.getGRIDCOLUMNSIZE(),
+        model.getWINNINGSIZE(), model.getGameType(), result,
+        model.getMoveHistory());
+  }
+
+  /**
+   * Plays the moves on a new board.
+   *
+   * @return The final position
+   * @throws IllegalArgumentException if a move is played in a full column
+   */
+  public GridBoard replay() {
+    GridBoard board = new GridBoard(rowSize, colSize, winSize);
+    for (int col : moves) {
+      if (!board.canPlay(col)) {
+        throw new IllegalArgumentException("Column " + col + " is full");
+      }
+      board.play(col);
+    }
+    return board;
+  }
+
+  /**
+   * @param colSize Number of Columns in the game
+   * @return Number of bits a move takes in the packed format
+   */
+  public static int bitsPerMove(int colSize) {
+    return Math.max(1, 32 - Integer.numberOfLeadingZeros(colSize - 1));
+  }
+
+  public int getROWSIZE() {
+    return rowSize;
+  }
+
+  public int getCOLUMNSIZE() {
+    return colSize;
+  }
+
+  public int getWINNINGSIZE() {
+    return winSize;
+  }
+
+  public GameEnums.GameType getGameType() {
+    return gameType;
+  }
+
+  public Result getResult() {
+    return result;
+  }
+
+  /**
+   * @return Number of moves played
+   */
+  public int getMoveCount() {
+    return moves.length;
+  }
+
+  /**
+   * @param index Index of the move, 0 for the first one
+   * @return Column of the move
+   */
+  public int getMove(int index) {
+    return moves[index];
+  }
+
+  /**
+   * @return Copy of the columns of the moves
+   */
+  public int[] getMoves() {
+    return Arrays.copyOf(moves, moves.length);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof GameRecord)) {
+      return false;
+    }
+    GameRecord record = (GameRecord) other;
+    return rowSize == record.rowSize && colSize == record.colSize
+        && winSize == record.winSize && gameType == record.gameType
+        && result == record.result && Arrays.equals(moves, record.moves);
+  }
+
+  @Override
+  public int hashCode() {
+    return ((rowSize * 31 + colSize) * 31 + winSize) * 31
+        + Arrays.hashCode(moves);
+  }
+
+  /**
+   * @return String in format of "6X7/4 TWOPLAYER PLAYER1 [3, 3, 4]"
+   */
+  public String toString() {
+    return rowSize + "X" + colSize + "/" + winSize + " " + gameType + " "
+        + result + " " + Arrays.toString(moves);
+  }
+}
@@ -0,0 +1,162 @@
+package edu.nyu.pqs.connect4.archive;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import edu.nyu.pqs.connect4.model.GameEnums;
+
+/**
+ * Reads the game records written by a GameRecordWriter from a channel. The
+ * channel is read in 64 KB blocks into a direct buffer and the records are
+ * decoded straight from the buffer. Not safe for use by more than one thread
+ * at a time.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class GameRecordReader implements Closeable {
+  private static final GameEnums.GameType[] GAME_TYPES = GameEnums.GameType
+      .values();
+  private static final GameRecord.Result[] RESULTS = GameRecord.Result
+      .values();
+
+  private final ReadableByteChannel channel;
+  private ByteBuffer buffer;
+  private boolean endOfStream;
+  private long records;
+
+  /**
+   * Constructor of the GameRecordReader. Reads the stream header.
+   *
+   * @param channel Channel the records are read from
+   * @throws NullPointerException if channel is Null
+   * @throws IOException if the channel cannot be read or does not start with
+   *           a game record stream header
+   */
+  public GameRecordReader(ReadableByteChannel channel) throws IOException {
+    if (channel == null) {
+      throw new NullPointerException("Channel cannot be Null");
+    }
+    this.channel = channel;
+    buffer = ByteBuffer.allocateDirect(GameRecordWriter.BUFFER_SIZE);
+    buffer.flip();
+    if (!ensure(8) || buffer.getInt() != GameRecordWriter.MAGIC
+        || buffer.getInt() != GameRecordWriter.VERSION) {
+      throw new IOException("Not a game record stream");
+    }
+  }
+
+  /**
+   * Decodes the next record.
+   *
+   * @return The record or null at the end of the stream
+   * @throws EOFException if the stream ends within a record
+   * @throws IOException if the channel cannot be read or a record is corrupt,
+   *           which is found from its sizes and move count before any
+   *           memory is allocated for its moves
+   */
+  public GameRecord read() throws IOException {
+    if (!ensure(1)) {
+      return null;
+    }
+    int rowSize = getVarint();
+    int colSize = getVarint();
+    int winSize = getVarint();
+    int kind = getByte() & 0xFF;
+    int count = getVarint();
+    if (rowSize <= 0 || colSize <= 0 || winSize <= 0
+        || (kind >>> 2) >= GAME_TYPES.length || count < 0
+        || count > (long) rowSize * colSize) {
+      throw new IOException("Corrupt game record");
+    }
+    int bits = GameRecord.bitsPerMove(colSize);
+    long bytes = ((long) count * bits + 7) / 8;
+    if (bytes > Integer.MAX_VALUE - 8 || !ensure((int) bytes)) {
+      throw new EOFException("Truncated game record");
+    }
+    int[] moves = new int[count];
+    int mask = (1 << bits) - 1;
+    long packed = 0;
+    int filled = 0;
+    for (int i = 0; i < count; i++) {
+      while (filled < bits) {
+        packed |= (long) (buffer.get() & 0xFF) << filled;
+        filled += 8;
+      }
+      moves[i] = (int) packed & mask;
+      packed >>>= bits;
+      filled -= bits;
+    }
+    try {
+      GameRecord record = new GameRecord(rowSize, colSize, winSize,
+          GAME_TYPES[kind >>> 2], RESULTS[kind & 3], moves, false);
+      records++;
+      return record;
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Corrupt game record", e);
+    }
+  }
+
+  private byte getByte() throws IOException {
+    if (!ensure(1)) {
+      throw new EOFException("Truncated game record");
+    }
+    return buffer.get();
+  }
+
+  private int getVarint() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = getByte();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IOException("Corrupt game record");
+  }
+
+  /**
+   * Reads the channel until the buffer holds n bytes or the stream ends,
+   * growing the buffer for records larger than it.
+   *
+   * @return true if n bytes are buffered
+   */
+  private boolean ensure(int n) throws IOException {
+    if (buffer.remaining() >= n) {
+      return true;
+    }
+    if (endOfStream) {
+      return false;
+    }
+    if (buffer.capacity() < n) {
+      ByteBuffer larger = ByteBuffer.allocateDirect(n);
+      larger.put(buffer);
+      buffer = larger;
+    } else {
+      buffer.compact();
+    }
+    while (buffer.position() < n) {
+      if (channel.read(buffer) < 0) {
+        endOfStream = true;
+        break;
+      }
+    }
+    buffer.flip();
+    return buffer.remaining() >= n;
+  }
+
+  /**
+   * @return Number of records read
+   */
+  public long getRecords() {
+    return records;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
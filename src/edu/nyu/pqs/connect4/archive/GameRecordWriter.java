@@ -0,0 +1,137 @@
+package edu.nyu.pqs.connect4.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes game records to a channel in the packed format read by the
+ * GameRecordReader. Records are encoded into a direct buffer that is written
+ * to the channel whenever it is full, so a stream of records costs one
+ * channel write per 64 KB. Not safe for use by more than one thread at a
+ * time.
+ *
+ * The stream starts with the magic and the version (ints). Every record then
+ * has its rowSize, colSize and winSize (unsigned varints), one byte holding
+ * the game type in the high bits and the result in the 2 low bits, the number
+ * of moves (unsigned varint) and the columns of the moves packed in
+ * GameRecord.bitsPerMove(colSize) bits each, lowest bits first, padded to a
+ * whole byte. A 6X7 game takes 5 bytes plus 3 bits per move.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class GameRecordWriter implements Closeable {
+  static final int MAGIC = 0x43344752;
+  static final int VERSION = 1;
+  static final int BUFFER_SIZE = 1 << 16;
+  static final int MAX_HEADER_SIZE = 21;
+
+  private final WritableByteChannel channel;
+  private ByteBuffer buffer;
+  private long records;
+
+  /**
+   * Constructor of the GameRecordWriter. Writes the stream header.
+   *
+   * @param channel Channel the records are written to
+   * @throws NullPointerException if channel is Null
+   * @throws IOException if the header cannot be written
+   */
+  public GameRecordWriter(WritableByteChannel channel) throws IOException {
+    if (channel == null) {
+      throw new NullPointerException("Channel cannot be Null");
+    }
+    this.channel = channel;
+    buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+  }
+
+  /**
+   * Encodes a record into the buffer, writing the buffer to the channel first
+   * if the record does not fit.
+   *
+   * @param record The record
+   * @throws NullPointerException if record is Null
+   * @throws IOException if the channel cannot be written
+   */
+  public void write(GameRecord record) throws IOException {
+    if (record == null) {
+      throw new NullPointerException("Record cannot be Null");
+    }
+    int bits = GameRecord.bitsPerMove(record.getCOLUMNSIZE());
+    int count = record.getMoveCount();
+    int size = MAX_HEADER_SIZE + (int) (((long) count * bits + 7) / 8);
+    if (buffer.remaining() < size) {
+      flush();
+      if (buffer.capacity() < size) {
+        buffer = ByteBuffer.allocateDirect(size);
+      }
+    }
+    putVarint(record.getROWSIZE());
+    putVarint(record.getCOLUMNSIZE());
+    putVarint(record.getWINNINGSIZE());
+    buffer.put((byte) (record.getGameType().ordinal() << 2 | record
+        .getResult().ordinal()));
+    putVarint(count);
+    long packed = 0;
+    int filled = 0;
+    for (int i = 0; i < count; i++) {
+      packed |= (long) record.getMove(i) << filled;
+      filled += bits;
+      while (filled >= 8) {
+        buffer.put((byte) packed);
+        packed >>>= 8;
+        filled -= 8;
+      }
+    }
+    if (filled > 0) {
+      buffer.put((byte) packed);
+    }
+    records++;
+  }
+
+  private void putVarint(int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) (value & 0x7F | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Writes the buffered records to the channel.
+   *
+   * @throws IOException if the channel cannot be written
+   */
+  public void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * @return Number of records written
+   */
+  public long getRecords() {
+    return records;
+  }
+
+  /**
+   * Flushes the buffered records and closes the channel.
+   *
+   * @throws IOException if the channel cannot be written or closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package edu.nyu.pqs.connect4.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+
+/**
+ * Listener that archives every game it sees end, won or drawn, through a
+ * GameRecordWriter. One recorder can join any number of models; writes are
+ * serialized on the writer.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class GameRecorder implements Connect4Listener {
+  private final GameRecordWriter writer;
+
+  /**
+   * Constructor of the GameRecorder.
+   *
+   * @param writer Writer the records go to
+   * @throws NullPointerException if writer is Null
+   */
+  public GameRecorder(GameRecordWriter writer) {
+    if (writer == null) {
+      throw new NullPointerException("Writer cannot be Null");
+    }
+    this.writer = writer;
+  }
+
+  @Override
+  public void gameStarted(GameEnums.PlayerType turn,
+      GameEnums.GameType gameType, Connect4Model model) {
+  }
+
+  @Override
+  public void gameStopped(Connect4Model model) {
+  }
+
+  @Override
+  public void playNextMove(int row, int col, GameEnums.PlayerType owner,
+      Connect4Model model) {
+  }
+
+  /**
+   * @throws UncheckedIOException if the record cannot be written
+   */
+  @Override
+  public void gameWon(int row, int col, GameEnums.PlayerType owner,
+      Connect4Model model) {
+    record(model);
+  }
+
+  /**
+   * @throws UncheckedIOException if the record cannot be written
+   */
+  @Override
+  public void gameDraw(Connect4Model model) {
+    record(model);
+  }
+
+  private void record(Connect4Model model) {
+    GameRecord record = GameRecord.of(model);
+    synchronized (writer) {
+      try {
+        writer.write(record);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,389 @@
+package edu.nyu.pqs.connect4.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import edu.nyu.pqs.connect4.engine.PositionAnalysis;
+import edu.nyu.pqs.connect4.engine.PositionAnalyzer;
+import edu.nyu.pqs.connect4.engine.TranspositionTable;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+/**
+ * Runs a PositionProcessor over every line of a position stream and writes
+ * one output line per input line, in the input order. The calling thread
+ * parses the input with a PositionReader into batches of position keys,
+ * worker threads process whole batches and encode their output as UTF-8, and
+ * a writer thread writes the batches back in order. A fixed pool of batches
+ * is recycled once written, so the reader never gets more than the pool ahead
+ * of the writer and the memory used does not depend on the size of the
+ * stream.
+ *
+ * If the processor throws or the output cannot be written, no further batch
+ * is written, the input is no longer read and process() throws once the
+ * threads are done.
+ *
+ * Usage: PositionPipeline input output [rowSize colSize winSize] [threads]
+ * [nodesPerColumn] analyzes every position of the input with a
+ * PositionAnalyzer and writes the best column, 1 based, and the score of
+ * every column, "?" after a score that is only a bound and "-" for a full
+ * column, or "invalid" or "over".
+ *
+ * @author ajaykhanna
+ *
+ */
+public class PositionPipeline {
+  private static final int BATCH_LINES = 1024;
+
+  private final BitBoard empty;
+  private final int threads;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: PositionPipeline input output "
+          + "[rowSize colSize winSize] [threads] [nodesPerColumn]");
+      System.exit(1);
+    }
+    int rowSize = args.length > 4 ? Integer.parseInt(args[2]) : 6;
+    int colSize = args.length > 4 ? Integer.parseInt(args[3]) : 7;
+    int winSize = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+    int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime
+        .getRuntime().availableProcessors();
+    long nodes = args.length > 6 ? Long.parseLong(args[6]) : 100000;
+    final PositionAnalyzer analyzer = new PositionAnalyzer(rowSize, colSize,
+        winSize, new TranspositionTable(256), 1000, nodes);
+    PositionProcessor processor = new PositionProcessor() {
+      @Override
+      public void process(BitBoard position, boolean valid,
+          StringBuilder out) {
+        if (!valid) {
+          out.append("invalid");
+          return;
+        }
+        if (position.isFull()) {
+          out.append("over");
+          return;
+        }
+        PositionAnalysis analysis = analyzer.analyze(position);
+        out.append(analysis.getBestColumn() + 1);
+        for (int col = 0; col < position.getCOLUMNSIZE(); col++) {
+          out.append(' ');
+          if (analysis.isLegal(col)) {
+            out.append(analysis.getScore(col));
+            if (!analysis.isExact(col)) {
+              out.append('?');
+            }
+          } else {
+            out.append('-');
+          }
+        }
+      }
+    };
+    long start = System.nanoTime();
+    long lines;
+    try (FileChannel input = FileChannel.open(Paths.get(args[0]),
+        StandardOpenOption.READ);
+        FileChannel output = FileChannel.open(Paths.get(args[1]),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      lines = new PositionPipeline(rowSize, colSize, winSize, threads)
+          .process(input, output, processor);
+    }
+    System.out.printf("%d positions analyzed in %.1f seconds%n", lines,
+        (System.nanoTime() - start) / 1e9);
+  }
+
+  /**
+   * Constructor of the PositionPipeline.
+   *
+   * @param rowSize Number of Rows of the positions
+   * @param colSize Number of Columns of the positions, at most 9
+   * @param winSize Winning Size of the positions
+   * @param threads Number of worker threads
+   * @throws IllegalArgumentException if the board does not fit in a BitBoard,
+   *           has more than 9 columns, or winSize or threads is not positive
+   */
+  public PositionPipeline(int rowSize, int colSize, int winSize, int threads) {
+    if (!BitBoard.fits(rowSize, colSize) || colSize > 9 || winSize <= 0
+        || threads <= 0) {
+      throw new IllegalArgumentException("Invalid PositionPipeline size");
+    }
+    empty = new BitBoard(rowSize, colSize, winSize);
+    this.threads = threads;
+  }
+
+  /**
+   * Processes every line of the input. The channels are not closed.
+   *
+   * @param input Channel the positions are read from
+   * @param output Channel the output lines are written to
+   * @param processor Processor called for every position
+   * @return Number of lines processed
+   * @throws NullPointerException if a channel or processor is Null
+   * @throws IOException if a channel cannot be read or written
+   * @throws RuntimeException thrown by the processor, the first one if more
+   *           than one batch failed
+   */
+  public long process(ReadableByteChannel input, WritableByteChannel output,
+      PositionProcessor processor) throws IOException {
+    if (input == null || output == null || processor == null) {
+      throw new NullPointerException(
+          "Channels and processor cannot be Null");
+    }
+    int poolSize = 2 * threads + 2;
+    BlockingQueue<Batch> free = new ArrayBlockingQueue<Batch>(poolSize);
+    BlockingQueue<Batch> work = new ArrayBlockingQueue<Batch>(poolSize
+        + threads);
+    BlockingQueue<Batch> ordered = new ArrayBlockingQueue<Batch>(poolSize + 1);
+    for (int i = 0; i < poolSize; i++) {
+      free.add(new Batch());
+    }
+    AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    long lines = 0;
+    try {
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(new Worker(work, processor)));
+      }
+      futures.add(executor.submit(new Writer(ordered, free, output,
+          failure)));
+      try {
+        lines = read(new PositionReader(input), free, work, ordered, failure);
+      } finally {
+        for (int i = 0; i < threads; i++) {
+          work.add(Batch.END);
+        }
+        ordered.add(Batch.END);
+        for (Future<?> future : futures) {
+          try {
+            future.get();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing", e);
+          } catch (ExecutionException e) {
+            throw new IllegalStateException("Processing failed", e.getCause());
+          }
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Throwable e = failure.get();
+    if (e instanceof IOException) {
+      throw (IOException) e;
+    }
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+    if (e != null) {
+      throw (RuntimeException) e;
+    }
+    return lines;
+  }
+
+  /**
+   * Parses the input into batches until the end of the stream or a failure.
+   *
+   * @return Number of lines read
+   */
+  private long read(PositionReader reader, BlockingQueue<Batch> free,
+      BlockingQueue<Batch> work, BlockingQueue<Batch> ordered,
+      AtomicReference<Throwable> failure) throws IOException {
+    BitBoard position = new BitBoard(empty);
+    while (failure.get() == null) {
+      Batch batch;
+      try {
+        batch = free.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while reading", e);
+      }
+      batch.reset();
+      while (batch.size < BATCH_LINES && reader.next(position)) {
+        batch.keys[batch.size] = position.key();
+        batch.valid[batch.size] = reader.isValid();
+        batch.size++;
+      }
+      if (batch.size == 0) {
+        free.add(batch);
+        break;
+      }
+      ordered.add(batch);
+      work.add(batch);
+    }
+    return reader.getLines();
+  }
+
+  /**
+   * Lines of the input parsed into keys, and their output once processed.
+   */
+  private static final class Batch {
+    static final Batch END = new Batch();
+
+    final long[] keys = new long[BATCH_LINES];
+    final boolean[] valid = new boolean[BATCH_LINES];
+    final StringBuilder text = new StringBuilder();
+    ByteBuffer bytes = ByteBuffer.allocate(BATCH_LINES * 8);
+    int size;
+    Throwable error;
+    private boolean done;
+
+    void reset() {
+      size = 0;
+      error = null;
+      done = false;
+    }
+
+    synchronized void finish() {
+      done = true;
+      notifyAll();
+    }
+
+    synchronized void awaitDone() throws InterruptedException {
+      while (!done) {
+        wait();
+      }
+    }
+  }
+
+  /**
+   * Processes batches and encodes their output until it takes the END batch.
+   */
+  private final class Worker implements Runnable {
+    private final BlockingQueue<Batch> work;
+    private final PositionProcessor processor;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8
+        .newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    Worker(BlockingQueue<Batch> work, PositionProcessor processor) {
+      this.work = work;
+      this.processor = processor;
+    }
+
+    @Override
+    public void run() {
+      BitBoard position = new BitBoard(empty);
+      Batch batch;
+      try {
+        while ((batch = work.take()) != Batch.END) {
+          try {
+            batch.text.setLength(0);
+            for (int i = 0; i < batch.size; i++) {
+              position.setKey(batch.keys[i]);
+              processor.process(position, batch.valid[i], batch.text);
+              batch.text.append('\n');
+            }
+            encode(batch);
+          } catch (RuntimeException e) {
+            batch.error = e;
+          } catch (Error e) {
+            batch.error = e;
+          } finally {
+            batch.finish();
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void encode(Batch batch) {
+      CharBuffer chars = CharBuffer.wrap(batch.text);
+      batch.bytes.clear();
+      encoder.reset();
+      while (encoder.encode(chars, batch.bytes, true).isOverflow()) {
+        batch.bytes = grow(batch.bytes);
+      }
+      while (encoder.flush(batch.bytes).isOverflow()) {
+        batch.bytes = grow(batch.bytes);
+      }
+      batch.bytes.flip();
+    }
+
+    private ByteBuffer grow(ByteBuffer bytes) {
+      ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+      bytes.flip();
+      larger.put(bytes);
+      return larger;
+    }
+  }
+
+  /**
+   * Writes the batches in input order and hands them back to the reader until
+   * it takes the END batch. After a failure it only hands them back.
+   */
+  private static final class Writer implements Runnable {
+    private final BlockingQueue<Batch> ordered;
+    private final BlockingQueue<Batch> free;
+    private final WritableByteChannel output;
+    private final AtomicReference<Throwable> failure;
+
+    Writer(BlockingQueue<Batch> ordered, BlockingQueue<Batch> free,
+        WritableByteChannel output, AtomicReference<Throwable> failure) {
+      this.ordered = ordered;
+      this.free = free;
+      this.output = output;
+      this.failure = failure;
+    }
+
+    @Override
+    public void run() {
+      Batch batch;
+      try {
+        while ((batch = ordered.take()) != Batch.END) {
+          batch.awaitDone();
+          if (failure.get() == null) {
+            if (batch.error != null) {
+              failure.compareAndSet(null, batch.error);
+            } else {
+              try {
+                while (batch.bytes.hasRemaining()) {
+                  output.write(batch.bytes);
+                }
+              } catch (IOException e) {
+                failure.compareAndSet(null, e);
+              }
+            }
+          }
+          free.add(batch);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * @return Number of worker threads
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * @return String in format of "PositionPipeline 6X7/4 with 4 workers"
+   */
+  public String toString() {
+    return "PositionPipeline " + empty.getROWSIZE() + "X"
+        + empty.getCOLUMNSIZE() + "/" + empty.getWINNINGSIZE() + " with "
+        + threads + " workers";
+  }
+}
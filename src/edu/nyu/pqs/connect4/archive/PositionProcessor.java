@@ -0,0 +1,22 @@
+package edu.nyu.pqs.connect4.archive;
+
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+/**
+ * Work done by a PositionPipeline on every position of a stream. Called by
+ * several worker threads at once, each with its own position and output.
+ *
+ * @author ajaykhanna
+ *
+ */
+public interface PositionProcessor {
+
+  /**
+   * Processes one position.
+   *
+   * @param position The position of the line, only valid during the call
+   * @param valid false if the line had an invalid move, see PositionReader
+   * @param out Receives the output line, without the line end
+   */
+  void process(BitBoard position, boolean valid, StringBuilder out);
+}
@@ -0,0 +1,129 @@
+package edu.nyu.pqs.connect4.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+/**
+ * Reads positions from a text channel holding one position per line, each a
+ * sequence of 1 based column digits such as "4453". The channel is read in
+ * 64 KB blocks into a direct buffer and the digits are played straight from
+ * the buffer into a BitBoard, so no line is ever held as a String and the
+ * memory used does not depend on the length of the stream. Lines end with
+ * "\n" or "\r\n", the last one may have no end. Not safe for use by more than
+ * one thread at a time.
+ *
+ * A line is invalid if it has anything but digits, a column out of bounds or
+ * full, or a move after the game was won. Its position then holds the moves
+ * before the first invalid one, the winning move excluded as with
+ * BitBoard.play(CharSequence).
+ *
+ * @author ajaykhanna
+ *
+ */
+public class PositionReader implements Closeable {
+  static final int BUFFER_SIZE = 1 << 16;
+
+  private final ReadableByteChannel channel;
+  private final ByteBuffer buffer;
+  private boolean endOfStream;
+  private boolean valid;
+  private long lines;
+
+  /**
+   * Constructor of the PositionReader.
+   *
+   * @param channel Channel the positions are read from
+   * @throws NullPointerException if channel is Null
+   */
+  public PositionReader(ReadableByteChannel channel) {
+    if (channel == null) {
+      throw new NullPointerException("Channel cannot be Null");
+    }
+    this.channel = channel;
+    buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    buffer.flip();
+  }
+
+  /**
+   * Parses the next line.
+   *
+   * @param position Receives the position of the line, reset first
+   * @return false at the end of the stream, position is then left as is
+   * @throws NullPointerException if position is Null
+   * @throws IOException if the channel cannot be read
+   */
+  public boolean next(BitBoard position) throws IOException {
+    if (position == null) {
+      throw new NullPointerException("Position cannot be Null");
+    }
+    if (!fill()) {
+      return false;
+    }
+    position.reset();
+    valid = true;
+    while (buffer.hasRemaining() || fill()) {
+      byte b = buffer.get();
+      if (b == '\n') {
+        break;
+      }
+      if (!valid || b == '\r') {
+        continue;
+      }
+      int col = b - '1';
+      if (col < 0 || col > 8 || !position.canPlay(col)
+          || position.isWinningMove(col)) {
+        valid = false;
+      } else {
+        position.play(col);
+      }
+    }
+    lines++;
+    return true;
+  }
+
+  /**
+   * Reads the next block of the channel once the buffer is used up.
+   *
+   * @return true if the buffer has bytes left
+   */
+  private boolean fill() throws IOException {
+    if (buffer.hasRemaining()) {
+      return true;
+    }
+    if (endOfStream) {
+      return false;
+    }
+    buffer.clear();
+    int read;
+    do {
+      read = channel.read(buffer);
+    } while (read == 0);
+    if (read < 0) {
+      endOfStream = true;
+    }
+    buffer.flip();
+    return buffer.hasRemaining();
+  }
+
+  /**
+   * @return true if the last line read was a valid position
+   */
+  public boolean isValid() {
+    return valid;
+  }
+
+  /**
+   * @return Number of lines read
+   */
+  public long getLines() {
+    return lines;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
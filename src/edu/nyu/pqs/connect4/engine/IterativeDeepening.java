@@ -0,0 +1,94 @@
+package edu.nyu.pqs.connect4.engine;
+
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Iterative deepening driver for the NegamaxSolver with a hard wall clock
+ * deadline and a node budget per move. Searches depth 1, 2, ... until the
+ * position is solved, a win or a loss is proven, or the move budget runs out,
+ * and answers with the best column of the last depth that completed. The
+ * solver's transposition table, if any, carries the best columns of one depth
+ * over to the next.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class IterativeDeepening implements ComputerPlayer {
+  private final NegamaxSolver solver;
+  private final long millisPerMove;
+  private final long nodesPerMove;
+
+  /**
+   * Constructor of the IterativeDeepening.
+   *
+   * @param solver The solver to drive
+   * @param millisPerMove Wall clock time per move in milliseconds
+   * @param nodesPerMove Number of nodes per move over all the depths
+   * @throws NullPointerException if solver is Null
+   * @throws IllegalArgumentException if a budget is not positive
+   */
+  public IterativeDeepening(NegamaxSolver solver, long millisPerMove,
+      long nodesPerMove) {
+    if (solver == null) {
+      throw new NullPointerException("Solver cannot be Null");
+    }
+    if (millisPerMove <= 0 || nodesPerMove <= 0) {
+      throw new IllegalArgumentException("Move budget must be positive");
+    }
+    this.solver = solver;
+    this.millisPerMove = millisPerMove;
+    this.nodesPerMove = nodesPerMove;
+  }
+
+  /**
+   * Searches the position within the move budget.
+   *
+   * @param position The position to search, it is not modified
+   * @return Best column of the deepest completed depth, with the total number
+   *         of nodes searched. If not even depth 1 completed the column is the
+   *         first move the solver would have tried and the depth is 0.
+   * @throws IllegalArgumentException if the game is already over
+   */
+  public SearchResult search(BitBoard position) {
+    long deadline = System.nanoTime() + millisPerMove * 1000000L;
+    solver.newSearch();
+    int maxDepth = position.getCells() - position.getMoves();
+    long nodes = 0;
+    SearchResult best = null;
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      SearchResult result = solver.search(position, depth, nodesPerMove
+          - nodes, deadline);
+      nodes += result.getNodes();
+      if (result.getDepth() < depth) {
+        if (best == null) {
+          best = result;
+        }
+        break;
+      }
+      best = result;
+      if (result.isExact() || result.getScore() != 0 || nodes >= nodesPerMove) {
+        break;
+      }
+    }
+    return new SearchResult(best.getColumn(), best.getScore(), best.isExact(),
+        nodes, best.getDepth());
+  }
+
+  /**
+   * Plays the best column found within the move budget, or lets the model
+   * decide when the grid does not fit in a BitBoard.
+   *
+   * @param model Reference to the model
+   * @return Column Location to play or -1
+   */
+  @Override
+  public int chooseColumn(Connect4Model model) {
+    BitBoard position = model.getBitBoard();
+    if (position == null || position.lastMoverWon() || position.isFull()) {
+      return -1;
+    }
+    return search(position).getColumn();
+  }
+}
@@ -0,0 +1,176 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Parallel search in the Lazy SMP style. The calling thread runs the
+ * iterative deepening search and answers the move, while helper threads search
+ * the same position with their own solvers, starting at staggered depths, and
+ * fill the shared lock free transposition table that the main search then
+ * reads. Helpers are stopped as soon as the main search is done.
+ *
+ * The node budget applies to the main search only, the deadline to every
+ * thread. Instances are not meant to be used by two callers at once.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class LazySmpSearch implements ComputerPlayer {
+  private final NegamaxSolver[] solvers;
+  private final ExecutorService helpers;
+  private final long millisPerMove;
+  private final long nodesPerMove;
+
+  /**
+   * Constructor of the LazySmpSearch.
+   *
+   * @param threads Number of threads searching, including the caller
+   * @param table Transposition table shared by all threads
+   * @param millisPerMove Wall clock time per move in milliseconds
+   * @param nodesPerMove Number of nodes per move of the main search
+   * @throws NullPointerException if table is Null
+   * @throws IllegalArgumentException if threads or a budget is not positive
+   */
+  public LazySmpSearch(int threads, TranspositionTable table,
+      long millisPerMove, long nodesPerMove) {
+    if (table == null) {
+      throw new NullPointerException("Table cannot be Null");
+    }
+    if (threads <= 0 || millisPerMove <= 0 || nodesPerMove <= 0) {
+      throw new IllegalArgumentException("Threads and budget must be positive");
+    }
+    solvers = new NegamaxSolver[threads];
+    for (int i = 0; i < threads; i++) {
+      solvers[i] = new NegamaxSolver(Long.MAX_VALUE, table);
+    }
+    this.millisPerMove = millisPerMove;
+    this.nodesPerMove = nodesPerMove;
+    if (threads > 1) {
+      helpers = Executors.newFixedThreadPool(threads - 1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "connect4-smp-helper");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    } else {
+      helpers = null;
+    }
+  }
+
+  /**
+   * Searches the position with all the threads within the move budget.
+   *
+   * @param position The position to search, it is not modified
+   * @return Best column of the deepest depth the main search completed, with
+   *         the number of nodes searched by all the threads
+   * @throws IllegalArgumentException if the game is already over
+   */
+  public SearchResult search(BitBoard position) {
+    if (position.lastMoverWon() || position.isFull()) {
+      throw new IllegalArgumentException("Game is already over");
+    }
+    final long deadline = System.nanoTime() + millisPerMove * 1000000L;
+    final AtomicBoolean stopSignal = new AtomicBoolean(false);
+    final AtomicLong helperNodes = new AtomicLong();
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    for (int i = 1; i < solvers.length; i++) {
+      final NegamaxSolver helper = solvers[i];
+      final BitBoard helperPosition = new BitBoard(position);
+      final int firstDepth = 1 + i % 2;
+      helper.setStopSignal(stopSignal);
+      futures.add(helpers.submit(new Runnable() {
+        @Override
+        public void run() {
+          helperNodes.addAndGet(deepen(helper, helperPosition, firstDepth,
+              deadline, stopSignal));
+        }
+      }));
+    }
+    SearchResult result = new IterativeDeepening(solvers[0], millisPerMove,
+        nodesPerMove).search(position);
+    stopSignal.set(true);
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Helper search failed", e.getCause());
+      }
+    }
+    return new SearchResult(result.getColumn(), result.getScore(),
+        result.isExact(), result.getNodes() + helperNodes.get(),
+        result.getDepth());
+  }
+
+  /**
+   * Helper loop, deepens until stopped or the position is solved.
+   *
+   * @param solver The helper's solver
+   * @param position The position to search
+   * @param firstDepth Depth to start with
+   * @param deadline System.nanoTime() after which the search stops
+   * @param stopSignal Set when the main search is done
+   * @return Number of nodes searched
+   */
+  private static long deepen(NegamaxSolver solver, BitBoard position,
+      int firstDepth, long deadline, AtomicBoolean stopSignal) {
+    long nodes = 0;
+    int maxDepth = position.getCells() - position.getMoves();
+    for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth
+        && !stopSignal.get(); depth++) {
+      SearchResult result = solver.search(position, depth, Long.MAX_VALUE,
+          deadline);
+      nodes += result.getNodes();
+      if (result.getDepth() < depth || result.isExact()) {
+        break;
+      }
+    }
+    return nodes;
+  }
+
+  /**
+   * Plays the best column found within the move budget, or lets the model
+   * decide when the grid does not fit in a BitBoard.
+   *
+   * @param model Reference to the model
+   * @return Column Location to play or -1
+   */
+  @Override
+  public int chooseColumn(Connect4Model model) {
+    BitBoard position = model.getBitBoard();
+    if (position == null || position.lastMoverWon() || position.isFull()) {
+      return -1;
+    }
+    return search(position).getColumn();
+  }
+
+  /**
+   * Stops the helper threads. The instance cannot search afterwards.
+   */
+  public void shutdown() {
+    if (helpers != null) {
+      helpers.shutdownNow();
+    }
+  }
+
+  /**
+   * @return Number of threads searching, including the caller
+   */
+  public int getThreads() {
+    return solvers.length;
+  }
+}
@@ -0,0 +1,361 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.util.Arrays;
+import edu.nyu.pqs.connect4.model.GridBoard;
+import edu.nyu.pqs.connect4.model.LineTable;
+
+/**
+ * Position with a counter of the stones of each player in every line of
+ * WINNINGSIZE cells of a LineTable, for engines that evaluate positions in
+ * search. A move or an undo only updates the lines through its cell, at most
+ * 4 * WINNINGSIZE, and keeps the totals below up to date, so reading them
+ * costs O(1):
+ * <ul>
+ * <li>the number of open lines of a player by stone count, a line being open
+ * for a player while the opponent has no stone in it,</li>
+ * <li>a static score summing the open lines of both players,</li>
+ * <li>the threats of a player, open lines missing one stone, and the number
+ * of columns where the player to move or the opponent wins right away.</li>
+ * </ul>
+ * Players are 1 and 2, player 1 moving first. Not safe to share between
+ * threads.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class LineEvaluator {
+  private final int ROWSIZE;
+  private final int COLUMNSIZE;
+  private final int WINNINGSIZE;
+  private final LineTable table;
+  private final int[][] lineStones;
+  private final int[][] openLines;
+  private final int[][] threatCells;
+  private final int[] playableThreats;
+  private final long[] weights;
+  private final byte[] cells;
+  private final int[] heights;
+  private long score;
+  private int moves;
+
+  /**
+   * Constructor of the LineEvaluator. Creates an empty board.
+   *
+   * @param rowSize Number of Rows in the board.
+   * @param colSize Number of Columns in the board.
+   * @param winSize Winning Size of the board.
+   * @throws IllegalArgumentException if a size is not positive
+   */
+  public LineEvaluator(int rowSize, int colSize, int winSize) {
+    if (rowSize <= 0 || colSize <= 0 || winSize <= 0) {
+      throw new IllegalArgumentException("Invalid LineEvaluator size");
+    }
+    ROWSIZE = rowSize;
+    COLUMNSIZE = colSize;
+    WINNINGSIZE = winSize;
+    table = new LineTable(rowSize, colSize, winSize);
+    int lines = table.getLines();
+    lineStones = new int[3][lines];
+    openLines = new int[3][winSize + 1];
+    threatCells = new int[3][rowSize * colSize];
+    playableThreats = new int[3];
+    weights = new long[winSize + 1];
+    for (int stones = 1; stones <= winSize; stones++) {
+      weights[stones] = 1L << Math.min(40, 3 * (stones - 1));
+    }
+    cells = new byte[rowSize * colSize];
+    heights = new int[colSize];
+    reset();
+  }
+
+  /**
+   * Creates an evaluator of a position.
+   *
+   * @param board The position
+   */
+  public LineEvaluator(GridBoard board) {
+    this(board.getROWSIZE(), board.getCOLUMNSIZE(), board.getWINNINGSIZE());
+    load(board);
+  }
+
+  /**
+   * Empties the board.
+   */
+  public void reset() {
+    for (int player = 1; player <= 2; player++) {
+      Arrays.fill(lineStones[player], 0);
+      Arrays.fill(openLines[player], 0);
+      Arrays.fill(threatCells[player], 0);
+      openLines[player][0] = lineStones[player].length;
+      playableThreats[player] = 0;
+    }
+    Arrays.fill(cells, (byte) 0);
+    Arrays.fill(heights, 0);
+    score = 0;
+    moves = 0;
+    if (WINNINGSIZE == 1) {
+      for (int player = 1; player <= 2; player++) {
+        for (int cell = 0; cell < cells.length; cell++) {
+          threatCells[player][cell] = table.getCellLineEnd(cell)
+              - table.getCellLineStart(cell);
+        }
+        playableThreats[player] = COLUMNSIZE;
+      }
+    }
+  }
+
+  /**
+   * Sets the evaluator to a position of the same size.
+   *
+   * @param board The position
+   * @throws IllegalArgumentException if the board differs in size
+   */
+  public void load(GridBoard board) {
+    if (board.getROWSIZE() != ROWSIZE || board.getCOLUMNSIZE() != COLUMNSIZE
+        || board.getWINNINGSIZE() != WINNINGSIZE) {
+      throw new IllegalArgumentException("Boards differ in size");
+    }
+    reset();
+    for (int height = 0; height < ROWSIZE; height++) {
+      for (int col = 0; col < COLUMNSIZE; col++) {
+        int player = board.getCell(col, height);
+        if (player != 0) {
+          place(col, player);
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops a stone of the player to move in the column. The column must be
+   * playable.
+   *
+   * @param col Column Location
+   */
+  public void play(int col) {
+    place(col, getPlayerToMove());
+  }
+
+  /**
+   * Takes back the last move. The column must be the one of the last move.
+   *
+   * @param col Column Location of the last move
+   */
+  public void undo(int col) {
+    int cell = col * ROWSIZE + heights[col] - 1;
+    int player = cells[cell];
+    int other = 3 - player;
+    int end = table.getCellLineEnd(cell);
+    for (int i = table.getCellLineStart(cell); i < end; i++) {
+      int line = table.getCellLine(i);
+      int own = lineStones[player][line];
+      int opposing = lineStones[other][line];
+      leave(line, own, opposing, player, cell);
+      lineStones[player][line] = own - 1;
+      cells[cell] = 0;
+      enter(line, own - 1, opposing, player, cell);
+      cells[cell] = (byte) player;
+    }
+    cells[cell] = 0;
+    if (heights[col] < ROWSIZE) {
+      landingChanged(cell + 1, -1);
+    }
+    heights[col]--;
+    landingChanged(cell, 1);
+    moves--;
+  }
+
+  /**
+   * Drops a stone of the player in the column.
+   */
+  private void place(int col, int player) {
+    int cell = col * ROWSIZE + heights[col];
+    int other = 3 - player;
+    landingChanged(cell, -1);
+    heights[col]++;
+    if (heights[col] < ROWSIZE) {
+      landingChanged(cell + 1, 1);
+    }
+    int end = table.getCellLineEnd(cell);
+    for (int i = table.getCellLineStart(cell); i < end; i++) {
+      int line = table.getCellLine(i);
+      int own = lineStones[player][line];
+      int opposing = lineStones[other][line];
+      leave(line, own, opposing, player, cell);
+      lineStones[player][line] = own + 1;
+      cells[cell] = (byte) player;
+      enter(line, own + 1, opposing, player, cell);
+      cells[cell] = 0;
+    }
+    cells[cell] = (byte) player;
+    moves++;
+  }
+
+  /**
+   * Adds or removes the threats at a cell that becomes or stops being the
+   * landing cell of its column.
+   */
+  private void landingChanged(int cell, int sign) {
+    for (int player = 1; player <= 2; player++) {
+      if (threatCells[player][cell] > 0) {
+        playableThreats[player] += sign;
+      }
+    }
+  }
+
+  /**
+   * Removes the counts of a line in the state before the move, own being the
+   * stones of the moving player. The moved cell is empty in the board.
+   */
+  private void leave(int line, int own, int opposing, int player, int cell) {
+    count(line, own, opposing, player, cell, -1);
+  }
+
+  /**
+   * Adds the counts of a line in the state after the move.
+   */
+  private void enter(int line, int own, int opposing, int player, int cell) {
+    count(line, own, opposing, player, cell, 1);
+  }
+
+  private void count(int line, int own, int opposing, int player, int cell,
+      int sign) {
+    int other = 3 - player;
+    if (opposing == 0) {
+      openLines[player][own] += sign;
+      score += sign * (player == 1 ? weights[own] : -weights[own]);
+      if (own == WINNINGSIZE - 1) {
+        threat(line, player, sign);
+      }
+    }
+    if (own == 0) {
+      openLines[other][opposing] += sign;
+      score += sign * (other == 1 ? weights[opposing] : -weights[opposing]);
+      if (opposing == WINNINGSIZE - 1) {
+        threat(line, other, sign);
+      }
+    }
+  }
+
+  /**
+   * Adds or removes a line missing one stone of the player at its empty
+   * cell.
+   */
+  private void threat(int line, int player, int sign) {
+    for (int i = 0; i < WINNINGSIZE; i++) {
+      int cell = table.getLineCell(line, i);
+      if (cells[cell] == 0) {
+        int before = threatCells[player][cell];
+        threatCells[player][cell] = before + sign;
+        if (isLandingCell(cell) && (before == 0) != (before + sign == 0)) {
+          playableThreats[player] += sign;
+        }
+        return;
+      }
+    }
+  }
+
+  private boolean isLandingCell(int cell) {
+    return heights[cell / ROWSIZE] == cell % ROWSIZE;
+  }
+
+  /**
+   * @param player 1 or 2
+   * @param stones Number of stones
+   * @return Number of lines with that many stones of the player and none of
+   *         the opponent
+   */
+  public int getOpenLines(int player, int stones) {
+    return openLines[player][stones];
+  }
+
+  /**
+   * @param player 1 or 2
+   * @return Number of open lines of the player missing one stone, a cell
+   *         completing several lines counted once per line
+   */
+  public int getThreats(int player) {
+    return openLines[player][WINNINGSIZE - 1];
+  }
+
+  /**
+   * @param player 1 or 2
+   * @return Number of columns where a stone of the player completes a line
+   */
+  public int getPlayableThreats(int player) {
+    return playableThreats[player];
+  }
+
+  /**
+   * @param col Column Location
+   * @param player 1 or 2
+   * @return true if a stone of the player in the column completes a line. The
+   *         column must be playable.
+   */
+  public boolean isWinningMove(int col, int player) {
+    return threatCells[player][col * ROWSIZE + heights[col]] > 0;
+  }
+
+  /**
+   * @return true if the player to move wins by playing in some column
+   */
+  public boolean canWinNext() {
+    return playableThreats[getPlayerToMove()] > 0;
+  }
+
+  /**
+   * @return true if a player has completed a line
+   */
+  public boolean hasWinner() {
+    return openLines[1][WINNINGSIZE] > 0 || openLines[2][WINNINGSIZE] > 0;
+  }
+
+  /**
+   * Static score of the position, the sum over the open lines of both players
+   * of a weight growing 8 fold per stone.
+   *
+   * @return Score for the player to move, positive when the player has the
+   *         better lines
+   */
+  public long evaluate() {
+    return getPlayerToMove() == 1 ? score : -score;
+  }
+
+  /**
+   * @return 1 or 2
+   */
+  public int getPlayerToMove() {
+    return 1 + (moves & 1);
+  }
+
+  /**
+   * @param col Column Location
+   * @return true if a stone can be dropped in the column
+   */
+  public boolean canPlay(int col) {
+    return heights[col] < ROWSIZE;
+  }
+
+  public int getMoves() {
+    return moves;
+  }
+
+  /**
+   * @return Number of lines on the board
+   */
+  public int getLines() {
+    return lineStones[1].length;
+  }
+
+  public int getROWSIZE() {
+    return ROWSIZE;
+  }
+
+  public int getCOLUMNSIZE() {
+    return COLUMNSIZE;
+  }
+
+  public int getWINNINGSIZE() {
+    return WINNINGSIZE;
+  }
+}
@@ -0,0 +1,375 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GridBoard;
+
+/**
+ * Monte Carlo tree search with UCT selection over a GridBoard, so it plays on
+ * grids of any size. Every thread grows its own tree from the position (root
+ * parallelization) so the threads share nothing while searching, and the
+ * visits of the root columns are added up at the end. Trees are kept in
+ * parallel arrays of a fixed number of nodes and stop growing once full while
+ * the playouts go on.
+ *
+ * Playouts play an immediately winning column whenever there is one and a
+ * random column otherwise. The search stops when the time or the playouts per
+ * move are spent, so it always has an answer.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class MctsPlayer implements ComputerPlayer {
+  private static final double EXPLORATION = Math.sqrt(2);
+  private final int threads;
+  private final int nodesPerTree;
+  private final long millisPerMove;
+  private final long playoutsPerMove;
+  private final ExecutorService helpers;
+  private final SplittableRandom seeds;
+  private final Tree[] trees;
+
+  /**
+   * Constructor of the MctsPlayer.
+   *
+   * @param threads Number of threads searching, including the caller
+   * @param nodesPerTree Maximum number of nodes of every thread's tree
+   * @param millisPerMove Wall clock time per move in milliseconds
+   * @param playoutsPerMove Number of playouts per move over all the threads
+   * @throws IllegalArgumentException if a parameter is not positive
+   */
+  public MctsPlayer(int threads, int nodesPerTree, long millisPerMove,
+      long playoutsPerMove) {
+    if (threads <= 0 || nodesPerTree <= 0 || millisPerMove <= 0
+        || playoutsPerMove <= 0) {
+      throw new IllegalArgumentException("Parameters must be positive");
+    }
+    this.threads = threads;
+    this.nodesPerTree = nodesPerTree;
+    this.millisPerMove = millisPerMove;
+    this.playoutsPerMove = playoutsPerMove;
+    seeds = new SplittableRandom();
+    trees = new Tree[threads];
+    if (threads > 1) {
+      helpers = Executors.newFixedThreadPool(threads - 1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "connect4-mcts-helper");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    } else {
+      helpers = null;
+    }
+  }
+
+  /**
+   * Searches the position within the move budget.
+   *
+   * @param position The position to search, it is not modified
+   * @return Most visited column. The score is the expected result for the
+   *         player to move in percent, from -100 for a sure loss to 100 for a
+   *         sure win, and the nodes are the number of playouts.
+   * @throws IllegalArgumentException if the game is already over
+   */
+  public SearchResult search(GridBoard position) {
+    if (position.lastMoverWon() || position.isFull()) {
+      throw new IllegalArgumentException("Game is already over");
+    }
+    long deadline = System.nanoTime() + millisPerMove * 1000000L;
+    long playouts = Math.max(1, playoutsPerMove / threads);
+    List<Future<Tree>> futures = new ArrayList<Future<Tree>>();
+    for (int i = 0; i < threads; i++) {
+      if (trees[i] == null || !trees[i].reset(position)) {
+        trees[i] = new Tree(position, nodesPerTree, seeds.split());
+      }
+    }
+    for (int i = 1; i < threads; i++) {
+      final Tree tree = trees[i];
+      final long treeDeadline = deadline;
+      final long treePlayouts = playouts;
+      futures.add(helpers.submit(new Callable<Tree>() {
+        @Override
+        public Tree call() {
+          tree.grow(treeDeadline, treePlayouts);
+          return tree;
+        }
+      }));
+    }
+    Tree main = trees[0];
+    main.grow(deadline, playouts);
+    long[] visits = new long[position.getCOLUMNSIZE()];
+    double[] values = new double[position.getCOLUMNSIZE()];
+    long total = main.addRootStatistics(visits, values);
+    for (Future<Tree> future : futures) {
+      try {
+        total += future.get().addRootStatistics(visits, values);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Helper search failed", e.getCause());
+      }
+    }
+    int bestColumn = -1;
+    for (int col = 0; col < visits.length; col++) {
+      if (position.canPlay(col)
+          && (bestColumn < 0 || visits[col] > visits[bestColumn])) {
+        bestColumn = col;
+      }
+    }
+    int score = 0;
+    if (visits[bestColumn] > 0) {
+      score = (int) Math.round(100 * (2 * values[bestColumn]
+          / visits[bestColumn] - 1));
+    }
+    return new SearchResult(bestColumn, score, false, total, 0);
+  }
+
+  /**
+   * Plays the most visited column for the computer.
+   *
+   * @param model Reference to the model
+   * @return Column Location to play or -1 if the game is over
+   */
+  @Override
+  public int chooseColumn(Connect4Model model) {
+    GridBoard position = model.getGridBoard();
+    if (position.lastMoverWon() || position.isFull()) {
+      return -1;
+    }
+    return search(position).getColumn();
+  }
+
+  /**
+   * Stops the helper threads. The instance cannot search afterwards.
+   */
+  public void shutdown() {
+    if (helpers != null) {
+      helpers.shutdownNow();
+    }
+  }
+
+  /**
+   * @return Number of threads searching, including the caller
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * One search tree stored in parallel arrays, node 0 being the root. The
+   * children of a node are stored next to each other. The value of a node is
+   * the sum of the results, 1 for a win, 0.5 for a draw and 0 for a loss, of
+   * the player who made the move leading to it.
+   */
+  private static final class Tree {
+    private static final byte OPEN = 0;
+    private static final byte WIN = 1;
+    private static final byte DRAW = 2;
+    private final GridBoard root;
+    private final GridBoard board;
+    private final SplittableRandom random;
+    private final int[] firstChild;
+    private final short[] childCount;
+    private final short[] column;
+    private final byte[] terminal;
+    private final int[] visits;
+    private final double[] values;
+    private final int[] path;
+    private final int[] legal;
+    private int size;
+
+    Tree(GridBoard position, int capacity, SplittableRandom random) {
+      root = new GridBoard(position);
+      board = new GridBoard(position);
+      this.random = random;
+      capacity = Math.max(capacity, 1 + position.getCOLUMNSIZE());
+      firstChild = new int[capacity];
+      childCount = new short[capacity];
+      column = new short[capacity];
+      terminal = new byte[capacity];
+      visits = new int[capacity];
+      values = new double[capacity];
+      path = new int[position.getCells() + 1];
+      legal = new int[position.getCOLUMNSIZE()];
+      firstChild[0] = -1;
+      size = 1;
+    }
+
+    /**
+     * Empties the tree for a new position, keeping the arrays.
+     *
+     * @return false if the position has another size than the tree's
+     */
+    boolean reset(GridBoard position) {
+      if (position.getROWSIZE() != root.getROWSIZE()
+          || position.getCOLUMNSIZE() != root.getCOLUMNSIZE()
+          || position.getWINNINGSIZE() != root.getWINNINGSIZE()) {
+        return false;
+      }
+      root.copyFrom(position);
+      firstChild[0] = -1;
+      terminal[0] = OPEN;
+      visits[0] = 0;
+      values[0] = 0;
+      size = 1;
+      return true;
+    }
+
+    /**
+     * Runs playouts until the deadline or the number of playouts is reached.
+     */
+    void grow(long deadline, long playouts) {
+      for (long n = 0; n < playouts; n++) {
+        if ((n & 63) == 0 && System.nanoTime() - deadline > 0) {
+          break;
+        }
+        iterate();
+      }
+    }
+
+    /**
+     * Selects a leaf, expands it, plays it out and backs up the result.
+     */
+    private void iterate() {
+      board.copyFrom(root);
+      int node = 0;
+      int length = 0;
+      path[length++] = node;
+      while (firstChild[node] >= 0 && terminal[node] == OPEN) {
+        node = select(node);
+        board.play(column[node]);
+        path[length++] = node;
+      }
+      if (terminal[node] == OPEN && (node == 0 || visits[node] > 0)
+          && expand(node)) {
+        node = select(node);
+        board.play(column[node]);
+        path[length++] = node;
+      }
+      double result;
+      if (terminal[node] == WIN) {
+        result = 1;
+      } else if (terminal[node] == DRAW) {
+        result = 0.5;
+      } else {
+        result = playout();
+      }
+      for (int i = length - 1; i >= 0; i--) {
+        visits[path[i]]++;
+        values[path[i]] += result;
+        result = 1 - result;
+      }
+    }
+
+    /**
+     * Picks the child with the best upper confidence bound. Unvisited children
+     * come first and a winning child is always picked.
+     */
+    private int select(int node) {
+      int first = firstChild[node];
+      double logVisits = Math.log(Math.max(1, visits[node]));
+      int best = first;
+      double bestBound = Double.NEGATIVE_INFINITY;
+      for (int child = first; child < first + childCount[node]; child++) {
+        if (terminal[child] == WIN) {
+          return child;
+        }
+        double bound;
+        if (visits[child] == 0) {
+          bound = Double.MAX_VALUE;
+        } else {
+          bound = values[child] / visits[child] + EXPLORATION
+              * Math.sqrt(logVisits / visits[child]);
+        }
+        if (bound > bestBound) {
+          bestBound = bound;
+          best = child;
+        }
+      }
+      return best;
+    }
+
+    /**
+     * Adds a child for every playable column of the board, if there is room.
+     *
+     * @return true if the node got children
+     */
+    private boolean expand(int node) {
+      int count = 0;
+      for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+        if (board.canPlay(col)) {
+          legal[count++] = col;
+        }
+      }
+      if (size + count > firstChild.length) {
+        return false;
+      }
+      firstChild[node] = size;
+      childCount[node] = (short) count;
+      for (int i = 0; i < count; i++) {
+        int child = size++;
+        int col = legal[i];
+        firstChild[child] = -1;
+        terminal[child] = OPEN;
+        visits[child] = 0;
+        values[child] = 0;
+        column[child] = (short) col;
+        if (board.isWinningMove(col)) {
+          terminal[child] = WIN;
+        } else if (board.getMoves() + 1 == board.getCells()) {
+          terminal[child] = DRAW;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Plays random columns, or a winning column when there is one, to the end
+     * of the game.
+     *
+     * @return Result of the player who made the last move before the playout
+     */
+    private double playout() {
+      int lastMover = 3 - board.getPlayerToMove();
+      while (!board.isFull()) {
+        int count = 0;
+        for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+          if (board.canPlay(col)) {
+            if (board.isWinningMove(col)) {
+              return board.getPlayerToMove() == lastMover ? 1 : 0;
+            }
+            legal[count++] = col;
+          }
+        }
+        board.play(legal[random.nextInt(count)]);
+      }
+      return 0.5;
+    }
+
+    /**
+     * Adds the visits and values of the root columns.
+     *
+     * @return Number of playouts of the tree
+     */
+    long addRootStatistics(long[] columnVisits, double[] columnValues) {
+      int first = firstChild[0];
+      for (int child = first; first >= 0 && child < first + childCount[0];
+          child++) {
+        columnVisits[column[child]] += visits[child];
+        columnValues[column[child]] += values[child];
+      }
+      return visits[0];
+    }
+  }
+}
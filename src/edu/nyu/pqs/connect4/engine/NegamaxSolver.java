@@ -0,0 +1,396 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Negamax solver with alpha-beta pruning over a BitBoard. Moves that let the
+ * opponent win immediately are never searched, the others are explored by the
+ * number of winning cells they create and then center first. The search stops
+ * once the node budget or the deadline is spent, in which case the best column
+ * found so far is returned with an inexact score (0 if not even the first
+ * column could be searched). An optional transposition table keeps the bounds
+ * of searched positions, mirrored positions sharing one entry, and the best
+ * column of a position is then tried first.
+ *
+ * A search can be limited in depth. Positions at the depth limit score 0, so
+ * a positive or negative score still proves a win or a loss but only a search
+ * that covers the rest of the game is exact.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class NegamaxSolver implements ComputerPlayer {
+  private final long nodeBudget;
+  private final TranspositionTable table;
+  private BitBoard board;
+  private int[] columnOrder;
+  private int[][] moveBuffers;
+  private int[] moveScores;
+  private long nodes;
+  private long nodeLimit;
+  private long deadline;
+  private boolean aborted;
+  private AtomicBoolean stopSignal;
+
+  /**
+   * Constructor of the NegamaxSolver.
+   *
+   * @param nodeBudget Maximum number of nodes searched per solve
+   * @throws IllegalArgumentException if nodeBudget is not positive
+   */
+  public NegamaxSolver(long nodeBudget) {
+    this(nodeBudget, null);
+  }
+
+  /**
+   * Constructor of the NegamaxSolver with a transposition table.
+   *
+   * @param nodeBudget Maximum number of nodes searched per solve
+   * @param table Transposition table to use or null for none
+   * @throws IllegalArgumentException if nodeBudget is not positive
+   */
+  public NegamaxSolver(long nodeBudget, TranspositionTable table) {
+    if (nodeBudget <= 0) {
+      throw new IllegalArgumentException("Node budget must be positive");
+    }
+    this.nodeBudget = nodeBudget;
+    this.table = table;
+  }
+
+  /**
+   * Solves the position for the player to move.
+   *
+   * @param position The position to solve, it is not modified
+   * @return Best column and its score
+   * @throws IllegalArgumentException if the game is already over
+   */
+  public SearchResult solve(BitBoard position) {
+    newSearch();
+    return search(position, position.getCells() - position.getMoves(),
+        nodeBudget, Long.MAX_VALUE);
+  }
+
+  /**
+   * Searches the position for the player to move up to a depth.
+   *
+   * @param position The position to search, it is not modified
+   * @param depth Number of moves to look ahead
+   * @param maxNodes Maximum number of nodes to search
+   * @param deadline System.nanoTime() after which the search stops, or
+   *          Long.MAX_VALUE for none
+   * @return Best column and its score. The depth of the result is 0 if the
+   *         search was stopped.
+   * @throws IllegalArgumentException if the game is already over or depth is
+   *           not positive
+   */
+  public SearchResult search(BitBoard position, int depth, long maxNodes,
+      long deadline) {
+    if (depth <= 0) {
+      throw new IllegalArgumentException("Depth must be positive");
+    }
+    prepare(position, maxNodes, deadline);
+    long current = position.getCurrent();
+    long mask = position.getMask();
+    int moves = position.getMoves();
+    int cells = position.getCells();
+    depth = Math.min(depth, cells - moves);
+    for (int col : columnOrder) {
+      if (position.canPlay(col) && position.isWinningMove(col)) {
+        return new SearchResult(col, (cells + 1 - moves) / 2, true, 1,
+            depth);
+      }
+    }
+    long next = position.nonLosingMoves(current, mask);
+    if (next == 0) {
+      return new SearchResult(firstMove(position.possibleMoves(mask)),
+          -(cells - moves) / 2, true, 1, depth);
+    }
+    int count = orderMoves(current, mask, next, -1, moves);
+    int[] order = moveBuffers[moves];
+    int bestColumn = order[0];
+    boolean searched = false;
+    int alpha = -(cells - moves) / 2;
+    int beta = (cells + 1 - moves) / 2;
+    for (int i = 0; i < count; i++) {
+      int col = order[i];
+      long move = next & position.columnMask(col);
+      int score = -negamax(current ^ mask, mask | move, moves + 1, -beta,
+          -alpha, depth - 1);
+      if (aborted) {
+        break;
+      }
+      searched = true;
+      if (score > alpha) {
+        alpha = score;
+        bestColumn = col;
+      }
+    }
+    boolean exact = !aborted && depth == cells - moves;
+    return new SearchResult(bestColumn, searched ? alpha : 0, exact, nodes,
+        aborted ? 0 : depth);
+  }
+
+  /**
+   * Starts a new search in the transposition table, if any, so that the
+   * entries of earlier searches are replaced first.
+   */
+  public void newSearch() {
+    if (table != null) {
+      table.newSearch();
+    }
+  }
+
+  /**
+   * Sets a signal that stops any running or later search once it is set, as if
+   * the deadline had passed. Used to stop helper searches from another thread.
+   *
+   * @param stopSignal The signal or null for none
+   */
+  public void setStopSignal(AtomicBoolean stopSignal) {
+    this.stopSignal = stopSignal;
+  }
+
+  /**
+   * Plays the solved column for the computer, or lets the model decide when
+   * the grid does not fit in a BitBoard.
+   *
+   * @param model Reference to the model
+   * @return Column Location to play or -1
+   */
+  @Override
+  public int chooseColumn(Connect4Model model) {
+    BitBoard position = model.getBitBoard();
+    if (position == null || position.lastMoverWon() || position.isFull()) {
+      return -1;
+    }
+    return solve(position).getColumn();
+  }
+
+  /**
+   * Resets the counters and allocates the move buffers for the board size. The
+   * transposition table is emptied when the board size changes since keys are
+   * only unique within one size.
+   *
+   * @param position The position to search
+   * @param maxNodes Maximum number of nodes to search
+   * @param deadline System.nanoTime() after which the search stops
+   * @throws IllegalArgumentException if the game is already over
+   */
+  private void prepare(BitBoard position, long maxNodes, long deadline) {
+    if (position.lastMoverWon() || position.isFull()) {
+      throw new IllegalArgumentException("Game is already over");
+    }
+    if (board == null || board.getROWSIZE() != position.getROWSIZE()
+        || board.getCOLUMNSIZE() != position.getCOLUMNSIZE()
+        || board.getWINNINGSIZE() != position.getWINNINGSIZE()) {
+      columnOrder = centerFirstOrder(position.getCOLUMNSIZE());
+      moveBuffers = new int[position.getCells() + 1][position.getCOLUMNSIZE()];
+      moveScores = new int[position.getCOLUMNSIZE()];
+      if (table != null && board != null) {
+        table.clear();
+      }
+    }
+    board = position;
+    nodes = 0;
+    nodeLimit = maxNodes;
+    this.deadline = deadline;
+    aborted = false;
+  }
+
+  /**
+   * @param columns Number of Columns
+   * @return Column Locations ordered from the center to the edges
+   */
+  static int[] centerFirstOrder(int columns) {
+    int[] order = new int[columns];
+    for (int i = 0; i < columns; i++) {
+      order[i] = columns / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+    }
+    return order;
+  }
+
+  /**
+   * @param moves Cells of candidate moves
+   * @return First Column Location in center first order that has a move
+   */
+  private int firstMove(long moves) {
+    for (int col : columnOrder) {
+      if ((moves & board.columnMask(col)) != 0) {
+        return col;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return true if the deadline has passed or the stop signal is set
+   */
+  private boolean isOutOfTime() {
+    return (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0)
+        || (stopSignal != null && stopSignal.get());
+  }
+
+  /**
+   * Orders the candidate moves into the move buffer of the ply: the table move
+   * first, then by the number of winning cells the move creates, then center
+   * first.
+   *
+   * @param current Stones of the player to move
+   * @param mask Occupied cells
+   * @param next Cells of the candidate moves
+   * @param tableMove Column Location to try first or -1
+   * @param ply Number of moves played, selects the buffer
+   * @return Number of ordered moves
+   */
+  private int orderMoves(long current, long mask, long next, int tableMove,
+      int ply) {
+    int[] order = moveBuffers[ply];
+    int count = 0;
+    for (int col : columnOrder) {
+      long move = next & board.columnMask(col);
+      if (move == 0) {
+        continue;
+      }
+      int score;
+      if (col == tableMove) {
+        score = Integer.MAX_VALUE;
+      } else {
+        score = Long.bitCount(board.winningCells(current | move, mask | move));
+      }
+      int i = count++;
+      while (i > 0 && moveScores[i - 1] < score) {
+        order[i] = order[i - 1];
+        moveScores[i] = moveScores[i - 1];
+        i--;
+      }
+      order[i] = col;
+      moveScores[i] = score;
+    }
+    return count;
+  }
+
+  /**
+   * Negamax with alpha-beta pruning. The player to move must not be able to
+   * win with the next move.
+   *
+   * @param current Stones of the player to move
+   * @param mask Occupied cells
+   * @param moves Number of moves played
+   * @param alpha Lower bound of the window
+   * @param beta Upper bound of the window
+   * @param depth Number of moves left to look ahead
+   * @return Score of the position, exact if inside the window
+   */
+  private int negamax(long current, long mask, int moves, int alpha, int beta,
+      int depth) {
+    if (++nodes > nodeLimit || ((nodes & 1023) == 0 && isOutOfTime())) {
+      aborted = true;
+      return 0;
+    }
+    int cells = board.getCells();
+    if (board.canWinNext(current, mask)) {
+      return (cells + 1 - moves) / 2;
+    }
+    long next = board.nonLosingMoves(current, mask);
+    if (next == 0) {
+      return -(cells - moves) / 2;
+    }
+    if (moves >= cells - 2 || depth == 0) {
+      return 0;
+    }
+    int min = -(cells - 2 - moves) / 2;
+    if (alpha < min) {
+      alpha = min;
+      if (alpha >= beta) {
+        return alpha;
+      }
+    }
+    int max = (cells - 1 - moves) / 2;
+    if (beta > max) {
+      beta = max;
+      if (alpha >= beta) {
+        return beta;
+      }
+    }
+    long key = 0L;
+    boolean mirrored = false;
+    int tableMove = -1;
+    if (table != null) {
+      key = current + mask;
+      long mirrorKey = board.mirror(key);
+      if (Long.compareUnsigned(mirrorKey, key) < 0) {
+        key = mirrorKey;
+        mirrored = true;
+      }
+      long data = table.probe(key);
+      if (data != 0) {
+        tableMove = TranspositionTable.move(data);
+        if (mirrored && tableMove >= 0) {
+          tableMove = board.getCOLUMNSIZE() - 1 - tableMove;
+        }
+        if (TranspositionTable.depth(data) >= depth) {
+          int score = TranspositionTable.score(data);
+          int bound = TranspositionTable.bound(data);
+          if (bound == TranspositionTable.EXACT) {
+            return score;
+          } else if (bound == TranspositionTable.LOWER && score > alpha) {
+            alpha = score;
+          } else if (bound == TranspositionTable.UPPER && score < beta) {
+            beta = score;
+          }
+          if (alpha >= beta) {
+            return score;
+          }
+        }
+      }
+    }
+    int alphaOrig = alpha;
+    int bestMove = -1;
+    int count = orderMoves(current, mask, next, tableMove, moves);
+    int[] order = moveBuffers[moves];
+    for (int i = 0; i < count; i++) {
+      int col = order[i];
+      long move = next & board.columnMask(col);
+      int score = -negamax(current ^ mask, mask | move, moves + 1, -beta,
+          -alpha, depth - 1);
+      if (aborted) {
+        return 0;
+      }
+      if (score >= beta) {
+        store(key, mirrored, score, TranspositionTable.LOWER, depth, col);
+        return score;
+      }
+      if (score > alpha) {
+        alpha = score;
+        bestMove = col;
+      }
+    }
+    store(key, mirrored, alpha, alpha > alphaOrig ? TranspositionTable.EXACT
+        : TranspositionTable.UPPER, depth, bestMove);
+    return alpha;
+  }
+
+  /**
+   * Stores a searched position in the transposition table if there is one.
+   *
+   * @param key Key of the position, already folded with its mirror
+   * @param mirrored true if the key is the key of the mirrored position
+   * @param score Score of the position
+   * @param bound Bound type of the score
+   * @param depth Depth the position was searched to
+   * @param col Best Column Location or -1
+   */
+  private void store(long key, boolean mirrored, int score, int bound,
+      int depth, int col) {
+    if (table == null) {
+      return;
+    }
+    if (mirrored && col >= 0) {
+      col = board.getCOLUMNSIZE() - 1 - col;
+    }
+    table.store(key, score, bound, depth, col);
+  }
+}
@@ -0,0 +1,135 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+/**
+ * Read only opening book memory mapped from a file written by the
+ * OpeningBookGenerator. Entries are looked up with a binary search directly in
+ * the mapping, so the book takes no heap and one instance can be shared by
+ * any number of models and threads.
+ *
+ * The file starts with a header of magic, version, rowSize, colSize, winSize,
+ * maximum ply (ints) and the number of entries (long). Then come the entries
+ * sorted by key, each the position key folded with its mirror (long), the
+ * exact score (byte) and the best column (byte) of the folded position.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class OpeningBook {
+  static final int MAGIC = 0x43344F42;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  static final int ENTRY_SIZE = 10;
+
+  private final ByteBuffer entries;
+  private final int rowSize;
+  private final int colSize;
+  private final int winSize;
+  private final int maxPly;
+  private final long size;
+
+  /**
+   * Maps a book file.
+   *
+   * @param file The book file
+   * @throws IOException if the file cannot be read or is not a book
+   */
+  public OpeningBook(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC
+        || buffer.getInt(4) != VERSION) {
+      throw new IOException("Not an opening book: " + file);
+    }
+    rowSize = buffer.getInt(8);
+    colSize = buffer.getInt(12);
+    winSize = buffer.getInt(16);
+    maxPly = buffer.getInt(20);
+    size = buffer.getLong(24);
+    if (HEADER_SIZE + size * ENTRY_SIZE != buffer.capacity()) {
+      throw new IOException("Truncated opening book: " + file);
+    }
+    entries = buffer;
+  }
+
+  /**
+   * Looks up a position.
+   *
+   * @param position The position to look up
+   * @return Best column and exact score of the position, or null if the book
+   *         does not have it
+   */
+  public SearchResult lookup(BitBoard position) {
+    if (!covers(position)) {
+      return null;
+    }
+    long key = position.key();
+    long mirrorKey = position.mirror(key);
+    boolean mirrored = Long.compareUnsigned(mirrorKey, key) < 0;
+    if (mirrored) {
+      key = mirrorKey;
+    }
+    long low = 0;
+    long high = size - 1;
+    while (low <= high) {
+      long middle = (low + high) >>> 1;
+      int offset = (int) (HEADER_SIZE + middle * ENTRY_SIZE);
+      long stored = entries.getLong(offset);
+      if (stored < key) {
+        low = middle + 1;
+      } else if (stored > key) {
+        high = middle - 1;
+      } else {
+        int score = entries.get(offset + 8);
+        int column = entries.get(offset + 9);
+        if (mirrored) {
+          column = colSize - 1 - column;
+        }
+        return new SearchResult(column, score, true, 0,
+            position.getCells() - position.getMoves());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param position A position
+   * @return true if the position has the board size of the book and is within
+   *         its maximum ply
+   */
+  public boolean covers(BitBoard position) {
+    return position.getROWSIZE() == rowSize
+        && position.getCOLUMNSIZE() == colSize
+        && position.getWINNINGSIZE() == winSize
+        && position.getMoves() <= maxPly;
+  }
+
+  /**
+   * @return Number of positions in the book
+   */
+  public long size() {
+    return size;
+  }
+
+  public int getMaxPly() {
+    return maxPly;
+  }
+
+  /**
+   * @return String in format of "Opening book 6X7/4 up to ply 8 with 1000
+   *         positions"
+   */
+  public String toString() {
+    return "Opening book " + rowSize + "X" + colSize + "/" + winSize
+        + " up to ply " + maxPly + " with " + size + " positions";
+  }
+}
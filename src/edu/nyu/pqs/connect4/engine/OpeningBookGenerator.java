@@ -0,0 +1,264 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+/**
+ * Writes an OpeningBook with every position up to a ply. Positions are
+ * enumerated ply by ply, mirrored positions folded into one, and solved in
+ * parallel from the deepest ply up so that the shallower positions find the
+ * deeper ones in the shared transposition table. Positions that cannot be
+ * solved exactly within the node budget are left out of the book.
+ *
+ * Usage: OpeningBookGenerator file [maxPly] [rowSize colSize winSize]
+ * [threads] [tableMegabytes] [nodesPerPosition], with 0 threads for one per
+ * processor.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class OpeningBookGenerator {
+  private static final byte MISSING = Byte.MIN_VALUE;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: OpeningBookGenerator file [maxPly] "
+          + "[rowSize colSize winSize] [threads] [tableMegabytes] "
+          + "[nodesPerPosition]");
+      System.exit(1);
+    }
+    Path file = Paths.get(args[0]);
+    int maxPly = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    int rowSize = args.length > 4 ? Integer.parseInt(args[2]) : 6;
+    int colSize = args.length > 4 ? Integer.parseInt(args[3]) : 7;
+    int winSize = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+    int threads = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+    if (threads == 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    int megabytes = args.length > 6 ? Integer.parseInt(args[6]) : 256;
+    long nodes = args.length > 7 ? Long.parseLong(args[7]) : Long.MAX_VALUE;
+    long start = System.nanoTime();
+    long size = generate(rowSize, colSize, winSize, maxPly, threads,
+        new TranspositionTable(megabytes), nodes, file);
+    System.out.printf("%d positions written to %s in %.1f seconds%n", size,
+        file, (System.nanoTime() - start) / 1e9);
+  }
+
+  /**
+   * Solves every position up to maxPly and writes the book.
+   *
+   * @param rowSize Number of Rows
+   * @param colSize Number of Columns
+   * @param winSize Number of aligned stones to win
+   * @param maxPly Number of moves played in the deepest positions of the book
+   * @param threads Number of threads solving
+   * @param table Transposition table shared by the threads
+   * @param nodesPerPosition Maximum number of nodes searched per position
+   * @param file The book file, replaced if it exists
+   * @return Number of positions written
+   * @throws IOException if the file cannot be written
+   * @throws NullPointerException if table or file is Null
+   * @throws IllegalArgumentException if the board does not fit in a BitBoard,
+   *           maxPly is negative or threads or nodesPerPosition is not
+   *           positive
+   */
+  public static long generate(int rowSize, int colSize, int winSize,
+      int maxPly, int threads, TranspositionTable table,
+      long nodesPerPosition, Path file) throws IOException {
+    if (table == null || file == null) {
+      throw new NullPointerException("Table and file cannot be Null");
+    }
+    if (!BitBoard.fits(rowSize, colSize)) {
+      throw new IllegalArgumentException("Board does not fit in a BitBoard");
+    }
+    if (maxPly < 0 || threads <= 0 || nodesPerPosition <= 0) {
+      throw new IllegalArgumentException(
+          "Ply cannot be negative, threads and nodes must be positive");
+    }
+    BitBoard empty = new BitBoard(rowSize, colSize, winSize);
+    List<long[]> levels = enumerate(empty, Math.min(maxPly,
+        empty.getCells() - 1));
+    List<byte[]> scores = new ArrayList<byte[]>();
+    List<byte[]> columns = new ArrayList<byte[]>();
+    for (long[] keys : levels) {
+      scores.add(new byte[keys.length]);
+      columns.add(new byte[keys.length]);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (int ply = levels.size() - 1; ply >= 0; ply--) {
+        solveLevel(empty, levels.get(ply), scores.get(ply), columns.get(ply),
+            executor, threads, table, nodesPerPosition);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return write(empty, maxPly, levels, scores, columns, file);
+  }
+
+  /**
+   * Lists the positions of every ply that are not over yet, by key folded
+   * with the mirrored key and sorted.
+   *
+   * @param empty The empty board
+   * @param maxPly Deepest ply to list
+   * @return Keys of the positions of ply 0 to maxPly
+   */
+  private static List<long[]> enumerate(BitBoard empty, int maxPly) {
+    List<long[]> levels = new ArrayList<long[]>();
+    long[] level = { canonicalKey(empty) };
+    levels.add(level);
+    BitBoard position = new BitBoard(empty);
+    for (int ply = 1; ply <= maxPly; ply++) {
+      long[] next = new long[level.length * empty.getCOLUMNSIZE()];
+      int count = 0;
+      for (long key : level) {
+        position.setKey(key);
+        for (int col = 0; col < empty.getCOLUMNSIZE(); col++) {
+          if (!position.canPlay(col) || position.isWinningMove(col)) {
+            continue;
+          }
+          BitBoard child = new BitBoard(position);
+          child.play(col);
+          next[count++] = canonicalKey(child);
+        }
+      }
+      Arrays.sort(next, 0, count);
+      int unique = 0;
+      for (int i = 0; i < count; i++) {
+        if (unique == 0 || next[unique - 1] != next[i]) {
+          next[unique++] = next[i];
+        }
+      }
+      level = Arrays.copyOf(next, unique);
+      levels.add(level);
+    }
+    return levels;
+  }
+
+  /**
+   * @param position A position
+   * @return Key of the position or of its mirror, whichever is smaller
+   *         unsigned, like the keys of the transposition table
+   */
+  static long canonicalKey(BitBoard position) {
+    long key = position.key();
+    long mirrorKey = position.mirror(key);
+    return Long.compareUnsigned(mirrorKey, key) < 0 ? mirrorKey : key;
+  }
+
+  /**
+   * Solves the positions of one ply with all the threads, each thread taking
+   * the next unsolved position. The table is aged once per ply, before the
+   * threads start, and not by every solve: the age only has 256 values, so
+   * aging per position would soon make the entries of the same ply look old
+   * and get them replaced first.
+   *
+   * @param empty The empty board
+   * @param keys Keys of the positions
+   * @param scores Receives the exact scores or MISSING
+   * @param columns Receives the best columns
+   * @param executor Executor running the threads
+   * @param threads Number of threads
+   * @param table Shared transposition table
+   * @param nodesPerPosition Maximum number of nodes searched per position
+   */
+  private static void solveLevel(final BitBoard empty, final long[] keys,
+      final byte[] scores, final byte[] columns, ExecutorService executor,
+      int threads, final TranspositionTable table,
+      final long nodesPerPosition) {
+    final AtomicInteger nextIndex = new AtomicInteger();
+    table.newSearch();
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          NegamaxSolver solver = new NegamaxSolver(nodesPerPosition, table);
+          BitBoard position = new BitBoard(empty);
+          int index;
+          while ((index = nextIndex.getAndIncrement()) < keys.length) {
+            position.setKey(keys[index]);
+            SearchResult result = solver.search(position, position.getCells()
+                - position.getMoves(), nodesPerPosition, Long.MAX_VALUE);
+            scores[index] = result.isExact() ? (byte) result.getScore()
+                : MISSING;
+            columns[index] = (byte) result.getColumn();
+          }
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while solving", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Solving failed", e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Writes the solved positions of all the plies merged in key order.
+   *
+   * @return Number of positions written
+   */
+  private static long write(BitBoard empty, int maxPly, List<long[]> levels,
+      List<byte[]> scores, List<byte[]> columns, Path file) throws IOException {
+    long size = 0;
+    for (byte[] levelScores : scores) {
+      for (byte score : levelScores) {
+        if (score != MISSING) {
+          size++;
+        }
+      }
+    }
+    int[] positions = new int[levels.size()];
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(file)))) {
+      out.writeInt(OpeningBook.MAGIC);
+      out.writeInt(OpeningBook.VERSION);
+      out.writeInt(empty.getROWSIZE());
+      out.writeInt(empty.getCOLUMNSIZE());
+      out.writeInt(empty.getWINNINGSIZE());
+      out.writeInt(maxPly);
+      out.writeLong(size);
+      while (true) {
+        int ply = -1;
+        for (int i = 0; i < levels.size(); i++) {
+          if (positions[i] < levels.get(i).length
+              && (ply < 0 || levels.get(i)[positions[i]]
+                  < levels.get(ply)[positions[ply]])) {
+            ply = i;
+          }
+        }
+        if (ply < 0) {
+          break;
+        }
+        int index = positions[ply]++;
+        if (scores.get(ply)[index] != MISSING) {
+          out.writeLong(levels.get(ply)[index]);
+          out.writeByte(scores.get(ply)[index]);
+          out.writeByte(columns.get(ply)[index]);
+        }
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,48 @@
+package edu.nyu.pqs.connect4.engine;
+
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Plays the book column while the position is in the OpeningBook and asks
+ * another ComputerPlayer afterwards.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class OpeningBookPlayer implements ComputerPlayer {
+  private final OpeningBook book;
+  private final ComputerPlayer fallback;
+
+  /**
+   * Constructor of the OpeningBookPlayer.
+   *
+   * @param book The opening book, can be shared with other players
+   * @param fallback Player asked for positions not in the book
+   * @throws NullPointerException if book or fallback is Null
+   */
+  public OpeningBookPlayer(OpeningBook book, ComputerPlayer fallback) {
+    if (book == null || fallback == null) {
+      throw new NullPointerException("Book and fallback cannot be Null");
+    }
+    this.book = book;
+    this.fallback = fallback;
+  }
+
+  /**
+   * @param model Reference to the model
+   * @return Column Location of the book move, else the fallback's choice
+   */
+  @Override
+  public int chooseColumn(Connect4Model model) {
+    BitBoard position = model.getBitBoard();
+    if (position != null) {
+      SearchResult result = book.lookup(position);
+      if (result != null) {
+        return result.getColumn();
+      }
+    }
+    return fallback.chooseColumn(model);
+  }
+}
@@ -0,0 +1,132 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.util.Arrays;
+
+/**
+ * Immutable analysis of a position by the PositionAnalyzer: for every legal
+ * column the score of playing it, whether the score is exact, and the best
+ * line starting with that column. Scores are from the point of view of the
+ * player to move, in the units of SearchResult.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class PositionAnalysis {
+  private final int moves;
+  private final boolean[] legal;
+  private final int[] scores;
+  private final boolean[] exact;
+  private final int[][] lines;
+  private final int bestColumn;
+
+  /**
+   * Constructor of the PositionAnalysis. The arrays are kept, not copied.
+   *
+   * @param moves Number of moves played in the position
+   * @param legal true for the columns that can be played
+   * @param scores Score of each legal column
+   * @param exact true for the legal columns whose score is the solved value
+   * @param lines Best line of each legal column, starting with the column
+   */
+  PositionAnalysis(int moves, boolean[] legal, int[] scores, boolean[] exact,
+      int[][] lines) {
+    this.moves = moves;
+    this.legal = legal;
+    this.scores = scores;
+    this.exact = exact;
+    this.lines = lines;
+    int best = -1;
+    for (int col : NegamaxSolver.centerFirstOrder(legal.length)) {
+      if (legal[col] && (best < 0 || scores[col] > scores[best])) {
+        best = col;
+      }
+    }
+    bestColumn = best;
+  }
+
+  /**
+   * @param col Column Location
+   * @return true if the column can be played
+   */
+  public boolean isLegal(int col) {
+    return col >= 0 && col < legal.length && legal[col];
+  }
+
+  /**
+   * @param col Column Location
+   * @return Score of playing the column
+   * @throws IllegalArgumentException if the column cannot be played
+   */
+  public int getScore(int col) {
+    checkLegal(col);
+    return scores[col];
+  }
+
+  /**
+   * @param col Column Location
+   * @return true if the score of the column is the solved value, false if it
+   *         is a bound from a search stopped by its budget
+   * @throws IllegalArgumentException if the column cannot be played
+   */
+  public boolean isExact(int col) {
+    checkLegal(col);
+    return exact[col];
+  }
+
+  /**
+   * @param col Column Location
+   * @return Column Locations of the best line after the column, starting with
+   *         it. The line ends with the game or where the search did not
+   *         settle the best move.
+   * @throws IllegalArgumentException if the column cannot be played
+   */
+  public int[] getLine(int col) {
+    checkLegal(col);
+    return Arrays.copyOf(lines[col], lines[col].length);
+  }
+
+  /**
+   * @return Legal column with the highest score, the one nearest the center
+   *         among equal scores
+   */
+  public int getBestColumn() {
+    return bestColumn;
+  }
+
+  /**
+   * @return Number of moves played in the position
+   */
+  public int getMoves() {
+    return moves;
+  }
+
+  public int getCOLUMNSIZE() {
+    return legal.length;
+  }
+
+  private void checkLegal(int col) {
+    if (!isLegal(col)) {
+      throw new IllegalArgumentException("Column " + col + " is not legal");
+    }
+  }
+
+  /**
+   * @return String in format of "best 3: 0 -2 (exact) 44, 3 1 (bound) 4525"
+   *         listing column, score and 1 based line of every legal column
+   */
+  public String toString() {
+    StringBuilder builder = new StringBuilder("best " + bestColumn + ":");
+    for (int col = 0; col < legal.length; col++) {
+      if (!legal[col]) {
+        continue;
+      }
+      builder.append(builder.charAt(builder.length() - 1) == ':' ? " " : ", ");
+      builder.append(col).append(' ').append(scores[col]);
+      builder.append(exact[col] ? " (exact) " : " (bound) ");
+      for (int move : lines[col]) {
+        builder.append(move + 1);
+      }
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,320 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Headless analysis of positions of one board size: scores every legal column
+ * of a position by searching the position after it with a NegamaxSolver,
+ * depth 1, 2, ... until the score is exact or the budget of the column runs
+ * out. Unlike IterativeDeepening it does not stop at the first proven win or
+ * loss, whose score is only exact once the rest of the game is searched. A
+ * win in one move and a move filling the board are scored without a search.
+ * The best line of a column continues with the best moves left in the
+ * transposition table, then a winning move if there is one.
+ *
+ * All searches share one lock free transposition table, so an analyzer can be
+ * used by any number of threads at once and later positions benefit from the
+ * earlier ones. analyzeAll() spreads a list of positions over a fork join
+ * pool. The analyzer never ages the table, which would race between threads
+ * and make the entries of the positions in progress the first replaced; the
+ * owner of the table may call newSearch() between unrelated batches.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class PositionAnalyzer {
+  private static final int POSITIONS_PER_TASK = 4;
+
+  private final BitBoard empty;
+  private final TranspositionTable table;
+  private final long millisPerColumn;
+  private final long nodesPerColumn;
+
+  /**
+   * Constructor of the PositionAnalyzer.
+   *
+   * @param rowSize Number of Rows
+   * @param colSize Number of Columns
+   * @param winSize Number of aligned stones to win
+   * @param table Transposition table of the searches, only to be shared with
+   *          searches of the same board size
+   * @param millisPerColumn Wall clock time per column in milliseconds
+   * @param nodesPerColumn Number of nodes searched per column
+   * @throws NullPointerException if table is Null
+   * @throws IllegalArgumentException if the board does not fit in a BitBoard
+   *           or a budget is not positive
+   */
+  public PositionAnalyzer(int rowSize, int colSize, int winSize,
+      TranspositionTable table, long millisPerColumn, long nodesPerColumn) {
+    if (table == null) {
+      throw new NullPointerException("Table cannot be Null");
+    }
+    if (!BitBoard.fits(rowSize, colSize)) {
+      throw new IllegalArgumentException("Board does not fit in a BitBoard");
+    }
+    if (millisPerColumn <= 0 || nodesPerColumn <= 0) {
+      throw new IllegalArgumentException("Column budget must be positive");
+    }
+    empty = new BitBoard(rowSize, colSize, winSize);
+    this.table = table;
+    this.millisPerColumn = millisPerColumn;
+    this.nodesPerColumn = nodesPerColumn;
+  }
+
+  /**
+   * Analyzes the position reached by a sequence of 1 based column digits
+   * such as "4453" from the empty board.
+   *
+   * @param moves The moves to play
+   * @return Score and best line of every legal column
+   * @throws NullPointerException if moves is Null
+   * @throws IllegalArgumentException if a move is invalid, the game is over
+   *           before the last move or after it
+   */
+  public PositionAnalysis analyze(CharSequence moves) {
+    if (moves == null) {
+      throw new NullPointerException("Moves cannot be Null");
+    }
+    BitBoard position = new BitBoard(empty);
+    if (position.play(moves) != moves.length()) {
+      throw new IllegalArgumentException("Invalid moves: " + moves);
+    }
+    return analyze(position);
+  }
+
+  /**
+   * Analyzes the current position of a model.
+   *
+   * @param model Reference to the model
+   * @return Score and best line of every legal column
+   * @throws NullPointerException if model is Null
+   * @throws IllegalArgumentException if the model has another board size or
+   *           its game is over
+   */
+  public PositionAnalysis analyze(Connect4Model model) {
+    if (model == null) {
+      throw new NullPointerException("Model cannot be Null");
+    }
+    BitBoard position = model.getBitBoard();
+    if (position == null || !sameSize(position)) {
+      throw new IllegalArgumentException("Model has another board size");
+    }
+    return analyze(position);
+  }
+
+  /**
+   * Analyzes a position.
+   *
+   * @param position The position to analyze, it is not modified
+   * @return Score and best line of every legal column
+   * @throws NullPointerException if position is Null
+   * @throws IllegalArgumentException if the position has another board size
+   *           or the game is over
+   */
+  public PositionAnalysis analyze(BitBoard position) {
+    if (position == null) {
+      throw new NullPointerException("Position cannot be Null");
+    }
+    if (!sameSize(position)) {
+      throw new IllegalArgumentException("Position has another board size");
+    }
+    if (position.lastMoverWon() || position.isFull()) {
+      throw new IllegalArgumentException("Game is already over");
+    }
+    int colSize = position.getCOLUMNSIZE();
+    boolean[] legal = new boolean[colSize];
+    int[] scores = new int[colSize];
+    boolean[] exact = new boolean[colSize];
+    int[][] lines = new int[colSize][];
+    NegamaxSolver solver = new NegamaxSolver(Long.MAX_VALUE, table);
+    BitBoard child = new BitBoard(position);
+    for (int col = 0; col < colSize; col++) {
+      if (!child.canPlay(col)) {
+        continue;
+      }
+      legal[col] = true;
+      exact[col] = true;
+      if (child.isWinningMove(col)) {
+        scores[col] = (position.getCells() + 1 - position.getMoves()) / 2;
+        lines[col] = new int[] { col };
+        continue;
+      }
+      child.play(col);
+      if (child.isFull()) {
+        lines[col] = new int[] { col };
+      } else {
+        SearchResult result = deepen(solver, child);
+        scores[col] = -result.getScore();
+        exact[col] = result.isExact();
+        lines[col] = bestLine(child, col, result.getColumn());
+      }
+      child.undo(col);
+    }
+    return new PositionAnalysis(position.getMoves(), legal, scores, exact,
+        lines);
+  }
+
+  /**
+   * Analyzes positions in parallel on a fork join pool.
+   *
+   * @param positions Moves of the positions, as for analyze(CharSequence)
+   * @param pool The pool running the analysis
+   * @return Analysis of every position, in the order of the positions
+   * @throws NullPointerException if positions, a position or pool is Null
+   * @throws IllegalArgumentException if a position is invalid or over
+   */
+  public PositionAnalysis[] analyzeAll(List<? extends CharSequence> positions,
+      ForkJoinPool pool) {
+    if (positions == null || pool == null) {
+      throw new NullPointerException("Positions and pool cannot be Null");
+    }
+    PositionAnalysis[] results = new PositionAnalysis[positions.size()];
+    pool.invoke(new AnalyzeTask(positions, results, 0, results.length));
+    return results;
+  }
+
+  /**
+   * Analyzes positions in parallel on the common fork join pool.
+   *
+   * @param positions Moves of the positions, as for analyze(CharSequence)
+   * @return Analysis of every position, in the order of the positions
+   * @throws NullPointerException if positions or a position is Null
+   * @throws IllegalArgumentException if a position is invalid or over
+   */
+  public PositionAnalysis[] analyzeAll(List<? extends CharSequence> positions) {
+    return analyzeAll(positions, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Splits a range of positions in halves until it is small enough to
+   * analyze.
+   */
+  private class AnalyzeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final List<? extends CharSequence> positions;
+    private final PositionAnalysis[] results;
+    private final int from;
+    private final int to;
+
+    AnalyzeTask(List<? extends CharSequence> positions,
+        PositionAnalysis[] results, int from, int to) {
+      this.positions = positions;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= POSITIONS_PER_TASK) {
+        for (int i = from; i < to; i++) {
+          results[i] = analyze(positions.get(i));
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new AnalyzeTask(positions, results, from, middle),
+          new AnalyzeTask(positions, results, middle, to));
+    }
+  }
+
+  /**
+   * Searches a position one depth deeper at a time within the budget of a
+   * column.
+   *
+   * @param solver The solver
+   * @param position The position to search, not over
+   * @return Result of the deepest depth that completed, or of the first depth
+   *         with score 0 if not even depth 1 completed
+   */
+  private SearchResult deepen(NegamaxSolver solver, BitBoard position) {
+    long deadline = System.nanoTime() + millisPerColumn * 1000000L;
+    int maxDepth = position.getCells() - position.getMoves();
+    long nodes = 0;
+    SearchResult best = null;
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      SearchResult result = solver.search(position, depth, nodesPerColumn
+          - nodes, deadline);
+      nodes += result.getNodes();
+      if (result.getDepth() < depth) {
+        if (best == null) {
+          best = result;
+        }
+        break;
+      }
+      best = result;
+      if (result.isExact() || nodes >= nodesPerColumn) {
+        break;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Follows the best moves stored in the transposition table from a position
+   * until the game ends or a position has no best move stored.
+   *
+   * @param position The position after the first move, not over
+   * @param col Column Location of the first move
+   * @param reply Best Column Location found by the search of the position
+   * @return Column Locations of the line, starting with col
+   */
+  private int[] bestLine(BitBoard position, int col, int reply) {
+    BitBoard board = new BitBoard(position);
+    int[] line = new int[board.getCells() - board.getMoves() + 1];
+    int length = 0;
+    line[length++] = col;
+    int next = reply;
+    while (true) {
+      int win = winningColumn(board);
+      if (win >= 0) {
+        line[length++] = win;
+        break;
+      }
+      if (next < 0) {
+        long key = board.key();
+        long mirrorKey = board.mirror(key);
+        boolean mirrored = Long.compareUnsigned(mirrorKey, key) < 0;
+        long data = table.probe(mirrored ? mirrorKey : key);
+        next = data == 0 ? -1 : TranspositionTable.move(data);
+        if (next >= 0 && mirrored) {
+          next = board.getCOLUMNSIZE() - 1 - next;
+        }
+      }
+      if (!board.canPlay(next)) {
+        break;
+      }
+      line[length++] = next;
+      board.play(next);
+      next = -1;
+      if (board.isFull()) {
+        break;
+      }
+    }
+    return Arrays.copyOf(line, length);
+  }
+
+  /**
+   * @param board A position
+   * @return A column the player to move wins with, or -1
+   */
+  private static int winningColumn(BitBoard board) {
+    for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+      if (board.canPlay(col) && board.isWinningMove(col)) {
+        return col;
+      }
+    }
+    return -1;
+  }
+
+  private boolean sameSize(BitBoard position) {
+    return position.getROWSIZE() == empty.getROWSIZE()
+        && position.getCOLUMNSIZE() == empty.getCOLUMNSIZE()
+        && position.getWINNINGSIZE() == empty.getWINNINGSIZE();
+  }
+}
@@ -0,0 +1,62 @@
+package edu.nyu.pqs.connect4.engine;
+
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+/**
+ * Prints how the LazySmpSearch scales with the number of threads: for 1, 2, 4,
+ * ... N threads it solves a set of 6X7 positions and reports the time to solve
+ * and the nodes per second of all the threads together.
+ *
+ * Usage: ScalingReport [maxThreads] [tableMegabytes] [position ...] where a
+ * position is a sequence of 1 based column digits.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class ScalingReport {
+  private static final String[] POSITIONS = { "5214244216", "5616724756",
+      "6176143711", "7414443245" };
+  private static final long MILLIS_PER_POSITION = 600000;
+
+  public static void main(String[] args) {
+    int maxThreads = Runtime.getRuntime().availableProcessors();
+    int megabytes = 64;
+    String[] positions = POSITIONS;
+    if (args.length > 0) {
+      maxThreads = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1) {
+      megabytes = Integer.parseInt(args[1]);
+    }
+    if (args.length > 2) {
+      positions = new String[args.length - 2];
+      System.arraycopy(args, 2, positions, 0, positions.length);
+    }
+    System.out.println("threads  seconds  nodes  nodes/s  speedup");
+    double baseSeconds = 0;
+    int threads = 1;
+    while (threads <= maxThreads) {
+      long nodes = 0;
+      long start = System.nanoTime();
+      for (String moves : positions) {
+        LazySmpSearch search = new LazySmpSearch(threads,
+            new TranspositionTable(megabytes), MILLIS_PER_POSITION,
+            Long.MAX_VALUE);
+        BitBoard position = new BitBoard(6, 7, 4);
+        position.play(moves);
+        nodes += search.search(position).getNodes();
+        search.shutdown();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      if (threads == 1) {
+        baseSeconds = seconds;
+      }
+      System.out.printf("%7d  %7.2f  %d  %.0f  %.2f%n", threads, seconds,
+          nodes, nodes / seconds, baseSeconds / seconds);
+      if (threads == maxThreads) {
+        break;
+      }
+      threads = Math.min(threads * 2, maxThreads);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package edu.nyu.pqs.connect4.engine;
+
+/**
+ * Immutable result of a search. Scores are from the point of view of the
+ * player to move: a positive score means a win, the higher the sooner; a
+ * negative score means a loss and 0 means a draw. Winning with the last stone
+ * of the player scores 1, winning with the next stone scores
+ * (cells + 1 - moves) / 2.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class SearchResult {
+  private final int column;
+  private final int score;
+  private final boolean exact;
+  private final long nodes;
+  private final int depth;
+
+  /**
+   * Constructor of the SearchResult.
+   *
+   * @param column Best Column Location found
+   * @param score Score of the best column
+   * @param exact true if the score is the solved value of the position
+   * @param nodes Number of nodes searched
+   * @param depth Depth the score was searched to, 0 if the search was stopped
+   *          before completing
+   */
+  public SearchResult(int column, int score, boolean exact, long nodes,
+      int depth) {
+    this.column = column;
+    this.score = score;
+    this.exact = exact;
+    this.nodes = nodes;
+    this.depth = depth;
+  }
+
+  public int getColumn() {
+    return column;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public boolean isExact() {
+    return exact;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * @return String in format of
+   *         "column 3 score 2 (exact) at depth 12 after 1000 nodes"
+   */
+  public String toString() {
+    return "column " + column + " score " + score
+        + (exact ? " (exact)" : " (bound)") + " at depth " + depth + " after "
+        + nodes + " nodes";
+  }
+}
@@ -0,0 +1,330 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+/**
+ * Read only endgame tablebase memory mapped from a file written by the
+ * TablebaseGenerator. It holds every reachable position of a small board that
+ * is not over with its result for the player to move and the number of moves
+ * left to the end of the game with perfect play, so the best column of any
+ * position is found by probing its children instead of searching. Entries are
+ * looked up with a binary search directly in the mapping, so the tablebase
+ * takes no heap and one instance can be shared by any number of models and
+ * threads. Files over 1 GB are mapped in several chunks.
+ *
+ * The file starts with a header of magic, version, rowSize, colSize, winSize
+ * and bytes per key (ints), then the index of the first entry of every ply
+ * followed by the number of entries (longs). Then come the keys, ply by ply
+ * and sorted within a ply, each the position key folded with its mirror in
+ * big endian order. Last come the values, one byte per key in the same order:
+ * the result in the two high bits and the distance to the end in plies in the
+ * six low bits.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class Tablebase {
+  static final int MAGIC = 0x43345442;
+  static final int VERSION = 1;
+
+  /**
+   * Result of a position lost by the player to move.
+   */
+  public static final int LOSS = 0;
+
+  /**
+   * Result of a drawn position.
+   */
+  public static final int DRAW = 1;
+
+  /**
+   * Result of a position won by the player to move.
+   */
+  public static final int WIN = 2;
+
+  private static final int CHUNK_BITS = 30;
+  private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+  private final MappedByteBuffer[] chunks;
+  private final int rowSize;
+  private final int colSize;
+  private final int winSize;
+  private final int keyBytes;
+  private final long[] plyStart;
+  private final long keysOffset;
+  private final long valuesOffset;
+
+  /**
+   * Maps a tablebase file.
+   *
+   * @param file The tablebase file
+   * @throws IOException if the file cannot be read or is not a tablebase
+   */
+  public Tablebase(Path file) throws IOException {
+    long length;
+    MappedByteBuffer[] mapped;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      length = channel.size();
+      mapped = map(channel, FileChannel.MapMode.READ_ONLY, length);
+    }
+    if (length < 24 || mapped[0].getInt(0) != MAGIC
+        || mapped[0].getInt(4) != VERSION) {
+      throw new IOException("Not a tablebase: " + file);
+    }
+    rowSize = mapped[0].getInt(8);
+    colSize = mapped[0].getInt(12);
+    winSize = mapped[0].getInt(16);
+    keyBytes = mapped[0].getInt(20);
+    if (!BitBoard.fits(rowSize, colSize) || keyBytes <= 0
+        || keyBytes > Long.BYTES) {
+      throw new IOException("Not a tablebase: " + file);
+    }
+    int cells = rowSize * colSize;
+    keysOffset = headerSize(cells);
+    if (length < keysOffset) {
+      throw new IOException("Truncated tablebase: " + file);
+    }
+    plyStart = new long[cells + 1];
+    for (int ply = 0; ply <= cells; ply++) {
+      plyStart[ply] = mapped[0].getLong(24 + ply * Long.BYTES);
+    }
+    valuesOffset = keysOffset + plyStart[cells] * keyBytes;
+    if (valuesOffset + plyStart[cells] != length) {
+      throw new IOException("Truncated tablebase: " + file);
+    }
+    chunks = mapped;
+  }
+
+  /**
+   * Maps the start of a file in chunks of 1 GB.
+   *
+   * @param channel The file
+   * @param mode READ_ONLY, or READ_WRITE to grow the file to length
+   * @param length Number of bytes to map
+   * @return The chunks, chunk i starting at byte i GB
+   * @throws IOException if the file cannot be mapped
+   */
+  static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode,
+      long length) throws IOException {
+    MappedByteBuffer[] mapped = new MappedByteBuffer[(int) ((length
+        + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+    for (int i = 0; i < mapped.length; i++) {
+      long start = (long) i << CHUNK_BITS;
+      // Chunks overlap by a long so that no key is split between two
+      mapped[i] = channel.map(mode, start,
+          Math.min(CHUNK_SIZE + Long.BYTES, length - start));
+    }
+    return mapped;
+  }
+
+  /**
+   * @param chunks Chunks of a mapped file
+   * @param offset Offset of the key in the file
+   * @param keyBytes Number of bytes of the key
+   * @return The big endian key at offset
+   */
+  static long readKey(MappedByteBuffer[] chunks, long offset, int keyBytes) {
+    MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_BITS)];
+    int start = (int) (offset & (CHUNK_SIZE - 1));
+    if (start <= chunk.limit() - Long.BYTES) {
+      return chunk.getLong(start) >>> ((Long.BYTES - keyBytes) * 8);
+    }
+    long key = 0L;
+    for (int i = 0; i < keyBytes; i++) {
+      key = (key << 8) | (chunk.get(start + i) & 0xFF);
+    }
+    return key;
+  }
+
+  /**
+   * @param chunks Chunks of a mapped file
+   * @param offset Offset of the byte in the file
+   * @return The byte at offset
+   */
+  static byte readByte(MappedByteBuffer[] chunks, long offset) {
+    return chunks[(int) (offset >>> CHUNK_BITS)].get(
+        (int) (offset & (CHUNK_SIZE - 1)));
+  }
+
+  /**
+   * @param chunks Chunks of a file mapped READ_WRITE
+   * @param offset Offset of the byte in the file
+   * @param value The byte to write at offset
+   */
+  static void writeByte(MappedByteBuffer[] chunks, long offset, byte value) {
+    chunks[(int) (offset >>> CHUNK_BITS)].put(
+        (int) (offset & (CHUNK_SIZE - 1)), value);
+  }
+
+  /**
+   * @param cells Number of cells of the board
+   * @return Size of the header of a tablebase file in bytes
+   */
+  static long headerSize(int cells) {
+    return 24 + (cells + 1) * (long) Long.BYTES;
+  }
+
+  /**
+   * @param result WIN, DRAW or LOSS
+   * @param distance Number of moves left to the end of the game
+   * @return The value byte stored for the result and distance
+   */
+  static int value(int result, int distance) {
+    return (result << 6) | distance;
+  }
+
+  /**
+   * @param child Value of a position for the player to move
+   * @return Value of the position one move before for the player who moved
+   */
+  static int parent(int child) {
+    return value(WIN - (child >>> 6), (child & 63) + 1);
+  }
+
+  /**
+   * Orders values from the point of view of the player choosing: wins by how
+   * soon they come, then draws, then losses by how late they come.
+   *
+   * @param value A value
+   * @return A rank, higher is better
+   */
+  static int rank(int value) {
+    int distance = value & 63;
+    switch (value >>> 6) {
+    case WIN:
+      return 128 - distance;
+    case DRAW:
+      return 64;
+    default:
+      return distance;
+    }
+  }
+
+  /**
+   * Looks up a position and probes its children for the best column.
+   *
+   * @param position The position to look up, it is not modified
+   * @return Best column and exact score of the position, scored like the
+   *         NegamaxSolver, or null if the tablebase does not have it
+   */
+  public SearchResult lookup(BitBoard position) {
+    if (probe(position) < 0) {
+      return null;
+    }
+    BitBoard child = new BitBoard(position);
+    int bestColumn = -1;
+    int best = 0;
+    for (int col = 0; col < colSize; col++) {
+      if (!child.canPlay(col)) {
+        continue;
+      }
+      int value;
+      if (child.isWinningMove(col)) {
+        value = value(WIN, 1);
+      } else {
+        child.play(col);
+        value = child.isFull() ? value(DRAW, 0) : probe(child);
+        child.undo(col);
+        if (value < 0) {
+          return null;
+        }
+        value = parent(value);
+      }
+      if (bestColumn < 0 || rank(value) > rank(best)) {
+        bestColumn = col;
+        best = value;
+      }
+    }
+    return new SearchResult(bestColumn, score(position, best), true, 0,
+        position.getCells() - position.getMoves());
+  }
+
+  /**
+   * @param position The position to look up
+   * @return WIN, DRAW or LOSS for the player to move, or -1 if the tablebase
+   *         does not have the position
+   */
+  public int getResult(BitBoard position) {
+    int value = probe(position);
+    return value < 0 ? -1 : value >>> 6;
+  }
+
+  /**
+   * @param position The position to look up
+   * @return Number of moves left to the end of the game with perfect play,
+   *         or -1 if the tablebase does not have the position
+   */
+  public int getDistance(BitBoard position) {
+    int value = probe(position);
+    return value < 0 ? -1 : value & 63;
+  }
+
+  /**
+   * @param position A position
+   * @param value Value of the position
+   * @return Score of the value in the units of SearchResult
+   */
+  private static int score(BitBoard position, int value) {
+    if (value >>> 6 == DRAW) {
+      return 0;
+    }
+    int stones = (position.getCells() + 2 - position.getMoves()
+        - (value & 63)) / 2;
+    return value >>> 6 == WIN ? stones : -stones;
+  }
+
+  /**
+   * @param position A position
+   * @return Value of the position, or -1 if the tablebase does not have it
+   */
+  private int probe(BitBoard position) {
+    if (!covers(position) || position.getMoves() >= plyStart.length - 1) {
+      return -1;
+    }
+    long key = OpeningBookGenerator.canonicalKey(position);
+    long low = plyStart[position.getMoves()];
+    long high = plyStart[position.getMoves() + 1] - 1;
+    while (low <= high) {
+      long middle = (low + high) >>> 1;
+      long stored = readKey(chunks, keysOffset + middle * keyBytes, keyBytes);
+      if (stored < key) {
+        low = middle + 1;
+      } else if (stored > key) {
+        high = middle - 1;
+      } else {
+        return readByte(chunks, valuesOffset + middle) & 0xFF;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param position A position
+   * @return true if the position has the board size of the tablebase
+   */
+  public boolean covers(BitBoard position) {
+    return position.getROWSIZE() == rowSize
+        && position.getCOLUMNSIZE() == colSize
+        && position.getWINNINGSIZE() == winSize;
+  }
+
+  /**
+   * @return Number of positions in the tablebase
+   */
+  public long size() {
+    return plyStart[plyStart.length - 1];
+  }
+
+  /**
+   * @return String in format of "Tablebase 4X5/4 with 1000 positions"
+   */
+  public String toString() {
+    return "Tablebase " + rowSize + "X" + colSize + "/" + winSize + " with "
+        + size() + " positions";
+  }
+}
@@ -0,0 +1,605 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+/**
+ * Writes a Tablebase of every reachable position of a board by retrograde
+ * analysis. Positions that are not over are enumerated ply by ply, mirrored
+ * positions folded into one, and their keys written to the file as each ply
+ * is found. Then the plies are valued from the deepest up: every move either
+ * wins, fills the board or leads to a position of the next ply whose value is
+ * already known, so one pass settles each ply without any search.
+ *
+ * The heap used is fixed whatever the board, about 100 MB. A ply is expanded
+ * from the keys of the ply before read back from the file, in runs of at most
+ * RUN_KEYS children that are sorted in parallel and spilled to a temporary
+ * file next to the tablebase, then merged into the next ply. The plies are
+ * valued through a mapping of the file, looking up the children with a binary
+ * search in the mapping as the Tablebase does, narrowed first by a sample of
+ * at most SAMPLE_KEYS keys of the next ply held in the heap, so the page
+ * cache rather than the heap holds the ply being read.
+ *
+ * Usage: TablebaseGenerator file [rowSize colSize winSize] [threads]
+ *
+ * @author ajaykhanna
+ *
+ */
+public class TablebaseGenerator {
+  private static final int BLOCK = 4096;
+  private static final int RUN_KEYS = 1 << 22;
+  private static final int SAMPLE_KEYS = 1 << 20;
+  private static final int SAMPLE_STEP = 64;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: TablebaseGenerator file "
+          + "[rowSize colSize winSize] [threads]");
+      System.exit(1);
+    }
+    Path file = Paths.get(args[0]);
+    int rowSize = args.length > 3 ? Integer.parseInt(args[1]) : 4;
+    int colSize = args.length > 3 ? Integer.parseInt(args[2]) : 5;
+    int winSize = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+    int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime
+        .getRuntime().availableProcessors();
+    long start = System.nanoTime();
+    long size = generate(rowSize, colSize, winSize, threads, file);
+    System.out.printf("%d positions written to %s in %.1f seconds%n", size,
+        file, (System.nanoTime() - start) / 1e9);
+  }
+
+  /**
+   * Values every reachable position and writes the tablebase.
+   *
+   * @param rowSize Number of Rows
+   * @param colSize Number of Columns
+   * @param winSize Number of aligned stones to win
+   * @param threads Number of threads enumerating and valuing positions
+   * @param file The tablebase file, replaced if it exists
+   * @return Number of positions written
+   * @throws IOException if the file cannot be written
+   * @throws NullPointerException if file is Null
+   * @throws IllegalArgumentException if the board does not fit in a BitBoard
+   *           or winSize or threads is not positive
+   */
+  public static long generate(int rowSize, int colSize, int winSize,
+      int threads, Path file) throws IOException {
+    if (file == null) {
+      throw new NullPointerException("File cannot be Null");
+    }
+    if (!BitBoard.fits(rowSize, colSize)) {
+      throw new IllegalArgumentException("Board does not fit in a BitBoard");
+    }
+    if (winSize <= 0 || threads <= 0) {
+      throw new IllegalArgumentException(
+          "Winning size and threads must be positive");
+    }
+    BitBoard empty = new BitBoard(rowSize, colSize, winSize);
+    int cells = empty.getCells();
+    int keyBytes = (colSize * empty.getCOLUMNHEIGHT() + 7) / 8;
+    long keysOffset = Tablebase.headerSize(cells);
+    long[] plyStart = new long[cells + 1];
+    Path runsFile = Files.createTempFile(file.toAbsolutePath().getParent(),
+        "tablebase", ".runs");
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel runs = FileChannel.open(runsFile,
+            StandardOpenOption.DELETE_ON_CLOSE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      KeyOutput root = new KeyOutput(channel, keysOffset, keyBytes);
+      root.add(OpeningBookGenerator.canonicalKey(empty));
+      root.flush();
+      plyStart[1] = 1;
+      long[] run = new long[RUN_KEYS];
+      for (int ply = 1; ply < cells; ply++) {
+        long count = expand(empty, channel, keysOffset, plyStart[ply - 1],
+            plyStart[ply], run, runs, executor, threads);
+        plyStart[ply + 1] = plyStart[ply] + count;
+      }
+      run = null;
+      long size = plyStart[cells];
+      long valuesOffset = keysOffset + size * keyBytes;
+      MappedByteBuffer[] chunks = Tablebase.map(channel,
+          FileChannel.MapMode.READ_WRITE, valuesOffset + size);
+      for (int ply = cells - 1; ply >= 0; ply--) {
+        valueLevel(empty, chunks, keysOffset, valuesOffset, plyStart, ply,
+            executor, threads);
+      }
+      for (MappedByteBuffer chunk : chunks) {
+        chunk.force();
+      }
+      ByteBuffer header = ByteBuffer.allocate((int) keysOffset);
+      header.putInt(Tablebase.MAGIC);
+      header.putInt(Tablebase.VERSION);
+      header.putInt(rowSize);
+      header.putInt(colSize);
+      header.putInt(winSize);
+      header.putInt(keyBytes);
+      for (long start : plyStart) {
+        header.putLong(start);
+      }
+      header.flip();
+      writeFully(channel, header, 0);
+      return size;
+    } finally {
+      executor.shutdownNow();
+      Files.deleteIfExists(runsFile);
+    }
+  }
+
+  /**
+   * Writes the positions one move after a ply that are not over, by key
+   * folded with the mirrored key and sorted, right after the ply. The ply is
+   * read back in batches whose children fill one run. Each run is sorted
+   * without duplicates and, unless the whole ply fits in one, spilled to the
+   * runs file. The runs are then merged.
+   *
+   * @param empty The empty board
+   * @param channel The tablebase file
+   * @param keysOffset Offset of the keys in the file
+   * @param from Index of the first position of the ply
+   * @param to Index of the first position of the next ply, where its keys
+   *          are written
+   * @param run Buffer of RUN_KEYS keys
+   * @param runs The runs file
+   * @param executor Executor running the threads
+   * @param threads Number of threads
+   * @return Number of positions of the next ply
+   */
+  private static long expand(final BitBoard empty, FileChannel channel,
+      long keysOffset, long from, long to, final long[] run,
+      FileChannel runs, ExecutorService executor, int threads)
+      throws IOException {
+    if (from == to) {
+      return 0;
+    }
+    int keyBytes = (empty.getCOLUMNSIZE() * empty.getCOLUMNHEIGHT() + 7) / 8;
+    int batch = RUN_KEYS / empty.getCOLUMNSIZE();
+    final long[] parents = new long[(int) Math.min(batch, to - from)];
+    List<Long> runLengths = new ArrayList<Long>();
+    long runsSize = 0;
+    for (long parent = from; parent < to; parent += batch) {
+      final int count = (int) Math.min(batch, to - parent);
+      readKeys(channel, keysOffset + parent * keyBytes, parents, count,
+          keyBytes);
+      int children = unique(run, expandBatch(empty, parents, count, run,
+          executor, threads));
+      if (parent == from && parent + count == to) {
+        KeyOutput output = new KeyOutput(channel, keysOffset + to * keyBytes,
+            keyBytes);
+        for (int i = 0; i < children; i++) {
+          output.add(run[i]);
+        }
+        output.flush();
+        return children;
+      }
+      writeRun(runs, runsSize, run, children);
+      runLengths.add((long) children);
+      runsSize += (long) children * Long.BYTES;
+    }
+    return merge(runs, runLengths, run, new KeyOutput(channel, keysOffset
+        + to * keyBytes, keyBytes));
+  }
+
+  /**
+   * Lists the children of a batch of positions that are not over, each
+   * thread taking the next block of positions.
+   *
+   * @return Number of children written to run, unsorted
+   */
+  private static int expandBatch(final BitBoard empty, final long[] parents,
+      final int count, final long[] run, ExecutorService executor,
+      int threads) {
+    final int blocks = (count + BLOCK - 1) / BLOCK;
+    final AtomicInteger nextBlock = new AtomicInteger();
+    final AtomicInteger filled = new AtomicInteger();
+    runAll(executor, threads, new Runnable() {
+      @Override
+      public void run() {
+        BitBoard position = new BitBoard(empty);
+        long[] next = new long[BLOCK * empty.getCOLUMNSIZE()];
+        int block;
+        while ((block = nextBlock.getAndIncrement()) < blocks) {
+          int to = Math.min((block + 1) * BLOCK, count);
+          int children = 0;
+          for (int index = block * BLOCK; index < to; index++) {
+            position.setKey(parents[index]);
+            for (int col = 0; col < empty.getCOLUMNSIZE(); col++) {
+              if (!position.canPlay(col) || position.isWinningMove(col)) {
+                continue;
+              }
+              position.play(col);
+              if (!position.isFull()) {
+                next[children++] = OpeningBookGenerator
+                    .canonicalKey(position);
+              }
+              position.undo(col);
+            }
+          }
+          System.arraycopy(next, 0, run, filled.getAndAdd(children),
+              children);
+        }
+      }
+    });
+    return filled.get();
+  }
+
+  /**
+   * @param keys Keys, reordered
+   * @param count Number of keys used
+   * @return Number of distinct keys, now sorted at the start of keys
+   */
+  private static int unique(long[] keys, int count) {
+    Arrays.parallelSort(keys, 0, count);
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if (unique == 0 || keys[unique - 1] != keys[i]) {
+        keys[unique++] = keys[i];
+      }
+    }
+    return unique;
+  }
+
+  /**
+   * Appends a sorted run to the runs file, the keys as longs.
+   */
+  private static void writeRun(FileChannel runs, long offset, long[] run,
+      int count) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BLOCK * Long.BYTES);
+    for (int from = 0; from < count; from += BLOCK) {
+      buffer.clear();
+      int to = Math.min(from + BLOCK, count);
+      for (int i = from; i < to; i++) {
+        buffer.putLong(run[i]);
+      }
+      buffer.flip();
+      writeFully(runs, buffer, offset + (long) from * Long.BYTES);
+    }
+  }
+
+  /**
+   * Merges the sorted runs of the runs file without duplicates. The buffer
+   * of the runs is shared out among them, so the memory used does not
+   * depend on the number of runs.
+   *
+   * @param runs The runs file
+   * @param runLengths Number of keys of every run, in the order of the file
+   * @param buffer Buffer of RUN_KEYS keys
+   * @param output Receives the merged keys
+   * @return Number of keys written
+   */
+  private static long merge(FileChannel runs, List<Long> runLengths,
+      long[] buffer, KeyOutput output) throws IOException {
+    int count = runLengths.size();
+    int slice = buffer.length / count;
+    long[] next = new long[count];
+    long[] end = new long[count];
+    int[] position = new int[count];
+    int[] limit = new int[count];
+    int[] heap = new int[count];
+    ByteBuffer bytes = ByteBuffer.allocate(BLOCK * Long.BYTES);
+    int heapSize = 0;
+    long offset = 0;
+    for (int i = 0; i < count; i++) {
+      next[i] = offset;
+      offset += runLengths.get(i) * Long.BYTES;
+      end[i] = offset;
+      position[i] = i * slice;
+      limit[i] = position[i];
+      if (fill(runs, bytes, buffer, i * slice, slice, next, end, position,
+          limit, i)) {
+        heap[heapSize++] = i;
+        siftUp(heap, heapSize - 1, buffer, position);
+      }
+    }
+    long written = 0;
+    long last = 0;
+    while (heapSize > 0) {
+      int run = heap[0];
+      long key = buffer[position[run]++];
+      if (written == 0 || key != last) {
+        output.add(key);
+        last = key;
+        written++;
+      }
+      if (position[run] == limit[run]
+          && !fill(runs, bytes, buffer, run * slice, slice, next, end,
+              position, limit, run)) {
+        heap[0] = heap[--heapSize];
+      }
+      siftDown(heap, heapSize, buffer, position);
+    }
+    output.flush();
+    return written;
+  }
+
+  /**
+   * Reads the next keys of a run into its slice of the buffer.
+   *
+   * @return false if the run is used up
+   */
+  private static boolean fill(FileChannel runs, ByteBuffer bytes,
+      long[] buffer, int start, int slice, long[] next, long[] end,
+      int[] position, int[] limit, int run) throws IOException {
+    int count = (int) Math.min(slice, (end[run] - next[run]) / Long.BYTES);
+    int filled = 0;
+    while (filled < count) {
+      int keys = Math.min(count - filled, BLOCK);
+      bytes.clear();
+      bytes.limit(keys * Long.BYTES);
+      readFully(runs, bytes, next[run]);
+      bytes.flip();
+      for (int i = 0; i < keys; i++) {
+        buffer[start + filled + i] = bytes.getLong();
+      }
+      next[run] += keys * Long.BYTES;
+      filled += keys;
+    }
+    position[run] = start;
+    limit[run] = start + count;
+    return count > 0;
+  }
+
+  private static void siftUp(int[] heap, int index, long[] buffer,
+      int[] position) {
+    int run = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (buffer[position[heap[parent]]] <= buffer[position[run]]) {
+        break;
+      }
+      heap[index] = heap[parent];
+      index = parent;
+    }
+    heap[index] = run;
+  }
+
+  private static void siftDown(int[] heap, int heapSize, long[] buffer,
+      int[] position) {
+    if (heapSize == 0) {
+      return;
+    }
+    int run = heap[0];
+    int index = 0;
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && buffer[position[heap[child + 1]]]
+          < buffer[position[heap[child]]]) {
+        child++;
+      }
+      if (buffer[position[run]] <= buffer[position[heap[child]]]) {
+        break;
+      }
+      heap[index] = heap[child];
+      index = child;
+    }
+    heap[index] = run;
+  }
+
+  /**
+   * Values the positions of one ply from the values of the next ply, each
+   * thread taking the next block of positions, through the mapped file.
+   *
+   * @param empty The empty board
+   * @param chunks The tablebase file mapped READ_WRITE
+   * @param keysOffset Offset of the keys in the file
+   * @param valuesOffset Offset of the values in the file
+   * @param plyStart Index of the first position of every ply
+   * @param ply The ply to value
+   * @param executor Executor running the threads
+   * @param threads Number of threads
+   */
+  private static void valueLevel(final BitBoard empty,
+      final MappedByteBuffer[] chunks, final long keysOffset,
+      final long valuesOffset, final long[] plyStart, final int ply,
+      ExecutorService executor, int threads) {
+    final int keyBytes =
+        (empty.getCOLUMNSIZE() * empty.getCOLUMNHEIGHT() + 7) / 8;
+    final long from = plyStart[ply];
+    final long to = plyStart[ply + 1];
+    final long childEnd = ply + 2 < plyStart.length ? plyStart[ply + 2] : to;
+    final int step = (int) Math.max(SAMPLE_STEP, (childEnd - to
+        + SAMPLE_KEYS - 1) / SAMPLE_KEYS);
+    final long[] samples = new long[(int) ((childEnd - to + step - 1)
+        / step)];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = Tablebase.readKey(chunks, keysOffset + (to + (long) i
+          * step) * keyBytes, keyBytes);
+    }
+    final long blocks = (to - from + BLOCK - 1) / BLOCK;
+    final AtomicLong nextBlock = new AtomicLong();
+    runAll(executor, threads, new Runnable() {
+      @Override
+      public void run() {
+        BitBoard position = new BitBoard(empty);
+        long block;
+        while ((block = nextBlock.getAndIncrement()) < blocks) {
+          long end = Math.min(from + (block + 1) * BLOCK, to);
+          for (long index = from + block * BLOCK; index < end; index++) {
+            position.setKey(Tablebase.readKey(chunks, keysOffset + index
+                * keyBytes, keyBytes));
+            Tablebase.writeByte(chunks, valuesOffset + index,
+                (byte) value(position, chunks, keysOffset, valuesOffset,
+                    keyBytes, to, childEnd, samples, step));
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * @param position A position that is not over, restored on return
+   * @param chunks The mapped file
+   * @param keysOffset Offset of the keys in the file
+   * @param valuesOffset Offset of the values in the file
+   * @param keyBytes Number of bytes per key
+   * @param from Index of the first position of the next ply
+   * @param to Index of the first position after the next ply
+   * @param samples Every step-th key of the next ply
+   * @param step Number of keys between two samples
+   * @return Value of the best move of the position
+   */
+  private static int value(BitBoard position, MappedByteBuffer[] chunks,
+      long keysOffset, long valuesOffset, int keyBytes, long from, long to,
+      long[] samples, int step) {
+    int best = -1;
+    for (int col = 0; col < position.getCOLUMNSIZE(); col++) {
+      if (!position.canPlay(col)) {
+        continue;
+      }
+      if (position.isWinningMove(col)) {
+        return Tablebase.value(Tablebase.WIN, 1);
+      }
+      position.play(col);
+      int child = Tablebase.value(Tablebase.DRAW, 0);
+      if (!position.isFull()) {
+        long key = OpeningBookGenerator.canonicalKey(position);
+        int sample = Arrays.binarySearch(samples, key);
+        long low = from + (long) (sample < 0 ? -sample - 2 : sample) * step;
+        long index = search(chunks, keysOffset, keyBytes, low, Math.min(low
+            + step, to) - 1, key);
+        child = Tablebase.readByte(chunks, valuesOffset + index) & 0xFF;
+      }
+      position.undo(col);
+      int value = Tablebase.parent(child);
+      if (best < 0 || Tablebase.rank(value) > Tablebase.rank(best)) {
+        best = value;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @return Index of the key between low and high, which must hold it
+   */
+  private static long search(MappedByteBuffer[] chunks, long keysOffset,
+      int keyBytes, long low, long high, long key) {
+    while (low < high) {
+      long middle = (low + high) >>> 1;
+      if (Tablebase.readKey(chunks, keysOffset + middle * keyBytes,
+          keyBytes) < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Runs the task on every thread and waits for all of them.
+   */
+  private static void runAll(ExecutorService executor, int threads,
+      Runnable task) {
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(task));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while generating", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Generating failed", e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Reads back count keys written by a KeyOutput into keys.
+   */
+  private static void readKeys(FileChannel channel, long offset, long[] keys,
+      int count, int keyBytes) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BLOCK * keyBytes);
+    for (int from = 0; from < count; from += BLOCK) {
+      int to = Math.min(from + BLOCK, count);
+      buffer.clear();
+      buffer.limit((to - from) * keyBytes);
+      readFully(channel, buffer, offset + (long) from * keyBytes);
+      buffer.flip();
+      for (int i = from; i < to; i++) {
+        long key = 0L;
+        for (int b = 0; b < keyBytes; b++) {
+          key = (key << 8) | (buffer.get() & 0xFF);
+        }
+        keys[i] = key;
+      }
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer,
+      long offset) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of tablebase");
+      }
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer,
+      long offset) throws IOException {
+    long position = offset;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  /**
+   * Writes keys in keyBytes bytes each, big endian, one after the other from
+   * an offset of the file.
+   */
+  private static final class KeyOutput {
+    private final FileChannel channel;
+    private final int keyBytes;
+    private final ByteBuffer buffer;
+    private long offset;
+
+    KeyOutput(FileChannel channel, long offset, int keyBytes) {
+      this.channel = channel;
+      this.offset = offset;
+      this.keyBytes = keyBytes;
+      buffer = ByteBuffer.allocate(BLOCK * keyBytes);
+    }
+
+    void add(long key) throws IOException {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      for (int shift = (keyBytes - 1) * 8; shift >= 0; shift -= 8) {
+        buffer.put((byte) (key >>> shift));
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      int length = buffer.remaining();
+      writeFully(channel, buffer, offset);
+      offset += length;
+      buffer.clear();
+    }
+  }
+}
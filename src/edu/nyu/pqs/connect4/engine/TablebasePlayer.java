@@ -0,0 +1,49 @@
+package edu.nyu.pqs.connect4.engine;
+
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Plays the best column of the Tablebase without searching when the position
+ * is in it and asks another ComputerPlayer otherwise, e.g. for a board of
+ * another size.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class TablebasePlayer implements ComputerPlayer {
+  private final Tablebase tablebase;
+  private final ComputerPlayer fallback;
+
+  /**
+   * Constructor of the TablebasePlayer.
+   *
+   * @param tablebase The tablebase, can be shared with other players
+   * @param fallback Player asked for positions not in the tablebase
+   * @throws NullPointerException if tablebase or fallback is Null
+   */
+  public TablebasePlayer(Tablebase tablebase, ComputerPlayer fallback) {
+    if (tablebase == null || fallback == null) {
+      throw new NullPointerException("Tablebase and fallback cannot be Null");
+    }
+    this.tablebase = tablebase;
+    this.fallback = fallback;
+  }
+
+  /**
+   * @param model Reference to the model
+   * @return Column Location of the tablebase move, else the fallback's choice
+   */
+  @Override
+  public int chooseColumn(Connect4Model model) {
+    BitBoard position = model.getBitBoard();
+    if (position != null) {
+      SearchResult result = tablebase.lookup(position);
+      if (result != null) {
+        return result.getColumn();
+      }
+    }
+    return fallback.chooseColumn(model);
+  }
+}
@@ -0,0 +1,183 @@
+package edu.nyu.pqs.connect4.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size transposition table stored in a primitive long array so that
+ * searching allocates nothing. Every slot takes two longs, the key and the
+ * packed data, and slots are grouped in buckets of two. On a store the slot
+ * holding the same key is overwritten, otherwise the slot written in an older
+ * search or, within the same search, the one searched to a lower depth is
+ * replaced. Keys are only unique within one board size and winning size, so a
+ * table must not be shared by searches of different sizes.
+ *
+ * The table can be shared by searches running in parallel without locking.
+ * The key slot holds the key xor the data, so an entry whose two longs were
+ * written by different threads does not match any key and reads as a miss.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class TranspositionTable {
+  /** The stored score is the exact score of the position */
+  public static final int EXACT = 0;
+  /** The stored score is a lower bound of the score of the position */
+  public static final int LOWER = 1;
+  /** The stored score is an upper bound of the score of the position */
+  public static final int UPPER = 2;
+
+  private static final int SCORE_SHIFT = 0;
+  private static final int BOUND_SHIFT = 8;
+  private static final int DEPTH_SHIFT = 10;
+  private static final int AGE_SHIFT = 18;
+  private static final int MOVE_SHIFT = 26;
+  private static final long VALID = 1L << 40;
+  private static final int BUCKET_SIZE = 2;
+
+  private final long[] entries;
+  private final int bucketMask;
+  private volatile int age;
+
+  /**
+   * Constructor of the TranspositionTable.
+   *
+   * @param megabytes Memory cap of the table in MB
+   * @throws IllegalArgumentException if megabytes is not positive
+   */
+  public TranspositionTable(int megabytes) {
+    if (megabytes <= 0) {
+      throw new IllegalArgumentException("Table size must be positive");
+    }
+    long slots = (long) megabytes * 1024 * 1024 / 16;
+    int buckets = Integer.highestOneBit((int) Math.min(slots / BUCKET_SIZE,
+        1 << 28));
+    entries = new long[buckets * BUCKET_SIZE * 2];
+    bucketMask = buckets - 1;
+  }
+
+  /**
+   * Starts a new search, older entries become the first to be replaced.
+   * Searches running in parallel on the table share one age, so it is
+   * advanced between rounds of searches by the thread coordinating them,
+   * never by each search.
+   */
+  public void newSearch() {
+    age = (age + 1) & 0xFF;
+  }
+
+  /**
+   * Empties the table.
+   */
+  public void clear() {
+    Arrays.fill(entries, 0L);
+  }
+
+  /**
+   * Looks up a position.
+   *
+   * @param key Key of the position
+   * @return The packed data of the entry or 0 if the position is not stored
+   */
+  public long probe(long key) {
+    int index = bucketIndex(key);
+    for (int i = 0; i < BUCKET_SIZE; i++, index += 2) {
+      long data = entries[index + 1];
+      if (data != 0 && (entries[index] ^ data) == key) {
+        return data;
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * Stores a position.
+   *
+   * @param key Key of the position
+   * @param score Score of the position between -128 and 127
+   * @param bound EXACT, LOWER or UPPER
+   * @param depth Depth the position was searched to between 0 and 255
+   * @param move Best Column Location or -1 if unknown
+   */
+  public void store(long key, int score, int bound, int depth, int move) {
+    long data = VALID | ((long) (score + 128) << SCORE_SHIFT)
+        | ((long) bound << BOUND_SHIFT) | ((long) depth << DEPTH_SHIFT)
+        | ((long) age << AGE_SHIFT) | ((long) (move + 1) << MOVE_SHIFT);
+    int index = bucketIndex(key);
+    int replace = index;
+    int replacePriority = Integer.MAX_VALUE;
+    for (int i = 0; i < BUCKET_SIZE; i++, index += 2) {
+      long stored = entries[index + 1];
+      if (stored == 0 || (entries[index] ^ stored) == key) {
+        replace = index;
+        break;
+      }
+      int priority = depth(stored);
+      if (age(stored) == age) {
+        priority += 256;
+      }
+      if (priority < replacePriority) {
+        replace = index;
+        replacePriority = priority;
+      }
+    }
+    entries[replace] = key ^ data;
+    entries[replace + 1] = data;
+  }
+
+  /**
+   * @param key Key of the position
+   * @return Index of the first slot of the bucket of the key
+   */
+  private int bucketIndex(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 29;
+    return (int) (hash & bucketMask) * BUCKET_SIZE * 2;
+  }
+
+  /**
+   * @param data Packed data of an entry
+   * @return Stored score
+   */
+  public static int score(long data) {
+    return (int) ((data >>> SCORE_SHIFT) & 0xFF) - 128;
+  }
+
+  /**
+   * @param data Packed data of an entry
+   * @return Stored bound type
+   */
+  public static int bound(long data) {
+    return (int) ((data >>> BOUND_SHIFT) & 0x3);
+  }
+
+  /**
+   * @param data Packed data of an entry
+   * @return Stored depth
+   */
+  public static int depth(long data) {
+    return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+  }
+
+  /**
+   * @param data Packed data of an entry
+   * @return Search generation the entry was written in
+   */
+  public static int age(long data) {
+    return (int) ((data >>> AGE_SHIFT) & 0xFF);
+  }
+
+  /**
+   * @param data Packed data of an entry
+   * @return Stored best Column Location or -1
+   */
+  public static int move(long data) {
+    return (int) ((data >>> MOVE_SHIFT) & 0xFF) - 1;
+  }
+
+  /**
+   * @return Number of slots of the table
+   */
+  public int capacity() {
+    return entries.length / 2;
+  }
+}
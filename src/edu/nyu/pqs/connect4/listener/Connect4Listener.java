@@ -2,6 +2,7 @@ package edu.nyu.pqs.connect4.listener;
 
 import edu.nyu.pqs.connect4.model.Connect4Model;
 import edu.nyu.pqs.connect4.model.GameEnums;
+import edu.nyu.pqs.connect4.model.GameSnapshot;
 
 /**
  * This the listener interface for Connect4 that the views will implement.
@@ -39,6 +40,38 @@ public interface Connect4Listener {
   public void playNextMove(int row, int col, GameEnums.PlayerType owner,
       Connect4Model model);
 
+  /**
+   * Model fires this event once for a sequence of moves played together. By
+   * default it calls playNextMove for every move of the sequence.
+   * 
+   * @param snapshot State of the game after the moves
+   * @param firstMove Index in the snapshot of the first move of the sequence
+   * @param model Reference to the model
+   */
+  public default void playNextMoves(GameSnapshot snapshot, int firstMove,
+      Connect4Model model) {
+    for (int i = firstMove; i < snapshot.getMoveCount(); i++) {
+      playNextMove(snapshot.getMoveRow(i), snapshot.getMoveCol(i),
+          snapshot.getMoveOwner(i), model);
+    }
+  }
+
+  /**
+   * Model fires this event when a move is taken back. If the move had ended
+   * the game, the game is in play again. Does nothing by default.
+   * 
+   * @param row Row Location of the move
+   * @param col Column Location of the move
+   * @param owner Who played this move, and whose Turn it is again
+   * @param formerWinner owner if the move had won the game, else
+   *          GameEnums.PlayerType.NONE
+   * @param model Reference to the model
+   */
+  public default void moveRetracted(int row, int col,
+      GameEnums.PlayerType owner, GameEnums.PlayerType formerWinner,
+      Connect4Model model) {
+  }
+
   /**
    * Model fires this event when someone wins the game.
    * 
@@ -56,4 +89,20 @@ public interface Connect4Listener {
    * @param model Reference to the model
    */
   public void gameDraw(Connect4Model model);
+
+  /**
+   * Model fires this event right after gameStarted when the view joins a game
+   * that is already being started, with the whole board in one object. By
+   * default it calls playNextMove for every move in the order they were
+   * played; views that can draw the board at once should override it.
+   * 
+   * @param snapshot State of the game when the view joined
+   * @param model Reference to the model
+   */
+  public default void gameSnapshot(GameSnapshot snapshot, Connect4Model model) {
+    for (int i = 0; i < snapshot.getMoveCount(); i++) {
+      playNextMove(snapshot.getMoveRow(i), snapshot.getMoveCol(i),
+          snapshot.getMoveOwner(i), model);
+    }
+  }
 }
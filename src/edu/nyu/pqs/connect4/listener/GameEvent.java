@@ -0,0 +1,180 @@
+package edu.nyu.pqs.connect4.listener;
+
+import edu.nyu.pqs.connect4.model.GameEnums;
+import edu.nyu.pqs.connect4.model.GameSnapshot;
+
+/**
+ * Immutable copy of one event of a Connect4Model, so that it can be handed to
+ * other threads. Events of one publisher are numbered in the order the model
+ * fired them.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class GameEvent {
+
+  /**
+   * Kind of event, one per Connect4Listener method. BATCH is a playNextMoves
+   * event and SNAPSHOT a gameSnapshot event, both carrying the GameSnapshot.
+   */
+  public enum Type {
+    STARTED, STOPPED, MOVED, WON, DRAW, RETRACTED, BATCH, SNAPSHOT
+  }
+
+  private final long sequence;
+  private final Type type;
+  private final int row;
+  private final int col;
+  private final GameEnums.PlayerType player;
+  private final GameEnums.PlayerType formerWinner;
+  private final GameEnums.GameType gameType;
+  private final GameSnapshot snapshot;
+  private final int firstMove;
+
+  /**
+   * Constructor of the GameEvent.
+   *
+   * @param sequence Number of the event
+   * @param type Kind of event
+   * @param row Row Location of a move or -1
+   * @param col Column Location of a move or -1
+   * @param player Player to move for STARTED, player who moved for MOVED
+   *          and WON, else GameEnums.PlayerType.NONE
+   * @param gameType Type of the game for STARTED, else null
+   * @throws NullPointerException if type or player is Null
+   */
+  public GameEvent(long sequence, Type type, int row, int col,
+      GameEnums.PlayerType player, GameEnums.GameType gameType) {
+    if (type == null || player == null) {
+      throw new NullPointerException("Type and player cannot be Null");
+    }
+    this.sequence = sequence;
+    this.type = type;
+    this.row = row;
+    this.col = col;
+    this.player = player;
+    formerWinner = GameEnums.PlayerType.NONE;
+    this.gameType = gameType;
+    snapshot = null;
+    firstMove = -1;
+  }
+
+  /**
+   * Constructor of a RETRACTED GameEvent.
+   *
+   * @param sequence Number of the event
+   * @param row Row Location of the move
+   * @param col Column Location of the move
+   * @param player Player who had played the move
+   * @param formerWinner player if the move had won the game, else
+   *          GameEnums.PlayerType.NONE
+   * @throws NullPointerException if player or formerWinner is Null
+   */
+  public GameEvent(long sequence, int row, int col,
+      GameEnums.PlayerType player, GameEnums.PlayerType formerWinner) {
+    if (player == null || formerWinner == null) {
+      throw new NullPointerException("Players cannot be Null");
+    }
+    this.sequence = sequence;
+    type = Type.RETRACTED;
+    this.row = row;
+    this.col = col;
+    this.player = player;
+    this.formerWinner = formerWinner;
+    gameType = null;
+    snapshot = null;
+    firstMove = -1;
+  }
+
+  /**
+   * Constructor of a BATCH or SNAPSHOT GameEvent. The snapshot is immutable
+   * and shared, not copied.
+   *
+   * @param sequence Number of the event
+   * @param type BATCH or SNAPSHOT
+   * @param snapshot State of the game after the moves
+   * @param firstMove Index in the snapshot of the first move of a BATCH, 0
+   *          for a SNAPSHOT
+   * @throws NullPointerException if snapshot is Null
+   * @throws IllegalArgumentException if type is neither BATCH nor SNAPSHOT
+   */
+  public GameEvent(long sequence, Type type, GameSnapshot snapshot,
+      int firstMove) {
+    if (snapshot == null) {
+      throw new NullPointerException("Snapshot cannot be Null");
+    }
+    if (type != Type.BATCH && type != Type.SNAPSHOT) {
+      throw new IllegalArgumentException("Type must be BATCH or SNAPSHOT");
+    }
+    this.sequence = sequence;
+    this.type = type;
+    row = -1;
+    col = -1;
+    player = GameEnums.PlayerType.NONE;
+    formerWinner = GameEnums.PlayerType.NONE;
+    gameType = snapshot.getGameType();
+    this.snapshot = snapshot;
+    this.firstMove = firstMove;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public int getRow() {
+    return row;
+  }
+
+  public int getCol() {
+    return col;
+  }
+
+  public GameEnums.PlayerType getPlayer() {
+    return player;
+  }
+
+  /**
+   * @return Player who had won with the move of a RETRACTED, else
+   *         GameEnums.PlayerType.NONE
+   */
+  public GameEnums.PlayerType getFormerWinner() {
+    return formerWinner;
+  }
+
+  public GameEnums.GameType getGameType() {
+    return gameType;
+  }
+
+  /**
+   * @return State of the game after the moves of a BATCH or SNAPSHOT, else
+   *         null
+   */
+  public GameSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * @return Index in the snapshot of the first move of a BATCH, 0 for a
+   *         SNAPSHOT, else -1
+   */
+  public int getFirstMove() {
+    return firstMove;
+  }
+
+  /**
+   * @return String in format of "#3 MOVED PLAYER2 at 5,3", or of "#4 BATCH
+   *         moves 2 to 6" for a BATCH or SNAPSHOT
+   */
+  public String toString() {
+    if (snapshot != null) {
+      return "#" + sequence + " " + type + " moves " + firstMove + " to "
+          + snapshot.getMoveCount();
+    }
+    return "#" + sequence + " " + type + " " + player + " at " + row + ","
+        + col;
+  }
+}
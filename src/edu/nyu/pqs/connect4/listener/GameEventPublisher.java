@@ -0,0 +1,179 @@
+package edu.nyu.pqs.connect4.listener;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+import edu.nyu.pqs.connect4.model.GameSnapshot;
+
+/**
+ * Publishes the events of the models it joins as a Flow.Publisher. The
+ * publisher is itself the only listener the model calls, and it only copies
+ * the event into a GameEvent and queues it, so a slow subscriber no longer
+ * slows down playMove. Every subscriber gets its own bounded buffer drained on
+ * the executor, in the order the model fired the events and only as far as
+ * the subscriber requested. A batch of moves and the snapshot of a game
+ * joined in progress are published as one event carrying the GameSnapshot,
+ * not as one event per move.
+ *
+ * When a subscriber's buffer is full the publisher either waits for room,
+ * which bounds memory but lets that subscriber slow the model down again, or
+ * drops the event for that subscriber and counts it. Dropped events show as
+ * gaps in the sequence numbers.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class GameEventPublisher implements Flow.Publisher<GameEvent>,
+    Connect4Listener, AutoCloseable {
+  private final SubmissionPublisher<GameEvent> publisher;
+  private final boolean dropWhenFull;
+  private final LongAdder dropped;
+  private final BiPredicate<Flow.Subscriber<? super GameEvent>, GameEvent>
+      dropHandler;
+  private long sequence;
+
+  /**
+   * Constructor of the GameEventPublisher.
+   *
+   * @param executor Executor delivering the events to the subscribers
+   * @param bufferCapacity Maximum number of undelivered events per subscriber,
+   *          rounded up to a power of two
+   * @param dropWhenFull true to drop events for a subscriber whose buffer is
+   *          full, false to wait until it has room
+   * @throws NullPointerException if executor is Null
+   * @throws IllegalArgumentException if bufferCapacity is not positive
+   */
+  public GameEventPublisher(Executor executor, int bufferCapacity,
+      boolean dropWhenFull) {
+    if (executor == null) {
+      throw new NullPointerException("Executor cannot be Null");
+    }
+    if (bufferCapacity <= 0) {
+      throw new IllegalArgumentException("Buffer capacity must be positive");
+    }
+    publisher = new SubmissionPublisher<GameEvent>(executor, bufferCapacity);
+    this.dropWhenFull = dropWhenFull;
+    dropped = new LongAdder();
+    dropHandler =
+        new BiPredicate<Flow.Subscriber<? super GameEvent>, GameEvent>() {
+          @Override
+          public boolean test(Flow.Subscriber<? super GameEvent> subscriber,
+              GameEvent event) {
+            dropped.increment();
+            return false;
+          }
+        };
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+    publisher.subscribe(subscriber);
+  }
+
+  /**
+   * Completes every subscriber after the events already published.
+   */
+  @Override
+  public void close() {
+    publisher.close();
+  }
+
+  /**
+   * @return Number of events dropped over all subscribers
+   */
+  public long getDroppedEvents() {
+    return dropped.sum();
+  }
+
+  /**
+   * @return Number of subscribers
+   */
+  public int getNumberOfSubscribers() {
+    return publisher.getNumberOfSubscribers();
+  }
+
+  @Override
+  public void gameStarted(GameEnums.PlayerType turn,
+      GameEnums.GameType gameType, Connect4Model model) {
+    publish(GameEvent.Type.STARTED, -1, -1, turn, gameType);
+  }
+
+  @Override
+  public void gameStopped(Connect4Model model) {
+    publish(GameEvent.Type.STOPPED, -1, -1, GameEnums.PlayerType.NONE, null);
+  }
+
+  @Override
+  public void playNextMove(int row, int col, GameEnums.PlayerType owner,
+      Connect4Model model) {
+    publish(GameEvent.Type.MOVED, row, col, owner, null);
+  }
+
+  @Override
+  public void playNextMoves(GameSnapshot snapshot, int firstMove,
+      Connect4Model model) {
+    publish(GameEvent.Type.BATCH, snapshot, firstMove);
+  }
+
+  @Override
+  public void gameSnapshot(GameSnapshot snapshot, Connect4Model model) {
+    publish(GameEvent.Type.SNAPSHOT, snapshot, 0);
+  }
+
+  @Override
+  public void moveRetracted(int row, int col, GameEnums.PlayerType owner,
+      GameEnums.PlayerType formerWinner, Connect4Model model) {
+    publish(row, col, owner, formerWinner);
+  }
+
+  @Override
+  public void gameWon(int row, int col, GameEnums.PlayerType owner,
+      Connect4Model model) {
+    publish(GameEvent.Type.WON, row, col, owner, null);
+  }
+
+  @Override
+  public void gameDraw(Connect4Model model) {
+    publish(GameEvent.Type.DRAW, -1, -1, GameEnums.PlayerType.NONE, null);
+  }
+
+  /**
+   * Numbers the event and queues it for every subscriber.
+   */
+  private synchronized void publish(GameEvent.Type type, int row, int col,
+      GameEnums.PlayerType player, GameEnums.GameType gameType) {
+    submit(new GameEvent(sequence++, type, row, col, player, gameType));
+  }
+
+  /**
+   * Numbers a RETRACTED event and queues it for every subscriber.
+   */
+  private synchronized void publish(int row, int col,
+      GameEnums.PlayerType owner, GameEnums.PlayerType formerWinner) {
+    submit(new GameEvent(sequence++, row, col, owner, formerWinner));
+  }
+
+  /**
+   * Numbers a BATCH or SNAPSHOT event and queues it for every subscriber.
+   */
+  private synchronized void publish(GameEvent.Type type,
+      GameSnapshot snapshot, int firstMove) {
+    submit(new GameEvent(sequence++, type, snapshot, firstMove));
+  }
+
+  /**
+   * Queues a numbered event for every subscriber, with the lock held so that
+   * events are queued in the order of their numbers.
+   */
+  private void submit(GameEvent event) {
+    if (dropWhenFull) {
+      publisher.offer(event, dropHandler);
+    } else {
+      publisher.submit(event);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package edu.nyu.pqs.connect4.listener;
+
+import java.util.concurrent.Flow;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Subscriber that calls a Connect4Listener for every GameEvent, so existing
+ * views can move off the model thread unchanged, a Swing view for instance
+ * with a publisher whose executor is SwingUtilities.invokeLater. It requests
+ * one event at a time, so events wait in its bounded buffer rather than in
+ * the listener.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class ListenerSubscriber implements Flow.Subscriber<GameEvent> {
+  private final Connect4Listener listener;
+  private final Connect4Model model;
+  private Flow.Subscription subscription;
+  private volatile Throwable failure;
+
+  /**
+   * Constructor of the ListenerSubscriber.
+   *
+   * @param listener The listener to call
+   * @param model The model passed on to the listener
+   * @throws NullPointerException if listener or model is Null
+   */
+  public ListenerSubscriber(Connect4Listener listener, Connect4Model model) {
+    if (listener == null || model == null) {
+      throw new NullPointerException("Listener and model cannot be Null");
+    }
+    this.listener = listener;
+    this.model = model;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    this.subscription = subscription;
+    subscription.request(1);
+  }
+
+  @Override
+  public void onNext(GameEvent event) {
+    switch (event.getType()) {
+    case STARTED:
+      listener.gameStarted(event.getPlayer(), event.getGameType(), model);
+      break;
+    case STOPPED:
+      listener.gameStopped(model);
+      break;
+    case MOVED:
+      listener.playNextMove(event.getRow(), event.getCol(), event.getPlayer(),
+          model);
+      break;
+    case WON:
+      listener.gameWon(event.getRow(), event.getCol(), event.getPlayer(),
+          model);
+      break;
+    case RETRACTED:
+      listener.moveRetracted(event.getRow(), event.getCol(),
+          event.getPlayer(), event.getFormerWinner(), model);
+      break;
+    case DRAW:
+      listener.gameDraw(model);
+      break;
+    case BATCH:
+      listener.playNextMoves(event.getSnapshot(), event.getFirstMove(), model);
+      break;
+    default:
+      listener.gameSnapshot(event.getSnapshot(), model);
+    }
+    subscription.request(1);
+  }
+
+  /**
+   * Called once the listener threw or the publisher failed. The failure is
+   * kept for getFailure() and the subscription cancelled, no more events are
+   * delivered.
+   */
+  @Override
+  public void onError(Throwable throwable) {
+    failure = throwable;
+    cancel();
+  }
+
+  @Override
+  public void onComplete() {
+  }
+
+  /**
+   * @return What stopped the events, usually thrown by the listener, or null
+   *         if they were not stopped by a failure
+   */
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  /**
+   * Stops receiving events.
+   */
+  public void cancel() {
+    if (subscription != null) {
+      subscription.cancel();
+    }
+  }
+}
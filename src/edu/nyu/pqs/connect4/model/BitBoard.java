@@ -0,0 +1,399 @@
+package edu.nyu.pqs.connect4.model;
+
+/**
+ * Bitboard representation of a Connect4 position. Every column uses
+ * rowSize + 1 bits (the extra bit is an always empty sentinel row) so that a
+ * board fits in one long as long as colSize * (rowSize + 1) <= 64. The
+ * position is kept as the stones of the player to move plus a mask of all the
+ * occupied cells, which also encodes the height of every column. Bit
+ * col * (rowSize + 1) + height is the cell at the given height (counted from
+ * the bottom) of the column.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class BitBoard {
+  private final int ROWSIZE;
+  private final int COLUMNSIZE;
+  private final int WINNINGSIZE;
+  private final int COLUMNHEIGHT;
+  private final long BOTTOMMASK;
+  private final long BOARDMASK;
+  private long current;
+  private long mask;
+  private int moves;
+
+  /**
+   * Constructor of the BitBoard. Creates an empty board.
+   *
+   * @param rowSize Number of Rows in the board.
+   * @param colSize Number of Columns in the board.
+   * @param winSize Winning Size of the board.
+   * @throws IllegalArgumentException if the board does not fit in a long
+   */
+  public BitBoard(int rowSize, int colSize, int winSize) {
+    if (!fits(rowSize, colSize) || winSize <= 0) {
+      throw new IllegalArgumentException("Invalid BitBoard size");
+    }
+    ROWSIZE = rowSize;
+    COLUMNSIZE = colSize;
+    WINNINGSIZE = winSize;
+    COLUMNHEIGHT = rowSize + 1;
+    long bottom = 0L;
+    for (int col = 0; col < colSize; col++) {
+      bottom |= 1L << (col * COLUMNHEIGHT);
+    }
+    BOTTOMMASK = bottom;
+    BOARDMASK = bottom * ((1L << rowSize) - 1);
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The board to copy
+   */
+  public BitBoard(BitBoard other) {
+    ROWSIZE = other.ROWSIZE;
+    COLUMNSIZE = other.COLUMNSIZE;
+    WINNINGSIZE = other.WINNINGSIZE;
+    COLUMNHEIGHT = other.COLUMNHEIGHT;
+    BOTTOMMASK = other.BOTTOMMASK;
+    BOARDMASK = other.BOARDMASK;
+    current = other.current;
+    mask = other.mask;
+    moves = other.moves;
+  }
+
+  /**
+   * Sets the position from its key.
+   *
+   * @param key A key returned by key() on a board of the same size
+   */
+  public void setKey(long key) {
+    long columnBits = (1L << COLUMNHEIGHT) - 1;
+    current = 0L;
+    mask = 0L;
+    for (int col = 0; col < COLUMNSIZE; col++) {
+      long column = (key >>> (col * COLUMNHEIGHT)) & columnBits;
+      int height = 63 - Long.numberOfLeadingZeros(column + 1);
+      long columnMask = (1L << height) - 1;
+      current |= (column - columnMask) << (col * COLUMNHEIGHT);
+      mask |= columnMask << (col * COLUMNHEIGHT);
+    }
+    moves = Long.bitCount(mask);
+  }
+
+  /**
+   * @param rowSize Number of Rows
+   * @param colSize Number of Columns
+   * @return true if a board of this size can be stored in a BitBoard
+   */
+  public static boolean fits(int rowSize, int colSize) {
+    return rowSize > 0 && colSize > 0 && colSize * (rowSize + 1) <= 64;
+  }
+
+  /**
+   * Checks for winSize aligned stones in any direction.
+   *
+   * @param stones Stones of one player
+   * @param columnHeight Bits used per column (rowSize + 1)
+   * @param winSize Winning Size
+   * @return true if stones contains an alignment of winSize stones
+   */
+  public static boolean hasAlignment(long stones, int columnHeight,
+      int winSize) {
+    return hasAlignmentAlong(stones, 1, winSize)
+        || hasAlignmentAlong(stones, columnHeight, winSize)
+        || hasAlignmentAlong(stones, columnHeight - 1, winSize)
+        || hasAlignmentAlong(stones, columnHeight + 1, winSize);
+  }
+
+  /**
+   * Checks for winSize aligned stones along one direction by repeatedly
+   * folding the runs with shifts. An alignment spanning 64 bits or more
+   * cannot fit in the board, and shifts of 64 or more would wrap around.
+   *
+   * @param stones Stones of one player
+   * @param shift Distance in bits between two neighbours in this direction
+   * @param winSize Winning Size
+   * @return true if stones contains an alignment of winSize stones
+   */
+  private static boolean hasAlignmentAlong(long stones, int shift,
+      int winSize) {
+    if ((long) (winSize - 1) * shift >= Long.SIZE) {
+      return false;
+    }
+    long runs = stones;
+    int length = 1;
+    while (length * 2 <= winSize) {
+      runs &= runs >>> (length * shift);
+      length *= 2;
+    }
+    if (length < winSize) {
+      runs &= runs >>> ((winSize - length) * shift);
+    }
+    return runs != 0;
+  }
+
+  /**
+   * Empties the board.
+   */
+  public void reset() {
+    current = 0L;
+    mask = 0L;
+    moves = 0;
+  }
+
+  /**
+   * @param col Column Location
+   * @return true if the column is in bounds and not full
+   */
+  public boolean canPlay(int col) {
+    return col >= 0 && col < COLUMNSIZE && (mask & topMask(col)) == 0;
+  }
+
+  /**
+   * Drops a stone of the player to move in the column. The column must be
+   * playable.
+   *
+   * @param col Column Location
+   */
+  public void play(int col) {
+    current ^= mask;
+    mask |= mask + bottomMask(col);
+    moves++;
+  }
+
+  /**
+   * Takes back the last move. The column must be the one of the last move.
+   *
+   * @param col Column Location of the last move
+   */
+  public void undo(int col) {
+    mask ^= Long.highestOneBit(mask & columnMask(col));
+    current ^= mask;
+    moves--;
+  }
+
+  /**
+   * Plays a sequence of 1 based column digits such as "4453".
+   *
+   * @param sequence The moves to play
+   * @return number of moves played before an invalid, full or winning move
+   *         stopped the sequence
+   */
+  public int play(CharSequence sequence) {
+    for (int i = 0; i < sequence.length(); i++) {
+      int col = sequence.charAt(i) - '1';
+      if (!canPlay(col) || isWinningMove(col)) {
+        return i;
+      }
+      play(col);
+    }
+    return sequence.length();
+  }
+
+  /**
+   * @param col Column Location
+   * @return true if the player to move wins by playing in the column. The
+   *         column must be playable.
+   */
+  public boolean isWinningMove(int col) {
+    long stones = current | ((mask + bottomMask(col)) & columnMask(col));
+    return hasAlignment(stones, COLUMNHEIGHT, WINNINGSIZE);
+  }
+
+  /**
+   * @param mask Occupied cells
+   * @return Cells where a stone can be dropped
+   */
+  public long possibleMoves(long mask) {
+    return (mask + BOTTOMMASK) & BOARDMASK;
+  }
+
+  /**
+   * Computes the empty cells that would complete an alignment of WINNINGSIZE
+   * stones. For every direction each cell of a window is tried as the missing
+   * one.
+   *
+   * @param stones Stones of one player
+   * @param mask Occupied cells
+   * @return Empty cells where the player would win
+   */
+  public long winningCells(long stones, long mask) {
+    long cells = 0L;
+    int[] shifts = { 1, COLUMNHEIGHT, COLUMNHEIGHT - 1, COLUMNHEIGHT + 1 };
+    for (int shift : shifts) {
+      for (int gap = 0; gap < WINNINGSIZE; gap++) {
+        long window = -1L;
+        for (int i = 0; i < WINNINGSIZE && window != 0; i++) {
+          int distance = (i - gap) * shift;
+          if (distance > 0) {
+            window &= stones >>> distance;
+          } else if (distance < 0) {
+            window &= stones << -distance;
+          }
+        }
+        cells |= window;
+      }
+    }
+    return cells & (BOARDMASK ^ mask);
+  }
+
+  /**
+   * Computes the moves of the player to move that do not let the opponent win
+   * on the next move. If the opponent threatens to win in two places there is
+   * no such move.
+   *
+   * @param current Stones of the player to move
+   * @param mask Occupied cells
+   * @return Cells of the non losing moves
+   */
+  public long nonLosingMoves(long current, long mask) {
+    long possible = possibleMoves(mask);
+    long opponentWin = winningCells(current ^ mask, mask);
+    long forced = possible & opponentWin;
+    if (forced != 0) {
+      if ((forced & (forced - 1)) != 0) {
+        return 0L;
+      }
+      possible = forced;
+    }
+    return possible & ~(opponentWin >>> 1);
+  }
+
+  /**
+   * @param current Stones of the player to move
+   * @param mask Occupied cells
+   * @return true if the player to move can win with the next move
+   */
+  public boolean canWinNext(long current, long mask) {
+    return (winningCells(current, mask) & possibleMoves(mask)) != 0;
+  }
+
+  /**
+   * @return true if the player who made the last move has an alignment
+   */
+  public boolean lastMoverWon() {
+    return hasAlignment(current ^ mask, COLUMNHEIGHT, WINNINGSIZE);
+  }
+
+  /**
+   * @return true if no more moves can be played
+   */
+  public boolean isFull() {
+    return mask == BOARDMASK;
+  }
+
+  /**
+   * @return A key that identifies the position uniquely
+   */
+  public long key() {
+    return current + mask;
+  }
+
+  /**
+   * Mirrors bits left to right by swapping whole columns, sentinel included.
+   * Works on stones, masks and keys since the key never carries from one
+   * column into the next.
+   *
+   * @param bits Bits of the board
+   * @return Bits of the mirrored board
+   */
+  public long mirror(long bits) {
+    long columnBits = (1L << COLUMNHEIGHT) - 1;
+    long mirrored = 0L;
+    for (int col = 0; col < COLUMNSIZE; col++) {
+      long column = (bits >>> (col * COLUMNHEIGHT)) & columnBits;
+      mirrored |= column << ((COLUMNSIZE - 1 - col) * COLUMNHEIGHT);
+    }
+    return mirrored;
+  }
+
+  /**
+   * @param col Column Location
+   * @return Bit of the bottom cell of the column
+   */
+  public long bottomMask(int col) {
+    return 1L << (col * COLUMNHEIGHT);
+  }
+
+  /**
+   * @param col Column Location
+   * @return Bit of the top cell of the column
+   */
+  public long topMask(int col) {
+    return 1L << (ROWSIZE - 1 + col * COLUMNHEIGHT);
+  }
+
+  /**
+   * @param col Column Location
+   * @return Bits of all the cells of the column
+   */
+  public long columnMask(int col) {
+    return ((1L << ROWSIZE) - 1) << (col * COLUMNHEIGHT);
+  }
+
+  /**
+   * @return Stones of the player to move
+   */
+  public long getCurrent() {
+    return current;
+  }
+
+  /**
+   * @return All occupied cells
+   */
+  public long getMask() {
+    return mask;
+  }
+
+  /**
+   * @return Mask of all the playable cells of the board
+   */
+  public long getBoardMask() {
+    return BOARDMASK;
+  }
+
+  /**
+   * @return Mask of the bottom cell of every column
+   */
+  public long getBottomMask() {
+    return BOTTOMMASK;
+  }
+
+  /**
+   * @return Number of cells of the board
+   */
+  public int getCells() {
+    return ROWSIZE * COLUMNSIZE;
+  }
+
+  public int getMoves() {
+    return moves;
+  }
+
+  public int getROWSIZE() {
+    return ROWSIZE;
+  }
+
+  public int getCOLUMNSIZE() {
+    return COLUMNSIZE;
+  }
+
+  public int getWINNINGSIZE() {
+    return WINNINGSIZE;
+  }
+
+  public int getCOLUMNHEIGHT() {
+    return COLUMNHEIGHT;
+  }
+
+  /**
+   * @return String in format of "BitBoard 6X7/4 after 3 moves"
+   */
+  public String toString() {
+    return "BitBoard " + ROWSIZE + "X" + COLUMNSIZE + "/" + WINNINGSIZE
+        + " after " + moves + " moves";
+  }
+}
@@ -0,0 +1,20 @@
+package edu.nyu.pqs.connect4.model;
+
+/**
+ * Strategy the model asks for the computer move in GameType.SINGLEPLAYER
+ * games.
+ *
+ * @author ajaykhanna
+ *
+ */
+public interface ComputerPlayer {
+
+  /**
+   * Chooses the column for the player to move.
+   *
+   * @param model Reference to the model, positioned on the computer's turn
+   * @return Column Location to play or -1 to let the model make its default
+   *         move
+   */
+  public int chooseColumn(Connect4Model model);
+}
@@ -1,6 +1,7 @@
 package edu.nyu.pqs.connect4.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -23,6 +24,20 @@ public class Connect4Model {
   private GameEnums.GameType gameType;
   private boolean computerWon;
   private GameEnums.PlayerType gameGrid[][];
+  private final BitBoard bitBoard;
+  private final WideBitBoard wideBitBoard;
+  private final LineTable lineTable;
+  private final int lineStones[][];
+  private final boolean winningColumns[];
+  private final int columnHeights[];
+  private final int moveJournal[];
+  private int journalSize;
+  private GameEnums.PlayerType winner;
+  private final int legalColumns[];
+  private int legalColumnCount;
+  private final Random random;
+  private ComputerPlayer computerPlayer;
+  private boolean autoComputerMove;
   private List<Connect4Listener> views;
   private GameEnums.PlayerType nextTurn;
 
@@ -44,6 +59,24 @@ public class Connect4Model {
     TOTALGAMEMOVES = GRIDCOLUMNSIZE * GRIDROWSIZE;
     remainingMoves = TOTALGAMEMOVES;
     gameGrid = new GameEnums.PlayerType[GRIDROWSIZE][GRIDCOLUMNSIZE];
+    if (BitBoard.fits(GRIDROWSIZE, GRIDCOLUMNSIZE)) {
+      bitBoard = new BitBoard(GRIDROWSIZE, GRIDCOLUMNSIZE, WINNINGSIZE);
+      wideBitBoard = null;
+      lineTable = null;
+      lineStones = null;
+    } else {
+      bitBoard = null;
+      wideBitBoard =
+          new WideBitBoard(GRIDROWSIZE, GRIDCOLUMNSIZE, WINNINGSIZE);
+      lineTable = new LineTable(GRIDROWSIZE, GRIDCOLUMNSIZE, WINNINGSIZE);
+      lineStones = new int[2][lineTable.getLines()];
+    }
+    columnHeights = new int[GRIDCOLUMNSIZE];
+    moveJournal = new int[TOTALGAMEMOVES];
+    legalColumns = new int[GRIDCOLUMNSIZE];
+    winningColumns = new boolean[GRIDCOLUMNSIZE];
+    random = new Random();
+    autoComputerMove = Boolean.TRUE;
     views = new ArrayList<Connect4Listener>();
     isGameStarted = new AtomicBoolean(Boolean.FALSE);
     setGameToInitialState();
@@ -79,8 +112,8 @@ public class Connect4Model {
 
   /**
    * Adds the listener to views and if game is already in start state then it
-   * fires the game start and player moved events for the listener to update it
-   * to current state
+   * fires the game start and game snapshot events for the listener to update
+   * it to current state
    * 
    * @param listener The listener who joined the game
    * @return true if listener joins the game and was not present in the list
@@ -96,7 +129,7 @@ public class Connect4Model {
     views.add(listener);
     if (isGameStarted.get()) {
       fireGameStartedEvent(listener, gameType);
-      playAllPreviousMoves(listener);
+      listener.gameSnapshot(getSnapshot(), this);
     }
     return true;
   }
@@ -134,43 +167,260 @@ public class Connect4Model {
    * @throws IllegalArgumentException if row/col is out of bounds
    */
   public boolean playMove(int row, int col) {
+    return playMove(row, col, true);
+  }
+
+  /**
+   * Plays the move, see playMove(int, int).
+   * 
+   * @param row Row Location of the move
+   * @param col Column Location of the move
+   * @param computerReplies false to leave the computer's reply out even when
+   *          computer moves are automatic
+   * @return true if the move is valid
+   */
+  private boolean playMove(int row, int col, boolean computerReplies) {
     if (!isGameStarted.get()) {
       return false;
     }
     if (isLegalMove(row, col)) {
-      int tempRow = GRIDROWSIZE;
-      while (--tempRow >= 0) {
-        if (isLegalMove(tempRow, col)) {
-          gameGrid[tempRow][col] = nextTurn;
-          remainingMoves--;
-          firePlayerMovedEvent(tempRow, col);
-          GameState currGameState = checkGameState(tempRow, col);
-          if (computerWon || currGameState == GameState.WON) {
-            fireGameWonEvent(tempRow, col);
-          } else if (currGameState == GameState.DRAW) {
-            fireGameDrawEvent();
-          }
-          setNextPlayer();
-          return true;
-        }
+      int tempRow = getLandingRow(col);
+      gameGrid[tempRow][col] = nextTurn;
+      if (bitBoard != null) {
+        bitBoard.play(col);
+      } else {
+        wideBitBoard.play(col);
+        countLines(col, columnHeights[col], nextTurn, 1);
       }
+      if (++columnHeights[col] == GRIDROWSIZE) {
+        removeLegalColumn(col);
+      }
+      moveJournal[TOTALGAMEMOVES - remainingMoves] = col;
+      remainingMoves--;
+      journalSize = TOTALGAMEMOVES - remainingMoves;
+      firePlayerMovedEvent(tempRow, col);
+      GameState currGameState = checkGameState(tempRow, col);
+      if (computerWon || currGameState == GameState.WON) {
+        fireGameWonEvent(tempRow, col);
+      } else if (currGameState == GameState.DRAW) {
+        fireGameDrawEvent();
+      }
+      setNextPlayer(computerReplies);
+      return true;
     }
     return false;
   }
 
   /**
-   * Helps joinGame to update view.
+   * Plays a sequence of moves as one operation. The whole sequence is checked
+   * first, on a copy of the bitboard, and nothing is played unless every
+   * move is legal and only the last one may end the game. Then the moves are
+   * played without any per move event, listeners get one playNextMoves event
+   * followed by gameWon/gameDraw if the last move ended the game.
    * 
-   * @param listener The listener who joined the game
-   */
-  private void playAllPreviousMoves(Connect4Listener listener) {
-    for (int i = 0; i < GRIDROWSIZE; i++) {
-      for (int j = 0; j < GRIDCOLUMNSIZE; j++) {
-        if (!isLegalMove(i, j)) {
-          listener.playNextMove(i, j, gameGrid[i][j], this);
+   * @param cols Column Locations of the moves in the order they are played
+   * @return true if all the moves were played, false if the game is not
+   *         started, a column gets full or the game ends before the last move
+   * @throws NullPointerException if cols is Null
+   * @throws IllegalArgumentException if a column is out of bounds
+   */
+  public boolean playMoves(int[] cols) {
+    if (cols == null) {
+      throw new NullPointerException("Moves cannot be Null");
+    }
+    for (int col : cols) {
+      if (col < 0 || col >= GRIDCOLUMNSIZE) {
+        throw new IllegalArgumentException("Invalid Grid Location");
+      }
+    }
+    if (!isGameStarted.get() || cols.length > remainingMoves) {
+      return false;
+    }
+    if (cols.length == 0) {
+      return true;
+    }
+    boolean won;
+    if (bitBoard != null) {
+      BitBoard scratch = new BitBoard(bitBoard);
+      for (int i = 0; i < cols.length; i++) {
+        if (!scratch.canPlay(cols[i])) {
+          return false;
+        }
+        scratch.play(cols[i]);
+        if (i < cols.length - 1 && scratch.lastMoverWon()) {
+          return false;
+        }
+      }
+      won = scratch.lastMoverWon();
+    } else {
+      WideBitBoard scratch = new WideBitBoard(wideBitBoard);
+      for (int i = 0; i < cols.length; i++) {
+        if (!scratch.canPlay(cols[i])) {
+          return false;
         }
+        scratch.play(cols[i]);
+        if (i < cols.length - 1 && scratch.lastMoverWon()) {
+          return false;
+        }
+      }
+      won = scratch.lastMoverWon();
+    }
+    int firstMove = TOTALGAMEMOVES - remainingMoves;
+    GameEnums.PlayerType mover = nextTurn;
+    int row = 0;
+    for (int col : cols) {
+      row = getLandingRow(col);
+      gameGrid[row][col] = mover;
+      if (bitBoard != null) {
+        bitBoard.play(col);
+      } else {
+        wideBitBoard.play(col);
+        countLines(col, columnHeights[col], mover, 1);
       }
+      if (++columnHeights[col] == GRIDROWSIZE) {
+        removeLegalColumn(col);
+      }
+      moveJournal[TOTALGAMEMOVES - remainingMoves] = col;
+      remainingMoves--;
+      mover = opponent(mover);
+    }
+    journalSize = TOTALGAMEMOVES - remainingMoves;
+    nextTurn = opponent(mover);
+    GameSnapshot snapshot = new GameSnapshot(GRIDROWSIZE, GRIDCOLUMNSIZE,
+        WINNINGSIZE, gameType, mover, getMoveHistory());
+    for (Connect4Listener c4l : views) {
+      c4l.playNextMoves(snapshot, firstMove, this);
+    }
+    if (won) {
+      fireGameWonEvent(row, cols[cols.length - 1]);
+    } else if (remainingMoves == 0) {
+      fireGameDrawEvent();
+    }
+    setNextPlayer(true);
+    return true;
+  }
+
+  /**
+   * Takes back the last move of the game in play or of the game that just
+   * ended, which is then in play again. Only the moved disc is touched, so it
+   * takes constant time whatever the length of the game, and listeners get a
+   * moveRetracted event. The move can be played again with redoMove() until
+   * another move is played. In a GameType.SINGLEPLAYER game the computer does
+   * not reply to a retraction on its own. Nothing is taken back once every
+   * listener has left the game.
+   * 
+   * @return true if a move was taken back
+   */
+  public boolean undoMove() {
+    int played = getMovesPlayed();
+    if (played == 0 || gameType == null || views.isEmpty()
+        || !(isGameStarted.get() || winner != GameEnums.PlayerType.NONE
+            || remainingMoves == 0)) {
+      return false;
+    }
+    int col = moveJournal[played - 1];
+    int row = getLandingRow(col) + 1;
+    GameEnums.PlayerType owner = gameGrid[row][col];
+    gameGrid[row][col] = GameEnums.PlayerType.NONE;
+    if (bitBoard != null) {
+      bitBoard.undo(col);
+    } else {
+      wideBitBoard.undo(col);
+      countLines(col, columnHeights[col] - 1, owner, -1);
+    }
+    if (columnHeights[col]-- == GRIDROWSIZE) {
+      addLegalColumn(col);
+    }
+    remainingMoves++;
+    GameEnums.PlayerType formerWinner = winner;
+    winner = GameEnums.PlayerType.NONE;
+    computerWon = Boolean.FALSE;
+    nextTurn = owner;
+    isGameStarted.set(Boolean.TRUE);
+    for (Connect4Listener c4l : views) {
+      c4l.moveRetracted(row, col, owner, formerWinner, this);
+    }
+    return true;
+  }
+
+  /**
+   * Plays again the last move taken back by undoMove(), with the usual
+   * events. In a GameType.SINGLEPLAYER game the computer does not reply to it
+   * on its own.
+   * 
+   * @return true if there was a move to play again
+   */
+  public boolean redoMove() {
+    int played = getMovesPlayed();
+    if (!isGameStarted.get() || played >= journalSize) {
+      return false;
+    }
+    int redoSize = journalSize;
+    int col = moveJournal[played];
+    playMove(getLandingRow(col), col, false);
+    journalSize = redoSize;
+    return true;
+  }
+
+  /**
+   * @return Number of moves that redoMove() can play again
+   */
+  public int getRedoableMoves() {
+    return journalSize - getMovesPlayed();
+  }
+
+  /**
+   * Puts a column that is no longer full back in the legal columns keeping
+   * them in ascending order.
+   * 
+   * @param col Column Location
+   */
+  private void addLegalColumn(int col) {
+    int index = legalColumnCount;
+    while (index > 0 && legalColumns[index - 1] > col) {
+      legalColumns[index] = legalColumns[index - 1];
+      index--;
+    }
+    legalColumns[index] = col;
+    legalColumnCount++;
+  }
+
+  /**
+   * @param player PlayerType.PLAYER1 or PlayerType.PLAYER2
+   * @return The other player
+   */
+  private static GameEnums.PlayerType opponent(GameEnums.PlayerType player) {
+    if (player == GameEnums.PlayerType.PLAYER1) {
+      return GameEnums.PlayerType.PLAYER2;
+    }
+    return GameEnums.PlayerType.PLAYER1;
+  }
+
+  /**
+   * Removes a column that just got full from the legal columns keeping the
+   * remaining columns in ascending order.
+   * 
+   * @param col Column Location
+   */
+  private void removeLegalColumn(int col) {
+    int index = 0;
+    while (legalColumns[index] != col) {
+      index++;
+    }
+    System.arraycopy(legalColumns, index + 1, legalColumns, index,
+        legalColumnCount - index - 1);
+    legalColumnCount--;
+  }
+
+  /**
+   * @return State of the current or last game, null if no game was started
+   */
+  public GameSnapshot getSnapshot() {
+    if (gameType == null) {
+      return null;
     }
+    return new GameSnapshot(GRIDROWSIZE, GRIDCOLUMNSIZE, WINNINGSIZE,
+        gameType, nextTurn, getMoveHistory());
   }
 
   /**
@@ -211,6 +461,7 @@ public class Connect4Model {
    */
   private void fireGameWonEvent(int row, int col) {
     isGameStarted.set(Boolean.FALSE);
+    winner = nextTurn;
     for (Connect4Listener c4l : views) {
       c4l.gameWon(row, col, nextTurn, this);
     }
@@ -241,14 +492,22 @@ public class Connect4Model {
     if ((row < 0 || row >= GRIDROWSIZE) || (col < 0 || col >= GRIDCOLUMNSIZE)) {
       throw new IllegalArgumentException("Invalid Grid Location");
     }
-    if (gameGrid[row][col] == GameEnums.PlayerType.NONE) {
-      return true;
-    }
-    return false;
+    return row <= getLandingRow(col);
+  }
+
+  /**
+   * @param col Column Location
+   * @return Row Location where the next disc dropped in col lands, -1 if the
+   *         column is full
+   */
+  private int getLandingRow(int col) {
+    return GRIDROWSIZE - 1 - columnHeights[col];
   }
 
   /**
-   * Checks the current state of the game relevant to row and col.
+   * Checks the current state of the game relevant to row and col. Uses the
+   * bitboard when the grid fits in one, otherwise the counters of the lines
+   * through the move.
    * 
    * @param row Row Location
    * @param col Column Location
@@ -258,346 +517,339 @@ public class Connect4Model {
    *         game is in play means no state change for the game
    */
   private GameState checkGameState(int row, int col) {
-    if (checkHorizontals(row, col, nextTurn) == GameState.WON
-        || checkVerticals(row, col, nextTurn) == GameState.WON
-        || checkDiagonal(row, col, nextTurn) == GameState.WON) {
+    boolean won;
+    if (bitBoard != null) {
+      won = bitBoard.lastMoverWon();
+    } else {
+      won = isLineCompleted(col, columnHeights[col] - 1);
+    }
+    if (won) {
       return GameState.WON;
     }
     return checkDraw(row, col, nextTurn);
   }
 
   /**
-   * Horizontally checks the current state of the game relevant to row and col
+   * Adds or removes a stone of the owner in the counters of the lines through
+   * a cell.
    * 
-   * @param row Row Location
    * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
+   * @param height Height of the cell counted from the bottom
+   * @param owner Owner of the stone
+   * @param sign 1 to add the stone, -1 to remove it
    */
-  private GameState
-      checkHorizontals(int row, int col, GameEnums.PlayerType turn) {
-    return checkHorizontalAsElement(row, col, nextTurn);
+  private void countLines(int col, int height, GameEnums.PlayerType owner,
+      int sign) {
+    int[] counters = lineStones[owner == GameEnums.PlayerType.PLAYER1 ? 0 : 1];
+    int cell = lineTable.getCell(col, height);
+    int end = lineTable.getCellLineEnd(cell);
+    for (int i = lineTable.getCellLineStart(cell); i < end; i++) {
+      counters[lineTable.getCellLine(i)] += sign;
+    }
   }
 
   /**
-   * Checks the current state of the game relevant to row and col for all the
-   * ways of winning horizontally
+   * Checks whether a line through a cell holds WINNINGSIZE stones of the
+   * cell's owner, reading one counter per line instead of walking the cells.
    * 
-   * @param row Row Location
    * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
-   */
-  private GameState checkHorizontalAsElement(int row, int col,
-      GameEnums.PlayerType turn) {
-    GameState gameState = GameState.INPLAY;
-    for (int i = 0; i < WINNINGSIZE; i++) {
-      gameState = checkHorizontal(row, col - i, turn);
-      if (gameState == GameState.WON) {
-        return gameState;
+   * @param height Height of the cell counted from the bottom
+   * @return true if a line through the cell is complete
+   */
+  private boolean isLineCompleted(int col, int height) {
+    GameEnums.PlayerType owner = gameGrid[GRIDROWSIZE - 1 - height][col];
+    int[] counters = lineStones[owner == GameEnums.PlayerType.PLAYER1 ? 0 : 1];
+    int cell = lineTable.getCell(col, height);
+    int end = lineTable.getCellLineEnd(cell);
+    for (int i = lineTable.getCellLineStart(cell); i < end; i++) {
+      if (counters[lineTable.getCellLine(i)] == WINNINGSIZE) {
+        return true;
       }
     }
-    return gameState;
-
+    return false;
   }
 
   /**
-   * Horizontally checks the current state of the game for row and col
+   * Checks the current state of the game for draw
    * 
    * @param row Row Location
    * @param col Column Location
    * @param turn Player turn
-   * @return the current game state after making the move
+   * @return GameState.DRAW when moves played is equal or less than total number
+   *         of moves possible else GameState.INPLAY
    */
-  private GameState
-      checkHorizontal(int row, int col, GameEnums.PlayerType turn) {
-    for (int n = 0, i = col; n < WINNINGSIZE; i++, n++) {
-      if ((i < 0 || i >= GRIDCOLUMNSIZE) || gameGrid[row][i] != turn) {
-        return GameState.INPLAY;
-      }
+  private GameState checkDraw(int row, int col, GameEnums.PlayerType turn) {
+    if (remainingMoves <= 0) {
+      return GameState.DRAW;
     }
-    return GameState.WON;
+    return GameState.INPLAY;
   }
 
   /**
-   * Vertically checks the current state of the game relevant to row and col
+   * Changes the nextTurn for next player If game type is GameType.SINGLEPLAYER
+   * and computer moves are automatic then plays the computer move by calling
+   * playNextComputerMove()
    * 
-   * @param row Row Location
-   * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
+   * @param computerReplies false to leave the computer move out
+   */
+  private void setNextPlayer(boolean computerReplies) {
+    if (nextTurn == GameEnums.PlayerType.PLAYER1) {
+      nextTurn = GameEnums.PlayerType.PLAYER2;
+    } else if (nextTurn == GameEnums.PlayerType.PLAYER2) {
+      nextTurn = GameEnums.PlayerType.PLAYER1;
+    }
+    if (computerReplies && autoComputerMove && isComputerTurn()) {
+      playNextComputerMove();
+    }
+  }
+
+  /**
+   * @return true if a GameType.SINGLEPLAYER game is in play and the computer
+   *         is to move
    */
-  private GameState checkVerticals(int row, int col, GameEnums.PlayerType turn) {
-    return checkVerticalAsElement(row, col, nextTurn);
+  public boolean isComputerTurn() {
+    return isGameStarted.get() && gameType == GameType.SINGLEPLAYER
+        && nextTurn == GameEnums.PlayerType.PLAYER2;
   }
 
   /**
-   * Checks the current state of the game relevant to row and col for all the
-   * ways of winning vertically
+   * Plays the computer move of a GameType.SINGLEPLAYER game. Only needed when
+   * computer moves are not automatic.
    * 
-   * @param row Row Location
-   * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
-   */
-  private GameState checkVerticalAsElement(int row, int col,
-      GameEnums.PlayerType turn) {
-    GameState gameState = GameState.INPLAY;
-    for (int i = 0; i < WINNINGSIZE; i++) {
-      gameState = checkVertical(row - i, col, turn);
-      if (gameState == GameState.WON) {
-        return gameState;
-      }
+   * @return true if it was the computer's turn and it moved
+   */
+  public boolean playComputerMove() {
+    if (!isComputerTurn()) {
+      return false;
     }
-    return gameState;
+    playNextComputerMove();
+    return true;
   }
 
   /**
-   * Vertically checks the current state of the game for row and col
+   * Sets whether the computer moves right after the player's move, from
+   * within playMove, which is the default. When not automatic the caller
+   * plays the computer move with playComputerMove() once playMove has
+   * returned and every listener has seen the player's move.
    * 
-   * @param row Row Location
-   * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
+   * @param autoComputerMove true for automatic computer moves
+   */
+  public void setAutoComputerMove(boolean autoComputerMove) {
+    this.autoComputerMove = autoComputerMove;
+  }
+
+  /**
+   * Chooses a location to move for computer. The computer player is asked
+   * first if one is set. Otherwise if the computer is winning then it makes
+   * that move otherwise it chooses randomly.
    */
-  private GameState checkVertical(int row, int col, GameEnums.PlayerType turn) {
-    for (int n = 0, i = row; n < WINNINGSIZE; i++, n++) {
-      if ((i < 0 || i >= GRIDROWSIZE) || gameGrid[i][col] != turn) {
-        return GameState.INPLAY;
+  private void playNextComputerMove() {
+    if (!isGameStarted.get() || legalColumnCount == 0) {
+      return;
+    }
+    if (computerPlayer != null) {
+      int col = computerPlayer.chooseColumn(this);
+      if (col >= 0 && col < GRIDCOLUMNSIZE && !isColumnFull(col)) {
+        int row = getLandingRow(col);
+        computerWon = isWinningMove(row, col);
+        playMove(row, col);
+        return;
+      }
+    }
+    int row = 0;
+    int col = 0;
+    if (wideBitBoard != null) {
+      wideBitBoard.findWinningMoves(winningColumns);
+    }
+    for (int n = 0; n < legalColumnCount && !computerWon; n++) {
+      int j = legalColumns[n];
+      int i = getLandingRow(j);
+      if (wideBitBoard != null ? winningColumns[j] : isWinningMove(i, j)) {
+        computerWon = Boolean.TRUE;
+        row = i;
+        col = j;
       }
     }
-    return GameState.WON;
+    if (!computerWon) {
+      col = getRandomColumn();
+      row = getLandingRow(col);
+    }
+    playMove(row, col);
   }
 
   /**
-   * Diagonally checks the current state of the game relevant to row and col for
-   * both left and right diagonal
+   * Checks if the player to move wins by playing on row and col. The location
+   * must be the lowest free cell of its column.
    * 
    * @param row Row Location
    * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
+   * @return true if the move wins the game
    */
-  private GameState checkDiagonal(int row, int col, GameEnums.PlayerType turn) {
-    if (checkLeftDiagonal(row, col, nextTurn) == GameState.WON
-        || checkRightDiagonal(row, col, nextTurn) == GameState.WON) {
-      return GameState.WON;
+  private boolean isWinningMove(int row, int col) {
+    if (bitBoard != null) {
+      return bitBoard.isWinningMove(col);
     }
-    return GameState.INPLAY;
+    return wideBitBoard.isWinningMove(col);
   }
 
   /**
-   * Right diagonally checks the current state of the game relevant to row and
-   * col
-   * 
-   * @param row Row Location
-   * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
+   * @return random legal column location for computer move
    */
-  private GameState checkRightDiagonal(int row, int col,
-      GameEnums.PlayerType turn) {
-    return checkRightDiagnolAsElement(row, col, nextTurn);
+  private int getRandomColumn() {
+    return legalColumns[random.nextInt(legalColumnCount)];
   }
 
   /**
-   * Checks the current state of the game relevant to row and col for all the
-   * ways of winning right diagonally
-   * 
-   * @param row Row Location
-   * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
-   */
-  private GameState checkRightDiagnolAsElement(int row, int col,
-      GameEnums.PlayerType turn) {
-    GameState gameState = GameState.INPLAY;
-    for (int i = 0; i < WINNINGSIZE; i++) {
-      gameState = checkRightDiagnol(row - i, col - i, turn);
-      if (gameState == GameState.WON) {
-        return gameState;
+   * Clears the game grid
+   */
+  private void clearGameGrid() {
+    for (int i = 0; i < GRIDROWSIZE; i++) {
+      for (int j = 0; j < GRIDCOLUMNSIZE; j++) {
+        gameGrid[i][j] = GameEnums.PlayerType.NONE;
       }
     }
-    return gameState;
   }
 
   /**
-   * Right diagonally checks the current state of the game for row and col
-   * 
-   * @param row Row Location
-   * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
-   */
-  private GameState checkRightDiagnol(int row, int col,
-      GameEnums.PlayerType turn) {
-    for (int n = 0, i = row, j = col; n < WINNINGSIZE; i++, j++, n++) {
-      if (((i < 0 || i >= GRIDROWSIZE) || (j < 0 || j >= GRIDCOLUMNSIZE))
-          || gameGrid[i][j] != turn) {
-        return GameState.INPLAY;
-      }
+   * Sets the game to initial state
+   */
+  private void setGameToInitialState() {
+    clearGameGrid();
+    if (bitBoard != null) {
+      bitBoard.reset();
+    } else {
+      wideBitBoard.reset();
+      Arrays.fill(lineStones[0], 0);
+      Arrays.fill(lineStones[1], 0);
+    }
+    nextTurn = GameEnums.PlayerType.PLAYER1;
+    computerWon = Boolean.FALSE;
+    winner = GameEnums.PlayerType.NONE;
+    remainingMoves = TOTALGAMEMOVES;
+    journalSize = 0;
+    for (int col = 0; col < GRIDCOLUMNSIZE; col++) {
+      columnHeights[col] = 0;
+      legalColumns[col] = col;
     }
-    return GameState.WON;
+    legalColumnCount = GRIDCOLUMNSIZE;
+  }
+
+  public int getGRIDROWSIZE() {
+    return GRIDROWSIZE;
+  }
+
+  public int getGRIDCOLUMNSIZE() {
+    return GRIDCOLUMNSIZE;
   }
 
   /**
-   * Left diagonally checks the current state of the game relevant to row and
-   * col
-   * 
-   * @param row Row Location
    * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
+   * @return Number of discs in the column
+   * @throws IllegalArgumentException if col is out of bounds
    */
-  private GameState checkLeftDiagonal(int row, int col,
-      GameEnums.PlayerType turn) {
-    return checkLeftDiagnolAsElement(row, col, nextTurn);
+  public int getColumnHeight(int col) {
+    if (col < 0 || col >= GRIDCOLUMNSIZE) {
+      throw new IllegalArgumentException("Invalid Grid Location");
+    }
+    return columnHeights[col];
   }
 
   /**
-   * Checks the current state of the game relevant to row and col for all the
-   * ways of winning left diagonally
-   * 
-   * @param row Row Location
    * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
-   */
-  private GameState checkLeftDiagnolAsElement(int row, int col,
-      GameEnums.PlayerType turn) {
-    GameState gameState = GameState.INPLAY;
-    for (int i = 0; i < WINNINGSIZE; i++) {
-      gameState = checkLeftDiagnol(row - i, col + i, turn);
-      if (gameState == GameState.WON) {
-        return gameState;
-      }
-    }
-    return gameState;
+   * @return true if no more discs can be dropped in the column
+   * @throws IllegalArgumentException if col is out of bounds
+   */
+  public boolean isColumnFull(int col) {
+    return getColumnHeight(col) == GRIDROWSIZE;
   }
 
   /**
-   * Left diagonally checks the current state of the game for row and col
-   * 
-   * @param row Row Location
-   * @param col Column Location
-   * @param turn Player turn
-   * @return the current game state after making the move
-   */
-  private GameState
-      checkLeftDiagnol(int row, int col, GameEnums.PlayerType turn) {
-    for (int n = 0, i = row, j = col; n < WINNINGSIZE; i++, j--, n++) {
-      if (((i < 0 || i >= GRIDROWSIZE) || (j < 0 || j >= GRIDCOLUMNSIZE))
-          || gameGrid[i][j] != turn) {
-        return GameState.INPLAY;
-      }
-    }
-    return GameState.WON;
+   * @return Columns that are not full in ascending order
+   */
+  public int[] getLegalColumns() {
+    return Arrays.copyOf(legalColumns, legalColumnCount);
   }
 
   /**
-   * Checks the current state of the game for draw
-   * 
-   * @param row Row Location
-   * @param col Column Location
-   * @param turn Player turn
-   * @return GameState.DRAW when moves played is equal or less than total number
-   *         of moves possible else GameState.INPLAY
+   * @return Copy of the bitboard of the current position or null if the grid
+   *         does not fit in a BitBoard
    */
-  private GameState checkDraw(int row, int col, GameEnums.PlayerType turn) {
-    if (remainingMoves <= 0) {
-      return GameState.DRAW;
+  public BitBoard getBitBoard() {
+    if (bitBoard == null) {
+      return null;
     }
-    return GameState.INPLAY;
+    return new BitBoard(bitBoard);
   }
 
   /**
-   * Changes the nextTurn for next player If game type is GameType.SINGLEPLAYER
-   * then plays the computer move by calling playComputerMove()
+   * @return The current position in a new GridBoard, built by replaying the
+   *         moves played, available for any grid size
    */
-  private void setNextPlayer() {
-    if (nextTurn == GameEnums.PlayerType.PLAYER1) {
-      nextTurn = GameEnums.PlayerType.PLAYER2;
-    } else if (nextTurn == GameEnums.PlayerType.PLAYER2) {
-      nextTurn = GameEnums.PlayerType.PLAYER1;
-    }
-    if (gameType == GameType.SINGLEPLAYER
-        && nextTurn == GameEnums.PlayerType.PLAYER2) {
-      playNextComputerMove();
+  public GridBoard getGridBoard() {
+    GridBoard position =
+        new GridBoard(GRIDROWSIZE, GRIDCOLUMNSIZE, WINNINGSIZE);
+    for (int i = 0, moves = getMovesPlayed(); i < moves; i++) {
+      position.play(moveJournal[i]);
     }
+    return position;
   }
 
   /**
-   * Chooses a location to move for computer so that if the computer is winning
-   * then it makes that move otherwise it chooses randomly.
+   * Takes the model back to the state of a new model so it can be reused for
+   * another game: all listeners are removed without any event, the game is
+   * stopped, the grid emptied, and the computer player is removed with
+   * automatic computer moves turned back on.
    */
-  private void playNextComputerMove() {
-    boolean isLegal = Boolean.FALSE;
-    int row = 0;
-    int col = 0;
-    for (int j = 0; j < GRIDCOLUMNSIZE && !computerWon; j++) {
-      boolean columnChecked = Boolean.FALSE;
-      for (int i = GRIDROWSIZE - 1; i >= 0 && !columnChecked; i--) {
-        if (isLegalMove(i, j)) {
-          columnChecked = Boolean.TRUE;
-          gameGrid[i][j] = nextTurn;
-          if (checkGameState(i, j) == GameState.WON) {
-            computerWon = Boolean.TRUE;
-            row = i;
-            col = j;
-          }
-          gameGrid[i][j] = GameEnums.PlayerType.NONE;
-        }
-      }
-    }
-    if (!computerWon) {
-      while (!isLegal) {
-        col = getRandomColumn();
-        int tempRow = GRIDROWSIZE;
-        while (!isLegal && --tempRow >= 0) {
-          isLegal = isLegalMove(tempRow, col);
-          if (isLegal) {
-            row = tempRow;
-          }
-        }
-      }
-    }
-    playMove(row, col);
+  public void reset() {
+    views.clear();
+    isGameStarted.set(Boolean.FALSE);
+    gameType = null;
+    computerPlayer = null;
+    autoComputerMove = Boolean.TRUE;
+    setGameToInitialState();
   }
 
   /**
-   * @return random column location for computer move
+   * Sets the strategy used for computer moves in GameType.SINGLEPLAYER games.
+   * 
+   * @param computerPlayer The strategy or null for the default computer move
    */
-  private int getRandomColumn() {
-    return new Random().nextInt(GRIDCOLUMNSIZE);
+  public void setComputerPlayer(ComputerPlayer computerPlayer) {
+    this.computerPlayer = computerPlayer;
+  }
+
+  public int getWINNINGSIZE() {
+    return WINNINGSIZE;
   }
 
   /**
-   * Clears the game grid
+   * @return Number of moves played in the current or last game
    */
-  private void clearGameGrid() {
-    for (int i = 0; i < GRIDROWSIZE; i++) {
-      for (int j = 0; j < GRIDCOLUMNSIZE; j++) {
-        gameGrid[i][j] = GameEnums.PlayerType.NONE;
-      }
-    }
+  public int getMovesPlayed() {
+    return TOTALGAMEMOVES - remainingMoves;
   }
 
   /**
-   * Sets the game to initial state
+   * @return Columns of the moves of the current or last game in the order
+   *         they were played
    */
-  private void setGameToInitialState() {
-    clearGameGrid();
-    nextTurn = GameEnums.PlayerType.PLAYER1;
-    computerWon = Boolean.FALSE;
-    remainingMoves = TOTALGAMEMOVES;
+  public int[] getMoveHistory() {
+    return Arrays.copyOf(moveJournal, getMovesPlayed());
   }
 
-  public int getGRIDROWSIZE() {
-    return GRIDROWSIZE;
+  /**
+   * @return Player who won the current or last game, PlayerType.NONE if no
+   *         one has won it
+   */
+  public GameEnums.PlayerType getWinner() {
+    return winner;
   }
 
-  public int getGRIDCOLUMNSIZE() {
-    return GRIDCOLUMNSIZE;
+  /**
+   * @return Type of the current or last game, null if no game was started
+   */
+  public GameEnums.GameType getGameType() {
+    return gameType;
   }
 
   public GameEnums.PlayerType getNextTurn() {
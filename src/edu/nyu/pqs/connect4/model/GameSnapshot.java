@@ -0,0 +1,147 @@
+package edu.nyu.pqs.connect4.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable state of a game at one point: board size, game type, the owner
+ * of every cell and the moves in the order they were played. The model
+ * hands one to a listener that joins a game in progress instead of one event
+ * per disc.
+ *
+ * Rows are numbered as in the model, row 0 being the top of the grid.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class GameSnapshot {
+  private static final GameEnums.PlayerType[] OWNERS = {
+      GameEnums.PlayerType.NONE, GameEnums.PlayerType.PLAYER1,
+      GameEnums.PlayerType.PLAYER2 };
+
+  private final int rowSize;
+  private final int colSize;
+  private final int winSize;
+  private final GameEnums.GameType gameType;
+  private final GameEnums.PlayerType nextTurn;
+  private final int[] moveCols;
+  private final int[] moveRows;
+  private final byte[] cells;
+
+  /**
+   * Constructor of the GameSnapshot. PLAYER1 plays the first move.
+   *
+   * @param rowSize Number of Rows in the game
+   * @param colSize Number of Columns in the game
+   * @param winSize Winning Size of the game
+   * @param gameType Type of the game
+   * @param nextTurn Who's Turn it is
+   * @param moves Columns of the moves in the order they were played
+   * @throws NullPointerException if gameType, nextTurn or moves is Null
+   * @throws IllegalArgumentException if a move is out of bounds or in a full
+   *           column
+   */
+  public GameSnapshot(int rowSize, int colSize, int winSize,
+      GameEnums.GameType gameType, GameEnums.PlayerType nextTurn, int[] moves) {
+    if (gameType == null || nextTurn == null || moves == null) {
+      throw new NullPointerException(
+          "Game Type, turn and moves cannot be Null");
+    }
+    this.rowSize = rowSize;
+    this.colSize = colSize;
+    this.winSize = winSize;
+    this.gameType = gameType;
+    this.nextTurn = nextTurn;
+    moveCols = Arrays.copyOf(moves, moves.length);
+    moveRows = new int[moves.length];
+    cells = new byte[rowSize * colSize];
+    int[] heights = new int[colSize];
+    for (int i = 0; i < moves.length; i++) {
+      int col = moves[i];
+      if (col < 0 || col >= colSize || heights[col] == rowSize) {
+        throw new IllegalArgumentException("Invalid Grid Location");
+      }
+      int row = rowSize - 1 - heights[col]++;
+      moveRows[i] = row;
+      cells[row * colSize + col] = (byte) (1 + (i & 1));
+    }
+  }
+
+  public int getROWSIZE() {
+    return rowSize;
+  }
+
+  public int getCOLUMNSIZE() {
+    return colSize;
+  }
+
+  public int getWINNINGSIZE() {
+    return winSize;
+  }
+
+  public GameEnums.GameType getGameType() {
+    return gameType;
+  }
+
+  public GameEnums.PlayerType getNextTurn() {
+    return nextTurn;
+  }
+
+  /**
+   * @param row Row Location
+   * @param col Column Location
+   * @return Who played on the location, PlayerType.NONE if no one has
+   * @throws IllegalArgumentException if row/col is out of bounds
+   */
+  public GameEnums.PlayerType getOwner(int row, int col) {
+    if (row < 0 || row >= rowSize || col < 0 || col >= colSize) {
+      throw new IllegalArgumentException("Invalid Grid Location");
+    }
+    return OWNERS[cells[row * colSize + col]];
+  }
+
+  /**
+   * @return Number of moves played
+   */
+  public int getMoveCount() {
+    return moveCols.length;
+  }
+
+  /**
+   * @param index Index of the move, 0 for the first one
+   * @return Row Location of the move
+   */
+  public int getMoveRow(int index) {
+    return moveRows[index];
+  }
+
+  /**
+   * @param index Index of the move, 0 for the first one
+   * @return Column Location of the move
+   */
+  public int getMoveCol(int index) {
+    return moveCols[index];
+  }
+
+  /**
+   * @param index Index of the move, 0 for the first one
+   * @return Who played the move
+   */
+  public GameEnums.PlayerType getMoveOwner(int index) {
+    return OWNERS[1 + (index & 1)];
+  }
+
+  /**
+   * @return Copy of the columns of the moves in the order they were played
+   */
+  public int[] getMoves() {
+    return Arrays.copyOf(moveCols, moveCols.length);
+  }
+
+  /**
+   * @return String in format of "Snapshot of 6X7/4 TWOPLAYER after 5 moves"
+   */
+  public String toString() {
+    return "Snapshot of " + rowSize + "X" + colSize + "/" + winSize + " "
+        + gameType + " after " + moveCols.length + " moves";
+  }
+}
@@ -0,0 +1,243 @@
+package edu.nyu.pqs.connect4.model;
+
+import java.util.Arrays;
+
+/**
+ * Compact Connect4 position of any size, for engines that must also handle
+ * grids too large for a BitBoard. Cells are kept column by column from the
+ * bottom in one byte array, 1 for the stones of the player who moved first and
+ * 2 for the other player, next to the height of every column.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class GridBoard {
+  private static final int[][] DIRECTIONS = { { 1, 0 }, { 0, 1 }, { 1, 1 },
+      { 1, -1 } };
+  private final int ROWSIZE;
+  private final int COLUMNSIZE;
+  private final int WINNINGSIZE;
+  private final byte[] cells;
+  private final int[] heights;
+  private int moves;
+  private int lastColumn;
+
+  /**
+   * Constructor of the GridBoard. Creates an empty board.
+   *
+   * @param rowSize Number of Rows in the board.
+   * @param colSize Number of Columns in the board.
+   * @param winSize Winning Size of the board.
+   * @throws IllegalArgumentException if a size is not positive
+   */
+  public GridBoard(int rowSize, int colSize, int winSize) {
+    if (rowSize <= 0 || colSize <= 0 || winSize <= 0) {
+      throw new IllegalArgumentException("Invalid GridBoard size");
+    }
+    ROWSIZE = rowSize;
+    COLUMNSIZE = colSize;
+    WINNINGSIZE = winSize;
+    cells = new byte[rowSize * colSize];
+    heights = new int[colSize];
+    lastColumn = -1;
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The board to copy
+   */
+  public GridBoard(GridBoard other) {
+    this(other.ROWSIZE, other.COLUMNSIZE, other.WINNINGSIZE);
+    copyFrom(other);
+  }
+
+  /**
+   * Sets this board to the position of a board of the same size without
+   * allocating.
+   *
+   * @param other The board to copy
+   * @throws IllegalArgumentException if the boards differ in size
+   */
+  public void copyFrom(GridBoard other) {
+    if (other.ROWSIZE != ROWSIZE || other.COLUMNSIZE != COLUMNSIZE
+        || other.WINNINGSIZE != WINNINGSIZE) {
+      throw new IllegalArgumentException("Boards differ in size");
+    }
+    System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    System.arraycopy(other.heights, 0, heights, 0, heights.length);
+    moves = other.moves;
+    lastColumn = other.lastColumn;
+  }
+
+  /**
+   * Empties the board.
+   */
+  public void reset() {
+    Arrays.fill(cells, (byte) 0);
+    Arrays.fill(heights, 0);
+    moves = 0;
+    lastColumn = -1;
+  }
+
+  /**
+   * @param col Column Location
+   * @return true if a stone can be dropped in the column
+   */
+  public boolean canPlay(int col) {
+    return heights[col] < ROWSIZE;
+  }
+
+  /**
+   * Drops a stone of the player to move in the column. The column must be
+   * playable.
+   *
+   * @param col Column Location
+   */
+  public void play(int col) {
+    cells[col * ROWSIZE + heights[col]++] = (byte) getPlayerToMove();
+    moves++;
+    lastColumn = col;
+  }
+
+  /**
+   * Takes back the last move. The column must be the one of the last move.
+   * lastMoverWon() is false until the next move is played.
+   *
+   * @param col Column Location of the last move
+   */
+  public void undo(int col) {
+    cells[col * ROWSIZE + --heights[col]] = 0;
+    moves--;
+    lastColumn = -1;
+  }
+
+  /**
+   * @param col Column Location
+   * @return true if the player to move wins by playing in the column. The
+   *         column must be playable.
+   */
+  public boolean isWinningMove(int col) {
+    return hasAlignment(col, heights[col], getPlayerToMove());
+  }
+
+  /**
+   * @param col Column Location
+   * @param player 1 or 2
+   * @return true if a stone of the player dropped in the column would complete
+   *         an alignment. The column must be playable.
+   */
+  public boolean isWinningMove(int col, int player) {
+    return hasAlignment(col, heights[col], player);
+  }
+
+  /**
+   * @return true if the last move played completed an alignment
+   */
+  public boolean lastMoverWon() {
+    if (lastColumn < 0) {
+      return false;
+    }
+    int height = heights[lastColumn] - 1;
+    return hasAlignment(lastColumn, height,
+        cells[lastColumn * ROWSIZE + height]);
+  }
+
+  /**
+   * Counts the stones of the player aligned with a cell, the cell itself
+   * counted as the player's.
+   *
+   * @param col Column Location of the cell
+   * @param height Height of the cell counted from the bottom
+   * @param player 1 or 2
+   * @return true if at least WINNINGSIZE stones are aligned
+   */
+  private boolean hasAlignment(int col, int height, int player) {
+    for (int[] direction : DIRECTIONS) {
+      int count = 1 + countStones(col, height, direction[0], direction[1],
+          player) + countStones(col, height, -direction[0], -direction[1],
+          player);
+      if (count >= WINNINGSIZE) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return Number of consecutive stones of the player from the cell next to
+   *         (col, height) in the direction, up to WINNINGSIZE - 1
+   */
+  private int countStones(int col, int height, int colStep, int heightStep,
+      int player) {
+    int count = 0;
+    int c = col + colStep;
+    int h = height + heightStep;
+    while (count < WINNINGSIZE - 1 && c >= 0 && c < COLUMNSIZE && h >= 0
+        && h < heights[c] && cells[c * ROWSIZE + h] == player) {
+      count++;
+      c += colStep;
+      h += heightStep;
+    }
+    return count;
+  }
+
+  /**
+   * @return true if there is no empty cell left
+   */
+  public boolean isFull() {
+    return moves == cells.length;
+  }
+
+  /**
+   * @param col Column Location
+   * @param height Height counted from the bottom
+   * @return 0 for an empty cell, else 1 or 2 for the player who owns it
+   */
+  public int getCell(int col, int height) {
+    return height < heights[col] ? cells[col * ROWSIZE + height] : 0;
+  }
+
+  /**
+   * @return 1 if the player who moved first is to move, else 2
+   */
+  public int getPlayerToMove() {
+    return 1 + (moves & 1);
+  }
+
+  /**
+   * @param col Column Location
+   * @return Number of stones in the column
+   */
+  public int getHeight(int col) {
+    return heights[col];
+  }
+
+  public int getMoves() {
+    return moves;
+  }
+
+  public int getCells() {
+    return cells.length;
+  }
+
+  public int getROWSIZE() {
+    return ROWSIZE;
+  }
+
+  public int getCOLUMNSIZE() {
+    return COLUMNSIZE;
+  }
+
+  public int getWINNINGSIZE() {
+    return WINNINGSIZE;
+  }
+
+  /**
+   * @return String in format of "GridBoard 6X7/4 after 10 moves"
+   */
+  public String toString() {
+    return "GridBoard " + ROWSIZE + "X" + COLUMNSIZE + "/" + WINNINGSIZE
+        + " after " + moves + " moves";
+  }
+}
@@ -0,0 +1,148 @@
+package edu.nyu.pqs.connect4.model;
+
+/**
+ * Every line of WINNINGSIZE cells of a board, horizontal, vertical and both
+ * diagonals, with the lines through each cell. Cells are numbered col *
+ * ROWSIZE + height as in GridBoard. The lines through a cell are stored one
+ * cell after the other in a single array, so walking them costs one read
+ * per line. Immutable once built.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class LineTable {
+  private final int ROWSIZE;
+  private final int COLUMNSIZE;
+  private final int WINNINGSIZE;
+  private final int[] lineCells;
+  private final int[] cellLineStart;
+  private final int[] cellLines;
+
+  /**
+   * Constructor of the LineTable. Lists the lines of the board.
+   *
+   * @param rowSize Number of Rows in the board.
+   * @param colSize Number of Columns in the board.
+   * @param winSize Winning Size of the board.
+   * @throws IllegalArgumentException if a size is not positive
+   */
+  public LineTable(int rowSize, int colSize, int winSize) {
+    if (rowSize <= 0 || colSize <= 0 || winSize <= 0) {
+      throw new IllegalArgumentException("Invalid LineTable size");
+    }
+    ROWSIZE = rowSize;
+    COLUMNSIZE = colSize;
+    WINNINGSIZE = winSize;
+    int[][] directions = { { 1, 0 }, { 0, 1 }, { 1, 1 }, { 1, -1 } };
+    int lines = 0;
+    for (int[] d : directions) {
+      lines += Math.max(0, colSize - (winSize - 1) * Math.abs(d[0]))
+          * Math.max(0, rowSize - (winSize - 1) * Math.abs(d[1]));
+    }
+    lineCells = new int[lines * winSize];
+    int[] linesPerCell = new int[rowSize * colSize + 1];
+    int line = 0;
+    for (int[] d : directions) {
+      for (int col = 0; col < colSize; col++) {
+        for (int height = 0; height < rowSize; height++) {
+          int lastCol = col + (winSize - 1) * d[0];
+          int lastHeight = height + (winSize - 1) * d[1];
+          if (lastCol < 0 || lastCol >= colSize || lastHeight < 0
+              || lastHeight >= rowSize) {
+            continue;
+          }
+          for (int i = 0; i < winSize; i++) {
+            int cell = (col + i * d[0]) * rowSize + height + i * d[1];
+            lineCells[line * winSize + i] = cell;
+            linesPerCell[cell + 1]++;
+          }
+          line++;
+        }
+      }
+    }
+    cellLineStart = new int[rowSize * colSize + 1];
+    for (int cell = 0; cell < rowSize * colSize; cell++) {
+      cellLineStart[cell + 1] = cellLineStart[cell] + linesPerCell[cell + 1];
+    }
+    cellLines = new int[lineCells.length];
+    int[] filled = new int[rowSize * colSize];
+    for (line = 0; line < lines; line++) {
+      for (int i = 0; i < winSize; i++) {
+        int cell = lineCells[line * winSize + i];
+        cellLines[cellLineStart[cell] + filled[cell]++] = line;
+      }
+    }
+  }
+
+  /**
+   * @param col Column Location
+   * @param height Height counted from the bottom
+   * @return Number of the cell
+   */
+  public int getCell(int col, int height) {
+    return col * ROWSIZE + height;
+  }
+
+  /**
+   * The lines through a cell are getCellLine(i) for i from
+   * getCellLineStart(cell) to getCellLineEnd(cell) excluded.
+   *
+   * @param cell Number of the cell
+   * @return Index of the first line through the cell
+   */
+  public int getCellLineStart(int cell) {
+    return cellLineStart[cell];
+  }
+
+  /**
+   * @param cell Number of the cell
+   * @return Index past the last line through the cell
+   */
+  public int getCellLineEnd(int cell) {
+    return cellLineStart[cell + 1];
+  }
+
+  /**
+   * @param index Index between getCellLineStart and getCellLineEnd of a cell
+   * @return Number of the line
+   */
+  public int getCellLine(int index) {
+    return cellLines[index];
+  }
+
+  /**
+   * @param line Number of the line
+   * @param i Position in the line, from 0 to WINNINGSIZE - 1
+   * @return Number of the cell
+   */
+  public int getLineCell(int line, int i) {
+    return lineCells[line * WINNINGSIZE + i];
+  }
+
+  /**
+   * @return Number of lines on the board
+   */
+  public int getLines() {
+    return lineCells.length / WINNINGSIZE;
+  }
+
+  public int getROWSIZE() {
+    return ROWSIZE;
+  }
+
+  public int getCOLUMNSIZE() {
+    return COLUMNSIZE;
+  }
+
+  public int getWINNINGSIZE() {
+    return WINNINGSIZE;
+  }
+
+  /**
+   * @return String in format of "LineTable 6X7/4 with 69 lines"
+   */
+  public String toString() {
+    return "LineTable " + ROWSIZE + "X" + COLUMNSIZE + "/" + WINNINGSIZE
+        + " with " + getLines() + " lines";
+  }
+}
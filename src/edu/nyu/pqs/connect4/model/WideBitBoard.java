@@ -0,0 +1,422 @@
+package edu.nyu.pqs.connect4.model;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard of any size, for the boards that do not fit in a BitBoard. It
+ * uses the layout of BitBoard, rowSize + 1 bits per column with an always
+ * empty sentinel row on top, spread over as many longs as needed with bit
+ * col * (rowSize + 1) + height in word bit / 64. Wins are found with the same
+ * shift and fold as BitBoard, each shift carrying bits across word
+ * boundaries, so a check costs O(log winSize) passes over the words in each
+ * direction whatever the winning size. Not safe to share between threads.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class WideBitBoard {
+  private final int ROWSIZE;
+  private final int COLUMNSIZE;
+  private final int WINNINGSIZE;
+  private final int COLUMNHEIGHT;
+  private final long[] current;
+  private final long[] mask;
+  private final int[] heights;
+  private final long[] stones;
+  private final long[] runs;
+  private long[][] runsBelow;
+  private int moves;
+
+  /**
+   * Constructor of the WideBitBoard. Creates an empty board.
+   *
+   * @param rowSize Number of Rows in the board.
+   * @param colSize Number of Columns in the board.
+   * @param winSize Winning Size of the board.
+   * @throws IllegalArgumentException if a size is not positive
+   */
+  public WideBitBoard(int rowSize, int colSize, int winSize) {
+    if (rowSize <= 0 || colSize <= 0 || winSize <= 0) {
+      throw new IllegalArgumentException("Invalid WideBitBoard size");
+    }
+    ROWSIZE = rowSize;
+    COLUMNSIZE = colSize;
+    WINNINGSIZE = winSize;
+    COLUMNHEIGHT = rowSize + 1;
+    int words = (int) (((long) colSize * COLUMNHEIGHT + 63) / 64);
+    current = new long[words];
+    mask = new long[words];
+    heights = new int[colSize];
+    stones = new long[words];
+    runs = new long[words];
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The board to copy
+   */
+  public WideBitBoard(WideBitBoard other) {
+    this(other.ROWSIZE, other.COLUMNSIZE, other.WINNINGSIZE);
+    System.arraycopy(other.current, 0, current, 0, current.length);
+    System.arraycopy(other.mask, 0, mask, 0, mask.length);
+    System.arraycopy(other.heights, 0, heights, 0, heights.length);
+    moves = other.moves;
+  }
+
+  /**
+   * Empties the board.
+   */
+  public void reset() {
+    Arrays.fill(current, 0L);
+    Arrays.fill(mask, 0L);
+    Arrays.fill(heights, 0);
+    moves = 0;
+  }
+
+  /**
+   * @param col Column Location
+   * @return true if the column is in bounds and not full
+   */
+  public boolean canPlay(int col) {
+    return col >= 0 && col < COLUMNSIZE && heights[col] < ROWSIZE;
+  }
+
+  /**
+   * Drops a stone of the player to move in the column. The column must be
+   * playable.
+   *
+   * @param col Column Location
+   */
+  public void play(int col) {
+    for (int i = 0; i < mask.length; i++) {
+      current[i] ^= mask[i];
+    }
+    int bit = col * COLUMNHEIGHT + heights[col]++;
+    mask[bit >>> 6] |= 1L << bit;
+    moves++;
+  }
+
+  /**
+   * Takes back the last move. The column must be the one of the last move.
+   *
+   * @param col Column Location of the last move
+   */
+  public void undo(int col) {
+    int bit = col * COLUMNHEIGHT + --heights[col];
+    mask[bit >>> 6] &= ~(1L << bit);
+    for (int i = 0; i < mask.length; i++) {
+      current[i] ^= mask[i];
+    }
+    moves--;
+  }
+
+  /**
+   * Only the words a line through the new stone can touch are folded, so the
+   * check costs about the same on a board of any width.
+   *
+   * @param col Column Location
+   * @return true if the player to move wins by playing in the column. The
+   *         column must be playable.
+   */
+  public boolean isWinningMove(int col) {
+    int bit = col * COLUMNHEIGHT + heights[col];
+    current[bit >>> 6] |= 1L << bit;
+    boolean wins = hasAlignment(current, bit);
+    current[bit >>> 6] &= ~(1L << bit);
+    return wins;
+  }
+
+  /**
+   * Finds every column where the player to move wins at once, for a cost of
+   * about 8 * WINNINGSIZE shifts of the board instead of a check per column.
+   * A cell wins when, in some direction, the j cells above it and the
+   * WINNINGSIZE - 1 - j cells below it are the player's stones. The runs
+   * below are kept for each length, each one the previous one extended by a
+   * stone, and the runs above are grown the same way against them.
+   *
+   * @param columns Set to true for the columns where the player to move wins,
+   *          of at least getCOLUMNSIZE() entries
+   * @return Number of winning columns
+   * @throws NullPointerException if columns is Null
+   */
+  public int findWinningMoves(boolean[] columns) {
+    if (columns == null) {
+      throw new NullPointerException("Columns cannot be Null");
+    }
+    if (runsBelow == null) {
+      runsBelow = new long[WINNINGSIZE][mask.length];
+      Arrays.fill(runsBelow[0], -1L);
+    }
+    Arrays.fill(stones, 0L);
+    int[] shifts = { 1, COLUMNHEIGHT, COLUMNHEIGHT - 1, COLUMNHEIGHT + 1 };
+    for (int shift : shifts) {
+      for (int length = 1; length < WINNINGSIZE; length++) {
+        extendLeft(current, runsBelow[length - 1], shift, runsBelow[length]);
+      }
+      long[] longest = runsBelow[WINNINGSIZE - 1];
+      for (int i = 0; i < stones.length; i++) {
+        stones[i] |= longest[i];
+        runs[i] = -1L;
+      }
+      for (int length = 1; length < WINNINGSIZE; length++) {
+        extendRight(current, runs, shift, runs);
+        long[] below = runsBelow[WINNINGSIZE - 1 - length];
+        for (int i = 0; i < stones.length; i++) {
+          stones[i] |= runs[i] & below[i];
+        }
+      }
+    }
+    int wins = 0;
+    for (int col = 0; col < COLUMNSIZE; col++) {
+      int bit = col * COLUMNHEIGHT + heights[col];
+      columns[col] = heights[col] < ROWSIZE
+          && (stones[bit >>> 6] & (1L << bit)) != 0;
+      wins += columns[col] ? 1 : 0;
+    }
+    return wins;
+  }
+
+  /**
+   * @return true if the player who made the last move has an alignment
+   */
+  public boolean lastMoverWon() {
+    for (int i = 0; i < mask.length; i++) {
+      stones[i] = current[i] ^ mask[i];
+    }
+    return hasAlignment(stones, -1);
+  }
+
+  /**
+   * Checks only the lines through the top stone of a column, which is cheaper
+   * than lastMoverWon() when the column of the last move is known.
+   *
+   * @param col Column Location, not empty
+   * @return true if the top stone of the column is in an alignment of its
+   *         owner's stones
+   */
+  public boolean isAlignedAt(int col) {
+    int bit = col * COLUMNHEIGHT + heights[col] - 1;
+    boolean toMove = (current[bit >>> 6] & (1L << bit)) != 0;
+    for (int i = 0; i < mask.length; i++) {
+      stones[i] = toMove ? current[i] : current[i] ^ mask[i];
+    }
+    return hasAlignment(stones, bit);
+  }
+
+  /**
+   * Checks for WINNINGSIZE aligned stones in any direction.
+   *
+   * @param stones Stones of one player, left unchanged
+   * @param bit Bit of a stone the alignment must be near, -1 for the whole
+   *          board
+   * @return true if stones contains an alignment of WINNINGSIZE stones
+   */
+  private boolean hasAlignment(long[] stones, int bit) {
+    return hasAlignmentAlong(stones, 1, bit)
+        || hasAlignmentAlong(stones, COLUMNHEIGHT, bit)
+        || hasAlignmentAlong(stones, COLUMNHEIGHT - 1, bit)
+        || hasAlignmentAlong(stones, COLUMNHEIGHT + 1, bit);
+  }
+
+  /**
+   * Checks for WINNINGSIZE aligned stones along one direction by repeatedly
+   * folding the runs with shifts. Near a bit only the words within
+   * (WINNINGSIZE - 1) * shift bits of it are folded, the words past them
+   * read as empty, which keeps every alignment through the bit.
+   *
+   * @param stones Stones of one player, left unchanged
+   * @param shift Distance in bits between two neighbours in this direction
+   * @param bit Bit of a stone the alignment must be near, -1 for the whole
+   *          board
+   * @return true if stones contains an alignment of WINNINGSIZE stones
+   */
+  private boolean hasAlignmentAlong(long[] stones, int shift, int bit) {
+    int from = 0;
+    int to = runs.length - 1;
+    if (bit >= 0) {
+      long reach = (long) (WINNINGSIZE - 1) * shift;
+      from = (int) (Math.max(0L, bit - reach) >>> 6);
+      to = (int) Math.min(to, (bit + reach) >>> 6);
+    }
+    System.arraycopy(stones, from, runs, from, to - from + 1);
+    int length = 1;
+    boolean left = any(runs, from, to);
+    while (left && length * 2 <= WINNINGSIZE) {
+      left = fold(length * shift, from, to);
+      length *= 2;
+    }
+    if (left && length < WINNINGSIZE) {
+      left = fold((WINNINGSIZE - length) * shift, from, to);
+    }
+    return left;
+  }
+
+  /**
+   * Sets runs to runs & (runs >>> distance) over the words from to to, the
+   * words above to reading as 0. Each word is shifted in place from the
+   * lowest up, carrying the low bits of the words above it, which are not
+   * folded yet.
+   *
+   * @return true if any run is left
+   */
+  private boolean fold(long distance, int from, int to) {
+    if (distance > (long) (to - from) * 64 + 63) {
+      return false;
+    }
+    int words = (int) (distance >>> 6);
+    int bits = (int) (distance & 63);
+    long left = 0L;
+    int i = from;
+    if (bits == 0) {
+      for (; i + words <= to; i++) {
+        runs[i] &= runs[i + words];
+        left |= runs[i];
+      }
+    } else {
+      for (; i + words < to; i++) {
+        runs[i] &= (runs[i + words] >>> bits)
+            | (runs[i + words + 1] << (64 - bits));
+        left |= runs[i];
+      }
+      runs[i] &= runs[to] >>> bits;
+      left |= runs[i++];
+    }
+    for (; i <= to; i++) {
+      runs[i] = 0L;
+    }
+    return left != 0L;
+  }
+
+  /**
+   * Sets target to (stones & runs) >>> distance, carrying the low bits of
+   * each word into the word below. Target may be runs.
+   *
+   * @param stones Words, lowest first
+   * @param runs Words, lowest first
+   * @param distance Number of bits, less than the bits of the words
+   * @param target Words receiving the result
+   */
+  static void extendRight(long[] stones, long[] runs, int distance,
+      long[] target) {
+    int words = distance >>> 6;
+    int bits = distance & 63;
+    int length = runs.length;
+    int i = 0;
+    if (bits == 0) {
+      for (; i + words < length; i++) {
+        target[i] = stones[i + words] & runs[i + words];
+      }
+    } else if (words < length) {
+      for (; i + words + 1 < length; i++) {
+        int from = i + words;
+        target[i] = ((stones[from] & runs[from]) >>> bits)
+            | ((stones[from + 1] & runs[from + 1]) << (64 - bits));
+      }
+      target[i] = (stones[length - 1] & runs[length - 1]) >>> bits;
+      i++;
+    }
+    for (; i < length; i++) {
+      target[i] = 0L;
+    }
+  }
+
+  /**
+   * Sets target to (stones & runs) << distance, carrying the high bits of
+   * each word into the word above. The bits shifted past the last word are
+   * lost. Target may be runs.
+   *
+   * @param stones Words, lowest first
+   * @param runs Words, lowest first
+   * @param distance Number of bits, less than the bits of the words
+   * @param target Words receiving the result
+   */
+  static void extendLeft(long[] stones, long[] runs, int distance,
+      long[] target) {
+    int words = distance >>> 6;
+    int bits = distance & 63;
+    int i = runs.length - 1;
+    if (bits == 0) {
+      for (; i - words >= 0; i--) {
+        target[i] = stones[i - words] & runs[i - words];
+      }
+    } else if (words < runs.length) {
+      for (; i - words - 1 >= 0; i--) {
+        int from = i - words;
+        target[i] = ((stones[from] & runs[from]) << bits)
+            | ((stones[from - 1] & runs[from - 1]) >>> (64 - bits));
+      }
+      target[i] = (stones[0] & runs[0]) << bits;
+      i--;
+    }
+    for (; i >= 0; i--) {
+      target[i] = 0L;
+    }
+  }
+
+  private static boolean any(long[] words, int from, int to) {
+    long bits = 0L;
+    for (int i = from; i <= to; i++) {
+      bits |= words[i];
+    }
+    return bits != 0L;
+  }
+
+  /**
+   * @return true if no more moves can be played
+   */
+  public boolean isFull() {
+    return moves == ROWSIZE * COLUMNSIZE;
+  }
+
+  /**
+   * @param col Column Location
+   * @param height Height counted from the bottom
+   * @return 1 or 2 for the player who owns the cell, 0 if it is empty
+   */
+  public int getCell(int col, int height) {
+    int bit = col * COLUMNHEIGHT + height;
+    if ((mask[bit >>> 6] & (1L << bit)) == 0) {
+      return 0;
+    }
+    boolean toMove = (current[bit >>> 6] & (1L << bit)) != 0;
+    int playerToMove = 1 + (moves & 1);
+    return toMove ? playerToMove : 3 - playerToMove;
+  }
+
+  public int getHeight(int col) {
+    return heights[col];
+  }
+
+  public int getMoves() {
+    return moves;
+  }
+
+  /**
+   * @return Number of longs holding each bit set
+   */
+  public int getWords() {
+    return mask.length;
+  }
+
+  public int getROWSIZE() {
+    return ROWSIZE;
+  }
+
+  public int getCOLUMNSIZE() {
+    return COLUMNSIZE;
+  }
+
+  public int getWINNINGSIZE() {
+    return WINNINGSIZE;
+  }
+
+  /**
+   * @return String in format of "WideBitBoard 20X20/6 in 7 words after 12
+   *         moves"
+   */
+  public String toString() {
+    return "WideBitBoard " + ROWSIZE + "X" + COLUMNSIZE + "/" + WINNINGSIZE
+        + " in " + mask.length + " words after " + moves + " moves";
+  }
+}
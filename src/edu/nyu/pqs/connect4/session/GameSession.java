@@ -0,0 +1,158 @@
+package edu.nyu.pqs.connect4.session;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import edu.nyu.pqs.connect4.actor.GameActor;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.GameEnums;
+
+/**
+ * One game hosted by a GameSessionManager. Commands go to the game's
+ * GameActor, so any thread can send them. A paused session refuses commands
+ * until it is resumed, and an evicted session refuses them for good.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class GameSession {
+
+  /**
+   * Life cycle of a session.
+   */
+  public enum State {
+    ACTIVE, PAUSED, EVICTED
+  }
+
+  private final long id;
+  private final int rowSize;
+  private final int colSize;
+  private final int winSize;
+  private final GameActor actor;
+  private final AtomicReference<State> state;
+  private volatile long lastAccess;
+
+  GameSession(long id, int rowSize, int colSize, int winSize,
+      GameActor actor) {
+    this.id = id;
+    this.rowSize = rowSize;
+    this.colSize = colSize;
+    this.winSize = winSize;
+    this.actor = actor;
+    state = new AtomicReference<State>(State.ACTIVE);
+    lastAccess = System.nanoTime();
+  }
+
+  /**
+   * Sends Connect4Model.joinGame.
+   *
+   * @param listener The listener who joins the game
+   * @return Result of joinGame, failed with IllegalStateException if the
+   *         session is not active
+   */
+  public CompletableFuture<Boolean> join(Connect4Listener listener) {
+    CompletableFuture<Boolean> refused = refuseUnlessActive();
+    return refused != null ? refused : actor.join(listener);
+  }
+
+  /**
+   * Sends Connect4Model.startGame.
+   *
+   * @param listener The listener who requests the start
+   * @param gameType Type of the game
+   * @return Result of startGame, failed with IllegalStateException if the
+   *         session is not active
+   */
+  public CompletableFuture<Boolean> start(Connect4Listener listener,
+      GameEnums.GameType gameType) {
+    CompletableFuture<Boolean> refused = refuseUnlessActive();
+    return refused != null ? refused : actor.start(listener, gameType);
+  }
+
+  /**
+   * Sends Connect4Model.playMove.
+   *
+   * @param row Row Location of the move
+   * @param col Column Location of the move
+   * @return Result of playMove, failed with IllegalStateException if the
+   *         session is not active
+   */
+  public CompletableFuture<Boolean> move(int row, int col) {
+    CompletableFuture<Boolean> refused = refuseUnlessActive();
+    return refused != null ? refused : actor.move(row, col);
+  }
+
+  /**
+   * Sends Connect4Model.exitGame.
+   *
+   * @param listener The listener who leaves the game
+   * @return Result of exitGame, failed with IllegalStateException if the
+   *         session is not active
+   */
+  public CompletableFuture<Boolean> exit(Connect4Listener listener) {
+    CompletableFuture<Boolean> refused = refuseUnlessActive();
+    return refused != null ? refused : actor.exit(listener);
+  }
+
+  /**
+   * Touches the session and returns a failed future unless it is active.
+   */
+  private CompletableFuture<Boolean> refuseUnlessActive() {
+    lastAccess = System.nanoTime();
+    State current = state.get();
+    if (current == State.ACTIVE) {
+      return null;
+    }
+    CompletableFuture<Boolean> refused = new CompletableFuture<Boolean>();
+    refused.completeExceptionally(new IllegalStateException("Game " + id
+        + " is " + current));
+    return refused;
+  }
+
+  /**
+   * Moves the session from one state to another.
+   *
+   * @return true if the session was in the expected state
+   */
+  boolean transition(State expected, State next) {
+    return state.compareAndSet(expected, next);
+  }
+
+  GameActor getActor() {
+    return actor;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public State getState() {
+    return state.get();
+  }
+
+  /**
+   * @return System.nanoTime() of the last command sent to the session
+   */
+  public long getLastAccess() {
+    return lastAccess;
+  }
+
+  public int getROWSIZE() {
+    return rowSize;
+  }
+
+  public int getCOLUMNSIZE() {
+    return colSize;
+  }
+
+  public int getWINNINGSIZE() {
+    return winSize;
+  }
+
+  /**
+   * @return String in format of "Game 7 of size 6X7/4 ACTIVE"
+   */
+  public String toString() {
+    return "Game " + id + " of size " + rowSize + "X" + colSize + "/"
+        + winSize + " " + state.get();
+  }
+}
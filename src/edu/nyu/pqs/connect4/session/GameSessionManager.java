@@ -0,0 +1,271 @@
+package edu.nyu.pqs.connect4.session;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import edu.nyu.pqs.connect4.actor.GameActor;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Hosts many games by id for any number of threads. Sessions are indexed in
+ * a ConcurrentHashMap, so lookups take no lock and updates only lock one bin.
+ * Every game runs in its own GameActor on the shared executor. Evicted games
+ * give their Connect4Model back to a bounded pool per board size, once their
+ * actor has run every command sent before the eviction, and new games of that
+ * size take a model from the pool before allocating one.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class GameSessionManager {
+  private final Executor executor;
+  private final int maxPooledPerSize;
+  private final ConcurrentMap<Long, GameSession> sessions;
+  private final ConcurrentMap<Long, Queue<Connect4Model>> pools;
+  private final ConcurrentMap<Long, AtomicInteger> poolSizes;
+  private final AtomicLong nextId;
+  private final AtomicInteger pausedGames;
+
+  /**
+   * Constructor of the GameSessionManager.
+   *
+   * @param executor Executor running the games' actors
+   * @param maxPooledPerSize Maximum number of idle models kept per board size
+   * @throws NullPointerException if executor is Null
+   * @throws IllegalArgumentException if maxPooledPerSize is negative
+   */
+  public GameSessionManager(Executor executor, int maxPooledPerSize) {
+    if (executor == null) {
+      throw new NullPointerException("Executor cannot be Null");
+    }
+    if (maxPooledPerSize < 0) {
+      throw new IllegalArgumentException("Pool size cannot be negative");
+    }
+    this.executor = executor;
+    this.maxPooledPerSize = maxPooledPerSize;
+    sessions = new ConcurrentHashMap<Long, GameSession>();
+    pools = new ConcurrentHashMap<Long, Queue<Connect4Model>>();
+    poolSizes = new ConcurrentHashMap<Long, AtomicInteger>();
+    nextId = new AtomicLong();
+    pausedGames = new AtomicInteger();
+  }
+
+  /**
+   * Creates a game, reusing a pooled model of the size if there is one.
+   *
+   * @param rowSize Number of Rows in the game
+   * @param colSize Number of Columns in the game
+   * @param winSize Winning Size of the game
+   * @return The new session
+   * @throws IllegalArgumentException if a size is not positive
+   */
+  public GameSession create(int rowSize, int colSize, int winSize) {
+    if (rowSize <= 0 || colSize <= 0 || winSize <= 0) {
+      throw new IllegalArgumentException("Invalid game size");
+    }
+    long size = sizeKey(rowSize, colSize, winSize);
+    Connect4Model model = null;
+    Queue<Connect4Model> pool = pools.get(size);
+    if (pool != null) {
+      model = pool.poll();
+      if (model != null) {
+        poolSizes.get(size).decrementAndGet();
+      }
+    }
+    if (model == null) {
+      model = new Connect4Model(rowSize, colSize, winSize);
+    }
+    long id = nextId.incrementAndGet();
+    GameSession session = new GameSession(id, rowSize, colSize, winSize,
+        new GameActor(model, executor));
+    sessions.put(id, session);
+    return session;
+  }
+
+  /**
+   * @param id Id of the game
+   * @return The session or null if there is no such game
+   */
+  public GameSession get(long id) {
+    return sessions.get(id);
+  }
+
+  /**
+   * Pauses an active game, it refuses commands until resumed.
+   *
+   * @param id Id of the game
+   * @return true if the game was active
+   */
+  public boolean pause(long id) {
+    GameSession session = sessions.get(id);
+    if (session != null
+        && session.transition(GameSession.State.ACTIVE,
+            GameSession.State.PAUSED)) {
+      pausedGames.incrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Resumes a paused game.
+   *
+   * @param id Id of the game
+   * @return true if the game was paused
+   */
+  public boolean resume(long id) {
+    GameSession session = sessions.get(id);
+    if (session != null
+        && session.transition(GameSession.State.PAUSED,
+            GameSession.State.ACTIVE)) {
+      pausedGames.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Removes a game. Its model goes back to the pool once the commands already
+   * sent to it have run. A pause or resume that found the game before it was
+   * removed may still change its state, so the state is read again until the
+   * game is moved to EVICTED from the state it really had.
+   *
+   * @param id Id of the game
+   * @return Completes with true once the model is back in the pool or
+   *         dropped, or at once with false if there is no such game
+   */
+  public CompletableFuture<Boolean> evict(long id) {
+    GameSession session = sessions.remove(id);
+    if (session == null) {
+      return CompletableFuture.completedFuture(Boolean.FALSE);
+    }
+    return stop(session);
+  }
+
+  /**
+   * Moves a session already removed from the map to GameSession.State.EVICTED
+   * and stops its actor.
+   *
+   * @param session Removed session
+   * @return Future completed once the actor has stopped
+   */
+  private CompletableFuture<Boolean> stop(GameSession session) {
+    GameSession.State current;
+    do {
+      current = session.getState();
+    } while (current != GameSession.State.EVICTED
+        && !session.transition(current, GameSession.State.EVICTED));
+    if (current == GameSession.State.PAUSED) {
+      pausedGames.decrementAndGet();
+    }
+    final long size = sizeKey(session.getROWSIZE(), session.getCOLUMNSIZE(),
+        session.getWINNINGSIZE());
+    final GameActor actor = session.getActor();
+    return actor.stop().whenComplete(new BiConsumer<Boolean, Throwable>() {
+      @Override
+      public void accept(Boolean result, Throwable failure) {
+        if (failure == null) {
+          recycle(size, actor);
+        }
+      }
+    });
+  }
+
+  /**
+   * Evicts every game that got no command for the given time.
+   *
+   * @param idle Idle time
+   * @param unit Unit of the idle time
+   * @return Number of games evicted
+   */
+  public int evictIdle(long idle, TimeUnit unit) {
+    long now = System.nanoTime();
+    long limit = unit.toNanos(idle);
+    int evicted = 0;
+    for (Map.Entry<Long, GameSession> entry : sessions.entrySet()) {
+      GameSession session = entry.getValue();
+      if (now - session.getLastAccess() >= limit
+          && sessions.remove(entry.getKey(), session)) {
+        stop(session);
+        evicted++;
+      }
+    }
+    return evicted;
+  }
+
+  /**
+   * Puts the stopped actor's model back in its pool unless the pool is full.
+   */
+  private void recycle(long size, GameActor actor) {
+    AtomicInteger poolSize = poolSizes.get(size);
+    if (poolSize == null) {
+      poolSize = new AtomicInteger();
+      AtomicInteger existing = poolSizes.putIfAbsent(size, poolSize);
+      if (existing != null) {
+        poolSize = existing;
+      }
+    }
+    if (poolSize.incrementAndGet() > maxPooledPerSize) {
+      poolSize.decrementAndGet();
+      return;
+    }
+    Connect4Model model = actor.releaseModel();
+    model.reset();
+    Queue<Connect4Model> pool = pools.get(size);
+    if (pool == null) {
+      pool = new ConcurrentLinkedQueue<Connect4Model>();
+      Queue<Connect4Model> existing = pools.putIfAbsent(size, pool);
+      if (existing != null) {
+        pool = existing;
+      }
+    }
+    pool.offer(model);
+  }
+
+  /**
+   * Packs a board size into one key. Sizes above 2^21 are not supported.
+   */
+  private static long sizeKey(int rowSize, int colSize, int winSize) {
+    return ((long) rowSize << 42) | ((long) colSize << 21) | winSize;
+  }
+
+  /**
+   * @return Number of games hosted, active or paused
+   */
+  public int getGames() {
+    return sessions.size();
+  }
+
+  /**
+   * @return Number of games that accept commands
+   */
+  public int getActiveGames() {
+    return Math.max(0, sessions.size() - pausedGames.get());
+  }
+
+  /**
+   * @return Number of paused games
+   */
+  public int getPausedGames() {
+    return pausedGames.get();
+  }
+
+  /**
+   * @return Number of idle models kept for reuse over all board sizes
+   */
+  public int getPooledModels() {
+    int pooled = 0;
+    for (AtomicInteger poolSize : poolSizes.values()) {
+      pooled += poolSize.get();
+    }
+    return pooled;
+  }
+}
@@ -0,0 +1,117 @@
+package edu.nyu.pqs.connect4.sim;
+
+/**
+ * The bitwise steps of a BoardBatch over a range of games, one long per game
+ * in each array, in plain Java. It is the fallback when the Vector API is
+ * not available and handles the games left over by VectorBatchKernel.
+ *
+ * @author ajaykhanna
+ *
+ */
+class BatchKernel {
+  /**
+   * Shifts of the folds finding WINNINGSIZE aligned stones, one row per
+   * direction, as in BitBoard.hasAlignment. A direction whose alignment
+   * would span 64 bits or more cannot hold a win and has no row, so no
+   * shift reaches 64.
+   */
+  final int[][] folds;
+
+  /**
+   * @param columnHeight Bits used per column (rowSize + 1)
+   * @param winSize Winning Size
+   */
+  BatchKernel(int columnHeight, int winSize) {
+    int[] shifts = { 1, columnHeight, columnHeight - 1, columnHeight + 1 };
+    int steps = 0;
+    for (int length = 1; length * 2 <= winSize; length *= 2) {
+      steps++;
+    }
+    if (Integer.highestOneBit(winSize) != winSize) {
+      steps++;
+    }
+    int directions = 0;
+    for (int shift : shifts) {
+      if ((long) (winSize - 1) * shift < Long.SIZE) {
+        directions++;
+      }
+    }
+    folds = new int[directions][steps];
+    int d = 0;
+    for (int shift : shifts) {
+      if ((long) (winSize - 1) * shift >= Long.SIZE) {
+        continue;
+      }
+      int step = 0;
+      int length = 1;
+      while (length * 2 <= winSize) {
+        folds[d][step++] = length * shift;
+        length *= 2;
+      }
+      if (length < winSize) {
+        folds[d][step] = (winSize - length) * shift;
+      }
+      d++;
+    }
+  }
+
+  /**
+   * Plays one move in every active game: the stones of the player to move
+   * become the opponent's view, current ^= mask, and the stone lands on top
+   * of its column, mask |= mask + bottom.
+   *
+   * @param current Stones of the player to move of each game
+   * @param mask Occupied cells of each game
+   * @param bottoms Bottom bit of the column played in each game, 0 for the
+   *          games that are over
+   * @param active -1 for the games in play, 0 for the games that are over
+   * @param from First game
+   * @param to Game past the last one
+   */
+  void play(long[] current, long[] mask, long[] bottoms, long[] active,
+      int from, int to) {
+    for (int i = from; i < to; i++) {
+      long m = mask[i];
+      current[i] ^= m & active[i];
+      mask[i] = m | (m + bottoms[i]);
+    }
+  }
+
+  /**
+   * Checks whether the last move of every active game completed an
+   * alignment.
+   *
+   * @param current Stones of the player to move of each game
+   * @param mask Occupied cells of each game
+   * @param active -1 for the games in play, 0 for the games that are over
+   * @param won Set to -1 for the games just won, 0 for the others
+   * @param from First game
+   * @param to Game past the last one
+   * @return Number of games just won
+   */
+  int findWins(long[] current, long[] mask, long[] active, long[] won,
+      int from, int to) {
+    int wins = 0;
+    for (int i = from; i < to; i++) {
+      long stones = (current[i] ^ mask[i]) & active[i];
+      long any = 0L;
+      for (int[] shifts : folds) {
+        long runs = stones;
+        for (int shift : shifts) {
+          runs &= runs >>> shift;
+        }
+        any |= runs;
+      }
+      won[i] = any != 0L ? -1L : 0L;
+      wins += any != 0L ? 1 : 0;
+    }
+    return wins;
+  }
+
+  /**
+   * @return true if the kernel uses the Vector API
+   */
+  boolean isVectorized() {
+    return false;
+  }
+}
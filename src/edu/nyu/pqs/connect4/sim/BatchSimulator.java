@@ -0,0 +1,213 @@
+package edu.nyu.pqs.connect4.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+
+/**
+ * Plays batches of games between two strategies without any view. Every
+ * thread owns one Connect4Model, reused from game to game, and its own players
+ * and counters, and takes games in chunks from a shared counter, so the
+ * threads only meet when they take a chunk and when the totals are added up.
+ *
+ * Usage: BatchSimulator games [player1 player2] [rowSize colSize winSize]
+ * [threads] [nodesPerMove] where a player is RANDOM, ONEPLY or ENGINE.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class BatchSimulator {
+  private static final long CHUNK = 256;
+  private final int rowSize;
+  private final int colSize;
+  private final int winSize;
+  private final Strategy player1;
+  private final Strategy player2;
+  private final int threads;
+  private final long nodesPerMove;
+
+  /**
+   * Constructor of the BatchSimulator.
+   *
+   * @param rowSize Number of Rows of the games
+   * @param colSize Number of Columns of the games
+   * @param winSize Winning Size of the games
+   * @param player1 Strategy of the player who moves first
+   * @param player2 Strategy of the other player
+   * @param threads Number of threads playing games
+   * @param nodesPerMove Node or playout budget of an ENGINE per move
+   * @throws NullPointerException if a strategy is Null
+   * @throws IllegalArgumentException if a size, threads or nodesPerMove is
+   *           not positive
+   */
+  public BatchSimulator(int rowSize, int colSize, int winSize,
+      Strategy player1, Strategy player2, int threads, long nodesPerMove) {
+    if (player1 == null || player2 == null) {
+      throw new NullPointerException("Strategy cannot be Null");
+    }
+    if (rowSize <= 0 || colSize <= 0 || winSize <= 0 || threads <= 0
+        || nodesPerMove <= 0) {
+      throw new IllegalArgumentException("Parameters must be positive");
+    }
+    this.rowSize = rowSize;
+    this.colSize = colSize;
+    this.winSize = winSize;
+    this.player1 = player1;
+    this.player2 = player2;
+    this.threads = threads;
+    this.nodesPerMove = nodesPerMove;
+  }
+
+  public static void main(String[] args) {
+    if (args.length == 0) {
+      System.err.println("Usage: BatchSimulator games [player1 player2] "
+          + "[rowSize colSize winSize] [threads] [nodesPerMove]");
+      System.exit(1);
+    }
+    long games = Long.parseLong(args[0]);
+    Strategy player1 = args.length > 2 ? Strategy.valueOf(args[1])
+        : Strategy.RANDOM;
+    Strategy player2 = args.length > 2 ? Strategy.valueOf(args[2])
+        : Strategy.RANDOM;
+    int rowSize = args.length > 5 ? Integer.parseInt(args[3]) : 6;
+    int colSize = args.length > 5 ? Integer.parseInt(args[4]) : 7;
+    int winSize = args.length > 5 ? Integer.parseInt(args[5]) : 4;
+    int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime
+        .getRuntime().availableProcessors();
+    long nodesPerMove = args.length > 7 ? Long.parseLong(args[7]) : 10000;
+    System.out.println(new BatchSimulator(rowSize, colSize, winSize, player1,
+        player2, threads, nodesPerMove).run(games));
+  }
+
+  /**
+   * Plays the games on all the threads.
+   *
+   * @param games Number of games to play
+   * @return Totals of the games
+   * @throws IllegalArgumentException if games is negative
+   */
+  public SimulationReport run(final long games) {
+    if (games < 0) {
+      throw new IllegalArgumentException("Games cannot be negative");
+    }
+    final AtomicLong nextGame = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Tally>> futures = new ArrayList<Future<Tally>>();
+    long start = System.nanoTime();
+    for (int i = 0; i < threads; i++) {
+      final long seed = start + i;
+      futures.add(executor.submit(new Callable<Tally>() {
+        @Override
+        public Tally call() {
+          return playGames(nextGame, games, seed);
+        }
+      }));
+    }
+    long moves = 0;
+    long player1Wins = 0;
+    long player2Wins = 0;
+    long draws = 0;
+    try {
+      for (Future<Tally> future : futures) {
+        Tally tally = future.get();
+        moves += tally.moves;
+        player1Wins += tally.player1Wins;
+        player2Wins += tally.player2Wins;
+        draws += tally.draws;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while simulating", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Simulation failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return new SimulationReport(player1Wins + player2Wins + draws, moves,
+        player1Wins, player2Wins, draws, System.nanoTime() - start);
+  }
+
+  /**
+   * Plays chunks of games on one thread until all the games are taken.
+   *
+   * @param nextGame Number of games taken by all the threads
+   * @param games Number of games to play
+   * @param seed Seed of the players of the thread
+   * @return Totals of the thread's games
+   */
+  private Tally playGames(AtomicLong nextGame, long games, long seed) {
+    Connect4Model model = new Connect4Model(rowSize, colSize, winSize);
+    Tally tally = new Tally();
+    model.joinGame(tally);
+    ComputerPlayer first = player1.create(rowSize, colSize, seed,
+        nodesPerMove);
+    ComputerPlayer second = player2.create(rowSize, colSize, ~seed,
+        nodesPerMove);
+    ComputerPlayer fallback = new RandomPlayer(seed * 31);
+    long taken;
+    while ((taken = nextGame.getAndAdd(CHUNK)) < games) {
+      for (long n = taken; n < Math.min(games, taken + CHUNK); n++) {
+        model.startGame(tally, GameEnums.GameType.TWOPLAYER);
+        while (model.isGameStarted()) {
+          ComputerPlayer player = model.getNextTurn()
+              == GameEnums.PlayerType.PLAYER1 ? first : second;
+          int col = player.chooseColumn(model);
+          if (col < 0 || col >= colSize || model.isColumnFull(col)) {
+            col = fallback.chooseColumn(model);
+          }
+          model.playMove(0, col);
+        }
+      }
+    }
+    return tally;
+  }
+
+  /**
+   * Listener counting the moves and results of the games of one thread.
+   */
+  private static final class Tally implements Connect4Listener {
+    private long moves;
+    private long player1Wins;
+    private long player2Wins;
+    private long draws;
+
+    @Override
+    public void gameStarted(GameEnums.PlayerType turn,
+        GameEnums.GameType gameType, Connect4Model model) {
+    }
+
+    @Override
+    public void gameStopped(Connect4Model model) {
+    }
+
+    @Override
+    public void playNextMove(int row, int col, GameEnums.PlayerType owner,
+        Connect4Model model) {
+      moves++;
+    }
+
+    @Override
+    public void gameWon(int row, int col, GameEnums.PlayerType owner,
+        Connect4Model model) {
+      if (owner == GameEnums.PlayerType.PLAYER1) {
+        player1Wins++;
+      } else {
+        player2Wins++;
+      }
+    }
+
+    @Override
+    public void gameDraw(Connect4Model model) {
+      draws++;
+    }
+  }
+}
@@ -0,0 +1,260 @@
+package edu.nyu.pqs.connect4.sim;
+
+import java.util.Arrays;
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.GameEnums;
+
+/**
+ * Many independent games of the same size played in lockstep, each a BitBoard
+ * position stored struct of arrays style: the stones of the player to move
+ * and the occupied cells of game i are current[i] and mask[i]. play() takes
+ * one column per game, moves every game still in play and checks all of them
+ * for a win with the same shifts and ands on every game, so the work runs on
+ * whole vectors of games with the jdk.incubator.vector module and in a plain
+ * loop without it. The module is used when the JVM runs with --add-modules
+ * jdk.incubator.vector. Not safe to share between threads.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class BoardBatch {
+  private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot()
+      .findModule("jdk.incubator.vector").isPresent();
+  private static final byte INPLAY = 0;
+  private static final byte DRAW = 3;
+  private final int ROWSIZE;
+  private final int COLUMNSIZE;
+  private final int WINNINGSIZE;
+  private final int COLUMNHEIGHT;
+  private final int GAMES;
+  private final BatchKernel kernel;
+  private final long[] current;
+  private final long[] mask;
+  private final long[] bottoms;
+  private final long[] active;
+  private final long[] won;
+  private final byte[] results;
+  private final int[] moves;
+  private int inPlay;
+  private int ply;
+
+  /**
+   * Constructor of the BoardBatch. Uses the Vector API when it is available.
+   *
+   * @param rowSize Number of Rows of the games
+   * @param colSize Number of Columns of the games
+   * @param winSize Winning Size of the games
+   * @param games Number of games
+   * @throws IllegalArgumentException if the grid does not fit in a BitBoard
+   *           or winSize/games is not positive
+   */
+  public BoardBatch(int rowSize, int colSize, int winSize, int games) {
+    this(rowSize, colSize, winSize, games, VECTOR_AVAILABLE);
+  }
+
+  /**
+   * Constructor of the BoardBatch.
+   *
+   * @param rowSize Number of Rows of the games
+   * @param colSize Number of Columns of the games
+   * @param winSize Winning Size of the games
+   * @param games Number of games
+   * @param vectorized true to use the Vector API, false for plain loops
+   * @throws IllegalArgumentException if the grid does not fit in a BitBoard
+   *           or winSize/games is not positive
+   * @throws IllegalStateException if vectorized and the Vector API is not
+   *           available
+   */
+  public BoardBatch(int rowSize, int colSize, int winSize, int games,
+      boolean vectorized) {
+    if (!BitBoard.fits(rowSize, colSize) || winSize <= 0 || games <= 0) {
+      throw new IllegalArgumentException("Invalid BoardBatch size");
+    }
+    if (vectorized && !VECTOR_AVAILABLE) {
+      throw new IllegalStateException("jdk.incubator.vector is not available");
+    }
+    ROWSIZE = rowSize;
+    COLUMNSIZE = colSize;
+    WINNINGSIZE = winSize;
+    COLUMNHEIGHT = rowSize + 1;
+    GAMES = games;
+    if (vectorized) {
+      kernel = new VectorBatchKernel(COLUMNHEIGHT, winSize);
+    } else {
+      kernel = new BatchKernel(COLUMNHEIGHT, winSize);
+    }
+    current = new long[games];
+    mask = new long[games];
+    bottoms = new long[games];
+    active = new long[games];
+    won = new long[games];
+    results = new byte[games];
+    moves = new int[games];
+    reset();
+  }
+
+  /**
+   * @return true if the JVM has the jdk.incubator.vector module
+   */
+  public static boolean isVectorAvailable() {
+    return VECTOR_AVAILABLE;
+  }
+
+  /**
+   * Starts every game again from the empty board.
+   */
+  public void reset() {
+    Arrays.fill(current, 0L);
+    Arrays.fill(mask, 0L);
+    Arrays.fill(active, -1L);
+    Arrays.fill(results, INPLAY);
+    Arrays.fill(moves, 0);
+    inPlay = GAMES;
+    ply = 0;
+  }
+
+  /**
+   * Plays one move in every game still in play, then ends the games the move
+   * won or filled.
+   *
+   * @param cols Column Location of the move of each game, ignored for the
+   *          games that are over
+   * @return Number of games still in play
+   * @throws NullPointerException if cols is Null
+   * @throws IllegalArgumentException if cols does not have one column per
+   *           game or a game in play cannot play its column
+   */
+  public int play(int[] cols) {
+    if (cols == null) {
+      throw new NullPointerException("Moves cannot be Null");
+    }
+    if (cols.length != GAMES) {
+      throw new IllegalArgumentException("One move per game is needed");
+    }
+    for (int i = 0; i < GAMES; i++) {
+      if (active[i] == 0L) {
+        bottoms[i] = 0L;
+      } else if (canPlay(i, cols[i])) {
+        bottoms[i] = 1L << (cols[i] * COLUMNHEIGHT);
+      } else {
+        throw new IllegalArgumentException("Invalid move in game " + i);
+      }
+    }
+    if (inPlay == 0) {
+      return 0;
+    }
+    kernel.play(current, mask, bottoms, active, 0, GAMES);
+    ply++;
+    int wins = kernel.findWins(current, mask, active, won, 0, GAMES);
+    boolean full = ply == ROWSIZE * COLUMNSIZE;
+    if (wins == 0 && !full) {
+      return inPlay;
+    }
+    byte winner = (byte) ((ply & 1) == 1 ? 1 : 2);
+    for (int i = 0; i < GAMES; i++) {
+      if (active[i] != 0L && (won[i] != 0L || full)) {
+        results[i] = won[i] != 0L ? winner : DRAW;
+        moves[i] = ply;
+        active[i] = 0L;
+        inPlay--;
+      }
+    }
+    return inPlay;
+  }
+
+  /**
+   * @param game Game number
+   * @param col Column Location
+   * @return true if the game is in play and the column is in bounds and not
+   *         full
+   */
+  public boolean canPlay(int game, int col) {
+    return active[game] != 0L && col >= 0 && col < COLUMNSIZE
+        && (mask[game] & (1L << (col * COLUMNHEIGHT + ROWSIZE - 1))) == 0;
+  }
+
+  /**
+   * @param game Game number
+   * @return true if the game is neither won nor drawn
+   */
+  public boolean isInPlay(int game) {
+    return results[game] == INPLAY;
+  }
+
+  /**
+   * @param game Game number
+   * @return true if the game ended with a full board
+   */
+  public boolean isDraw(int game) {
+    return results[game] == DRAW;
+  }
+
+  /**
+   * @param game Game number
+   * @return Winner of the game, PlayerType.NONE while in play or for a draw
+   */
+  public GameEnums.PlayerType getWinner(int game) {
+    if (results[game] == 1) {
+      return GameEnums.PlayerType.PLAYER1;
+    }
+    if (results[game] == 2) {
+      return GameEnums.PlayerType.PLAYER2;
+    }
+    return GameEnums.PlayerType.NONE;
+  }
+
+  /**
+   * @param game Game number
+   * @return Number of moves played in the game
+   */
+  public int getMoves(int game) {
+    return results[game] == INPLAY ? ply : moves[game];
+  }
+
+  /**
+   * @return Number of games neither won nor drawn
+   */
+  public int getInPlay() {
+    return inPlay;
+  }
+
+  /**
+   * @return Number of moves played by the games still in play
+   */
+  public int getPly() {
+    return ply;
+  }
+
+  /**
+   * @return true if the moves and win checks use the Vector API
+   */
+  public boolean isVectorized() {
+    return kernel.isVectorized();
+  }
+
+  public int getGAMES() {
+    return GAMES;
+  }
+
+  public int getROWSIZE() {
+    return ROWSIZE;
+  }
+
+  public int getCOLUMNSIZE() {
+    return COLUMNSIZE;
+  }
+
+  public int getWINNINGSIZE() {
+    return WINNINGSIZE;
+  }
+
+  /**
+   * @return String in format of "BoardBatch 6X7/4 of 4096 games, 130 in play
+   *         after 20 moves, vectorized"
+   */
+  public String toString() {
+    return "BoardBatch " + ROWSIZE + "X" + COLUMNSIZE + "/" + WINNINGSIZE
+        + " of " + GAMES + " games, " + inPlay + " in play after " + ply
+        + " moves, " + (isVectorized() ? "vectorized" : "scalar");
+  }
+}
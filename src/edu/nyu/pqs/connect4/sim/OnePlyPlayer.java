@@ -0,0 +1,49 @@
+package edu.nyu.pqs.connect4.sim;
+
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GridBoard;
+
+/**
+ * Plays a winning column if there is one, else blocks a column where the
+ * opponent would win, else plays a random column. Not safe to share between
+ * threads.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class OnePlyPlayer implements ComputerPlayer {
+  private final RandomPlayer randomPlayer;
+
+  /**
+   * Constructor of the OnePlyPlayer.
+   *
+   * @param seed Seed of the random columns
+   */
+  public OnePlyPlayer(long seed) {
+    randomPlayer = new RandomPlayer(seed);
+  }
+
+  /**
+   * @param model Reference to the model
+   * @return Column Location to play or -1 if all columns are full
+   */
+  @Override
+  public int chooseColumn(Connect4Model model) {
+    GridBoard position = model.getGridBoard();
+    int player = position.getPlayerToMove();
+    int block = -1;
+    for (int col = 0; col < position.getCOLUMNSIZE(); col++) {
+      if (!position.canPlay(col)) {
+        continue;
+      }
+      if (position.isWinningMove(col, player)) {
+        return col;
+      }
+      if (block < 0 && position.isWinningMove(col, 3 - player)) {
+        block = col;
+      }
+    }
+    return block >= 0 ? block : randomPlayer.chooseColumn(model);
+  }
+}
@@ -0,0 +1,45 @@
+package edu.nyu.pqs.connect4.sim;
+
+import java.util.SplittableRandom;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+
+/**
+ * Plays a random column that is not full. Not safe to share between threads.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class RandomPlayer implements ComputerPlayer {
+  private final SplittableRandom random;
+
+  /**
+   * Constructor of the RandomPlayer.
+   *
+   * @param seed Seed of the random columns
+   */
+  public RandomPlayer(long seed) {
+    random = new SplittableRandom(seed);
+  }
+
+  /**
+   * @param model Reference to the model
+   * @return Random Column Location that is not full or -1 if all are full
+   */
+  @Override
+  public int chooseColumn(Connect4Model model) {
+    int columns = model.getGRIDCOLUMNSIZE();
+    int col = random.nextInt(columns);
+    for (int i = 0; i < columns; i++) {
+      if (!model.isColumnFull(col)) {
+        return col;
+      }
+      col = random.nextInt(columns);
+    }
+    int[] legalColumns = model.getLegalColumns();
+    if (legalColumns.length == 0) {
+      return -1;
+    }
+    return legalColumns[random.nextInt(legalColumns.length)];
+  }
+}
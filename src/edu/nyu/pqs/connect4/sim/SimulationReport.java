@@ -0,0 +1,121 @@
+package edu.nyu.pqs.connect4.sim;
+
+/**
+ * Totals of a batch of simulated games.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class SimulationReport {
+  private final long games;
+  private final long moves;
+  private final long player1Wins;
+  private final long player2Wins;
+  private final long draws;
+  private final long nanos;
+
+  /**
+   * Constructor of the SimulationReport.
+   *
+   * @param games Number of games played
+   * @param moves Number of moves played over all games
+   * @param player1Wins Number of games won by the first player
+   * @param player2Wins Number of games won by the second player
+   * @param draws Number of drawn games
+   * @param nanos Wall clock time of the batch in nanoseconds
+   */
+  public SimulationReport(long games, long moves, long player1Wins,
+      long player2Wins, long draws, long nanos) {
+    this.games = games;
+    this.moves = moves;
+    this.player1Wins = player1Wins;
+    this.player2Wins = player2Wins;
+    this.draws = draws;
+    this.nanos = nanos;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  public long getMoves() {
+    return moves;
+  }
+
+  public long getPlayer1Wins() {
+    return player1Wins;
+  }
+
+  public long getPlayer2Wins() {
+    return player2Wins;
+  }
+
+  public long getDraws() {
+    return draws;
+  }
+
+  public long getNanos() {
+    return nanos;
+  }
+
+  /**
+   * @return Games played per second of wall clock time
+   */
+  public double getGamesPerSecond() {
+    return perSecond(games);
+  }
+
+  /**
+   * @return Moves played per second of wall clock time
+   */
+  public double getMovesPerSecond() {
+    return perSecond(moves);
+  }
+
+  /**
+   * @return Average number of moves per game
+   */
+  public double getAverageGameLength() {
+    return games == 0 ? 0 : (double) moves / games;
+  }
+
+  /**
+   * @return Share of the games won by the first player
+   */
+  public double getPlayer1WinRatio() {
+    return ratio(player1Wins);
+  }
+
+  /**
+   * @return Share of the games won by the second player
+   */
+  public double getPlayer2WinRatio() {
+    return ratio(player2Wins);
+  }
+
+  /**
+   * @return Share of the games drawn
+   */
+  public double getDrawRatio() {
+    return ratio(draws);
+  }
+
+  private double perSecond(long count) {
+    return nanos == 0 ? 0 : count * 1e9 / nanos;
+  }
+
+  private double ratio(long count) {
+    return games == 0 ? 0 : (double) count / games;
+  }
+
+  /**
+   * @return String with the totals, rates and ratios of the batch
+   */
+  public String toString() {
+    return String.format("%d games in %.2f s: %.0f games/s, %.0f moves/s, "
+        + "player1 %.3f, player2 %.3f, draw %.3f, %.2f moves/game", games,
+        nanos / 1e9, getGamesPerSecond(), getMovesPerSecond(),
+        getPlayer1WinRatio(), getPlayer2WinRatio(), getDrawRatio(),
+        getAverageGameLength());
+  }
+}
@@ -0,0 +1,61 @@
+package edu.nyu.pqs.connect4.sim;
+
+import edu.nyu.pqs.connect4.engine.IterativeDeepening;
+import edu.nyu.pqs.connect4.engine.MctsPlayer;
+import edu.nyu.pqs.connect4.engine.NegamaxSolver;
+import edu.nyu.pqs.connect4.engine.TranspositionTable;
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+
+/**
+ * Players the BatchSimulator can pit against each other.
+ *
+ * @author ajaykhanna
+ *
+ */
+public enum Strategy {
+  /**
+   * Random column.
+   */
+  RANDOM,
+  /**
+   * Win or block in one move, else random.
+   */
+  ONEPLY,
+  /**
+   * Iterative deepening solver when the grid fits in a BitBoard, else Monte
+   * Carlo tree search, with a per move budget.
+   */
+  ENGINE;
+
+  private static final int ENGINE_TABLE_MEGABYTES = 4;
+  private static final int ENGINE_TREE_NODES = 100000;
+  private static final long ENGINE_MILLIS_PER_MOVE = 1000;
+
+  /**
+   * Creates a player for one thread.
+   *
+   * @param rowSize Number of Rows of the games
+   * @param colSize Number of Columns of the games
+   * @param seed Seed of the random choices
+   * @param nodesPerMove Node or playout budget of an ENGINE per move
+   * @return The player
+   */
+  public ComputerPlayer create(int rowSize, int colSize, long seed,
+      long nodesPerMove) {
+    switch (this) {
+    case RANDOM:
+      return new RandomPlayer(seed);
+    case ONEPLY:
+      return new OnePlyPlayer(seed);
+    default:
+      if (BitBoard.fits(rowSize, colSize)) {
+        return new IterativeDeepening(new NegamaxSolver(Long.MAX_VALUE,
+            new TranspositionTable(ENGINE_TABLE_MEGABYTES)),
+            ENGINE_MILLIS_PER_MOVE, nodesPerMove);
+      }
+      return new MctsPlayer(1, ENGINE_TREE_NODES, ENGINE_MILLIS_PER_MOVE,
+          nodesPerMove);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package edu.nyu.pqs.connect4.sim;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * BatchKernel running the steps on as many games at a time as the preferred
+ * LongVector holds, the games past the last full vector in plain Java. Only
+ * loaded when the jdk.incubator.vector module is present, see BoardBatch.
+ *
+ * @author ajaykhanna
+ *
+ */
+final class VectorBatchKernel extends BatchKernel {
+  private static final VectorSpecies<Long> SPECIES =
+      LongVector.SPECIES_PREFERRED;
+
+  /**
+   * @param columnHeight Bits used per column (rowSize + 1)
+   * @param winSize Winning Size
+   */
+  VectorBatchKernel(int columnHeight, int winSize) {
+    super(columnHeight, winSize);
+  }
+
+  @Override
+  void play(long[] current, long[] mask, long[] bottoms, long[] active,
+      int from, int to) {
+    int i = from;
+    int bound = from + SPECIES.loopBound(to - from);
+    for (; i < bound; i += SPECIES.length()) {
+      LongVector m = LongVector.fromArray(SPECIES, mask, i);
+      LongVector a = LongVector.fromArray(SPECIES, active, i);
+      LongVector.fromArray(SPECIES, current, i).lanewise(VectorOperators.XOR,
+          m.and(a)).intoArray(current, i);
+      m.or(m.add(LongVector.fromArray(SPECIES, bottoms, i))).intoArray(mask,
+          i);
+    }
+    super.play(current, mask, bottoms, active, i, to);
+  }
+
+  @Override
+  int findWins(long[] current, long[] mask, long[] active, long[] won,
+      int from, int to) {
+    int wins = 0;
+    int i = from;
+    int bound = from + SPECIES.loopBound(to - from);
+    LongVector none = LongVector.zero(SPECIES);
+    for (; i < bound; i += SPECIES.length()) {
+      LongVector stones = LongVector.fromArray(SPECIES, current, i).lanewise(
+          VectorOperators.XOR, LongVector.fromArray(SPECIES, mask, i)).and(
+          LongVector.fromArray(SPECIES, active, i));
+      LongVector any = none;
+      for (int[] shifts : folds) {
+        LongVector runs = stones;
+        for (int shift : shifts) {
+          runs = runs.and(runs.lanewise(VectorOperators.LSHR, shift));
+        }
+        any = any.or(runs);
+      }
+      VectorMask<Long> wonLanes = any.compare(VectorOperators.NE, 0L);
+      none.blend(-1L, wonLanes).intoArray(won, i);
+      wins += wonLanes.trueCount();
+    }
+    return wins + super.findWins(current, mask, active, won, i, to);
+  }
+
+  @Override
+  boolean isVectorized() {
+    return true;
+  }
+}
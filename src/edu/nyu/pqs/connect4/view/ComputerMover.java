@@ -0,0 +1,143 @@
+package edu.nyu.pqs.connect4.view;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.swing.SwingUtilities;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums;
+
+/**
+ * Plays the computer moves of a GameType.SINGLEPLAYER game without blocking
+ * the Swing event thread. The model must have automatic computer moves off
+ * and no computer player of its own. Once the player's move has been shown
+ * the ComputerPlayer is asked for the reply on a background thread, and the
+ * chosen column is played back on the event thread, so the model and every
+ * view are only ever changed by the event thread. The GameGrid ignores
+ * clicks while the computer is to move, which keeps the model still during
+ * the search. A reply to a position that changed meanwhile is dropped.
+ *
+ * @author ajaykhanna
+ *
+ */
+public class ComputerMover implements Connect4Listener {
+  private final Connect4Model model;
+  private final ComputerPlayer player;
+  private final ExecutorService executor;
+  private boolean thinking;
+
+  /**
+   * Constructor of the ComputerMover. It joins the game of the model.
+   *
+   * @param model Reference to the model
+   * @param player The strategy choosing the computer moves
+   * @throws NullPointerException if model/player is Null
+   */
+  public ComputerMover(Connect4Model model, ComputerPlayer player) {
+    if (model == null || player == null) {
+      throw new NullPointerException("Model and player cannot be Null");
+    }
+    this.model = model;
+    this.player = player;
+    executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "connect4-computer-move");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    model.joinGame(this);
+  }
+
+  /**
+   * Starts the search of the computer move if the computer is to move and no
+   * search is running. Must be called on the event thread.
+   */
+  private void moveIfComputerTurn() {
+    if (thinking || !model.isComputerTurn()) {
+      return;
+    }
+    thinking = true;
+    final int movesPlayed = model.getMovesPlayed();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        int col;
+        try {
+          col = player.chooseColumn(model);
+        } catch (RuntimeException e) {
+          col = -1;
+        }
+        final int chosen = col;
+        SwingUtilities.invokeLater(new Runnable() {
+          @Override
+          public void run() {
+            play(chosen, movesPlayed);
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Plays the chosen column on the event thread, or the model's default
+   * move if the player gave none, unless the position has changed.
+   *
+   * @param col Column Location chosen, or -1
+   * @param movesPlayed Number of moves played when the search started
+   */
+  private void play(int col, int movesPlayed) {
+    thinking = false;
+    if (!model.isComputerTurn() || model.getMovesPlayed() != movesPlayed) {
+      return;
+    }
+    if (col >= 0 && col < model.getGRIDCOLUMNSIZE()
+        && !model.isColumnFull(col)) {
+      model.playMove(model.getGRIDROWSIZE() - 1 - model.getColumnHeight(col),
+          col);
+    } else {
+      model.playComputerMove();
+    }
+  }
+
+  /**
+   * Checks for the computer's turn once the event in progress is over, when
+   * the model has passed the turn.
+   */
+  private void moveLater() {
+    SwingUtilities.invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        moveIfComputerTurn();
+      }
+    });
+  }
+
+  @Override
+  public void gameStarted(GameEnums.PlayerType turn,
+      GameEnums.GameType gameType, Connect4Model model) {
+    moveLater();
+  }
+
+  @Override
+  public void gameStopped(Connect4Model model) {
+  }
+
+  @Override
+  public void playNextMove(int row, int col, GameEnums.PlayerType owner,
+      Connect4Model model) {
+    moveLater();
+  }
+
+  @Override
+  public void gameWon(int row, int col, GameEnums.PlayerType owner,
+      Connect4Model model) {
+  }
+
+  @Override
+  public void gameDraw(Connect4Model model) {
+  }
+}
@@ -1,12 +1,32 @@
 package edu.nyu.pqs.connect4.view;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import edu.nyu.pqs.connect4.engine.IterativeDeepening;
+import edu.nyu.pqs.connect4.engine.NegamaxSolver;
+import edu.nyu.pqs.connect4.engine.OpeningBook;
+import edu.nyu.pqs.connect4.engine.OpeningBookPlayer;
+import edu.nyu.pqs.connect4.engine.TranspositionTable;
+import edu.nyu.pqs.connect4.model.ComputerPlayer;
 import edu.nyu.pqs.connect4.model.Connect4Model;
 
 public class Connect4Game {
 
   public static void main(String[] args) {
     final Connect4Model c4m = new Connect4Model(6, 7, 4);
+    ComputerPlayer player = new IterativeDeepening(new NegamaxSolver(
+        Long.MAX_VALUE, new TranspositionTable(16)), 1000, 2000000);
+    if (args.length > 0) {
+      try {
+        player = new OpeningBookPlayer(new OpeningBook(Paths.get(args[0])),
+            player);
+      } catch (IOException e) {
+        System.err.println("Opening book not loaded: " + e.getMessage());
+      }
+    }
+    c4m.setAutoComputerMove(false);
     new Connect4View(c4m, GameSettings.getInstance());
+    new ComputerMover(c4m, player);
     c4m.joinGame(GameStats.getInstance());
   }
 }
@@ -12,6 +12,7 @@ import javax.swing.JRadioButton;
 import edu.nyu.pqs.connect4.listener.Connect4Listener;
 import edu.nyu.pqs.connect4.model.Connect4Model;
 import edu.nyu.pqs.connect4.model.GameEnums;
+import edu.nyu.pqs.connect4.model.GameSnapshot;
 
 /**
  * The view that implemented Connect4Listener. It uses swing for GUI.
@@ -198,6 +199,78 @@ public class Connect4View implements Connect4Listener {
     setGameStateAfterEveryMove(owner);
   }
 
+  /**
+   * Sets the owner of the circles of the moves and repaints the grid once.
+   * 
+   * @throws NullPointerException if model/snapshot is null
+   */
+  @Override
+  public void playNextMoves(GameSnapshot snapshot, int firstMove,
+      Connect4Model model) {
+    if (model == null) {
+      throw new NullPointerException("Model cannot be null");
+    }
+    if (snapshot == null) {
+      throw new NullPointerException("Snapshot cannot be null");
+    }
+    int moves = snapshot.getMoveCount();
+    for (int i = firstMove; i < moves; i++) {
+      gameGrid.grid[gameGrid.gridPositionToCircle(snapshot.getMoveRow(i),
+          snapshot.getMoveCol(i))].setOwner(snapshot.getMoveOwner(i));
+    }
+    gameGrid.repaint();
+    if (moves > firstMove) {
+      setGameStateAfterEveryMove(snapshot.getMoveOwner(moves - 1));
+    }
+  }
+
+  /**
+   * Sets the owner of every circle and repaints the grid once.
+   * 
+   * @throws NullPointerException if model/snapshot is null
+   */
+  @Override
+  public void gameSnapshot(GameSnapshot snapshot, Connect4Model model) {
+    if (model == null) {
+      throw new NullPointerException("Model cannot be null");
+    }
+    if (snapshot == null) {
+      throw new NullPointerException("Snapshot cannot be null");
+    }
+    for (int row = 0; row < snapshot.getROWSIZE(); row++) {
+      for (int col = 0; col < snapshot.getCOLUMNSIZE(); col++) {
+        gameGrid.grid[gameGrid.gridPositionToCircle(row, col)]
+            .setOwner(snapshot.getOwner(row, col));
+      }
+    }
+    gameGrid.repaint();
+    int moves = snapshot.getMoveCount();
+    if (moves > 0) {
+      setGameStateAfterEveryMove(snapshot.getMoveOwner(moves - 1));
+    }
+  }
+
+  /**
+   * Empties the circle of the move and gives the turn back to its owner.
+   * 
+   * @throws NullPointerException if model/owner is null
+   */
+  @Override
+  public void moveRetracted(int row, int col, GameEnums.PlayerType owner,
+      GameEnums.PlayerType formerWinner, Connect4Model model) {
+    if (model == null) {
+      throw new NullPointerException("Model cannot be null");
+    }
+    if (owner == null) {
+      throw new NullPointerException("PlayerType cannot be null");
+    }
+    gameGrid.grid[gameGrid.gridPositionToCircle(row, col)]
+        .setOwner(GameEnums.PlayerType.NONE);
+    gameGrid.repaint();
+    startButton.setEnabled(false);
+    gameState.setText(gameSettings.getPlayer(owner).getName() + " Turn");
+  }
+
   /**
    * @throws NullPointerException if model/owner is null
    */
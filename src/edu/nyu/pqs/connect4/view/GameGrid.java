@@ -72,7 +72,7 @@ public class GameGrid extends JPanel {
             gridPos = i;
           }
         }
-        if (circleFound) {
+        if (circleFound && !connect4Model.isComputerTurn()) {
           connect4Model.playMove(rowFromGrid(gridPos), colFromGrid(gridPos));
         }
       }
@@ -1,86 +1,283 @@
 package edu.nyu.pqs.connect4.view;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import edu.nyu.pqs.connect4.listener.Connect4Listener;
 import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameSnapshot;
 import edu.nyu.pqs.connect4.model.GameEnums.GameType;
 import edu.nyu.pqs.connect4.model.GameEnums.PlayerType;
 
 /**
  * Logger view for keeping track of games among different models. It implements
  * Singleton.
- * 
+ *
+ * Counters are LongAdders, which spread concurrent updates over cells, so any
+ * number of models on any number of threads can share the instance, and
+ * snapshot() reads them all without stopping the games. The text log is
+ * optional and keeps only the latest messages in a ring of fixed capacity.
+ * The number of a game that ended is kept, weakly, until the model starts
+ * another game, so that a game put back in play by undoMove() keeps it.
+ *
  * @author ajaykhanna
- * 
+ *
  */
 public class GameStats implements Connect4Listener {
-  private Long gameNumber;
-  private final StringBuilder LOG;
-  private final Map<Connect4Model, Long> models;
-  private final static Connect4Listener LOGGER = new GameStats();
+  private static final int LENGTH_BUCKETS = 129;
+  private static final int DEFAULT_LOG_CAPACITY = 1024;
+  private final LongAdder gamesStarted;
+  private final LongAdder gamesStopped;
+  private final LongAdder player1Wins;
+  private final LongAdder player2Wins;
+  private final LongAdder draws;
+  private final LongAdder moves;
+  private final LongAdder[] gameLengths;
+  private final AtomicLong gameNumber;
+  private final ConcurrentMap<Connect4Model, Long> models;
+  private final Map<Connect4Model, Long> endedModels;
+  private volatile LogRing LOG;
+  private final static GameStats LOGGER = new GameStats();
 
   private GameStats() {
-    gameNumber = 0L;
-    LOG = new StringBuilder();
-    models = new HashMap<Connect4Model, Long>();
+    gamesStarted = new LongAdder();
+    gamesStopped = new LongAdder();
+    player1Wins = new LongAdder();
+    player2Wins = new LongAdder();
+    draws = new LongAdder();
+    moves = new LongAdder();
+    gameLengths = new LongAdder[LENGTH_BUCKETS];
+    for (int i = 0; i < LENGTH_BUCKETS; i++) {
+      gameLengths[i] = new LongAdder();
+    }
+    gameNumber = new AtomicLong();
+    models = new ConcurrentHashMap<Connect4Model, Long>();
+    endedModels = Collections.synchronizedMap(
+        new WeakHashMap<Connect4Model, Long>());
+    LOG = new LogRing(DEFAULT_LOG_CAPACITY);
   }
 
   public static Connect4Listener getInstance() {
     return LOGGER;
   }
 
+  /**
+   * @return The instance, typed for reading the statistics
+   */
+  public static GameStats getStats() {
+    return LOGGER;
+  }
+
+  /**
+   * Sets the number of messages the log keeps, dropping the current ones.
+   * With a capacity of 0 nothing is logged and games are not numbered.
+   *
+   * @param capacity Maximum number of messages kept
+   * @throws IllegalArgumentException if capacity is negative
+   */
+  public void setLogCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative");
+    }
+    models.clear();
+    endedModels.clear();
+    LOG = capacity == 0 ? null : new LogRing(capacity);
+  }
+
+  /**
+   * @return Copy of all the counters
+   */
+  public GameStatsSnapshot snapshot() {
+    long[] lengths = new long[LENGTH_BUCKETS];
+    for (int i = 0; i < LENGTH_BUCKETS; i++) {
+      lengths[i] = gameLengths[i].sum();
+    }
+    return new GameStatsSnapshot(gamesStarted.sum(), gamesStopped.sum(),
+        player1Wins.sum(), player2Wins.sum(), draws.sum(), moves.sum(),
+        lengths);
+  }
+
   @Override
   public void gameStarted(PlayerType turn, GameType gameType,
       Connect4Model model) {
-    if (models.containsKey(model)) {
-      LOG.append("Model is already present and accounted for. Model is related to Game "
-          + models.get(model) + ".\n");
-    } else {
-      models.put(model, ++gameNumber);
-      LOG.append("Game " + models.get(model) + ": " + "Started.\n");
+    gamesStarted.increment();
+    LogRing log = LOG;
+    if (log == null) {
+      return;
+    }
+    endedModels.remove(model);
+    Long number = models.get(model);
+    if (number == null) {
+      number = gameNumber.incrementAndGet();
+      Long existing = models.putIfAbsent(model, number);
+      if (existing == null) {
+        log.add("Game " + number + ": " + "Started.\n");
+        return;
+      }
+      number = existing;
     }
+    log.add("Model is already present and accounted for. "
+        + "Model is related to Game " + number + ".\n");
   }
 
   @Override
   public void gameStopped(Connect4Model model) {
-    if (models.containsKey(model)) {
-      LOG.append("Game " + models.get(model) + ": " + "Stopped.\n");
-      models.remove(model);
+    gamesStopped.increment();
+    LogRing log = LOG;
+    if (log == null) {
+      return;
+    }
+    Long number = models.remove(model);
+    if (number != null) {
+      log.add("Game " + number + ": " + "Stopped.\n");
     } else {
-      LOG.append("Model is already removed.\n");
+      log.add("Model is already removed.\n");
     }
   }
 
   @Override
   public void playNextMove(int row, int col, PlayerType owner,
       Connect4Model model) {
+    moves.increment();
+  }
+
+  @Override
+  public void playNextMoves(GameSnapshot snapshot, int firstMove,
+      Connect4Model model) {
+    moves.add(snapshot.getMoveCount() - firstMove);
+  }
+
+  /**
+   * Counts nothing, the moves of a game joined late were counted when they
+   * were played.
+   */
+  @Override
+  public void gameSnapshot(GameSnapshot snapshot, Connect4Model model) {
+  }
+
+  /**
+   * Takes the move back out of the count. If the move had ended the game,
+   * which undoMove() puts back in play, its win or draw and its length are
+   * taken back too, so a game won, undone and won again counts once, and the
+   * game gets its number back. A move that did not win ended the game only
+   * if it filled the grid.
+   */
+  @Override
+  public void moveRetracted(int row, int col, PlayerType owner,
+      PlayerType formerWinner, Connect4Model model) {
+    moves.decrement();
+    int length = model.getMovesPlayed() + 1;
+    if (formerWinner == PlayerType.PLAYER1) {
+      player1Wins.decrement();
+    } else if (formerWinner == PlayerType.PLAYER2) {
+      player2Wins.decrement();
+    } else if (length == model.getGRIDROWSIZE() * model.getGRIDCOLUMNSIZE()) {
+      draws.decrement();
+    } else {
+      return;
+    }
+    gameLengths[Math.min(length, LENGTH_BUCKETS - 1)].decrement();
+    LogRing log = LOG;
+    if (log == null) {
+      return;
+    }
+    Long number = endedModels.remove(model);
+    if (number != null) {
+      models.put(model, number);
+      log.add("Game " + number + ": " + "Resumed.\n");
+    }
   }
 
   @Override
   public void gameWon(int row, int col, PlayerType owner, Connect4Model model) {
-    if (models.containsKey(model)) {
-      LOG.append(owner + " Won the  game " + models.get(model) + " .\n");
-      models.remove(model);
+    if (owner == PlayerType.PLAYER1) {
+      player1Wins.increment();
     } else {
-      LOG.append("Model is already removed./n");
+      player2Wins.increment();
+    }
+    gameEnded(model);
+    LogRing log = LOG;
+    if (log == null) {
+      return;
+    }
+    Long number = models.remove(model);
+    if (number != null) {
+      endedModels.put(model, number);
+      log.add(owner + " Won the  game " + number + " .\n");
+    } else {
+      log.add("Model is already removed.\n");
     }
   }
 
   @Override
   public void gameDraw(Connect4Model model) {
-    if (models.containsKey(model)) {
-      LOG.append("Game " + models.get(model) + ": ended in a Draw.\n");
-      models.remove(model);
+    draws.increment();
+    gameEnded(model);
+    LogRing log = LOG;
+    if (log == null) {
+      return;
+    }
+    Long number = models.remove(model);
+    if (number != null) {
+      endedModels.put(model, number);
+      log.add("Game " + number + ": ended in a Draw.\n");
     } else {
-      LOG.append("Model is already removed.\n");
+      log.add("Model is already removed.\n");
     }
   }
 
   /**
-   * @return String form of LOG
+   * Counts the length of a game that just ended.
+   *
+   * @param model Reference to the model
+   */
+  private void gameEnded(Connect4Model model) {
+    gameLengths[Math.min(model.getMovesPlayed(), LENGTH_BUCKETS - 1)]
+        .increment();
+  }
+
+  /**
+   * @return String form of LOG, the oldest kept message first
    */
   public String toString() {
-    return LOG.toString();
+    LogRing log = LOG;
+    return log == null ? "" : log.toString();
+  }
+
+  /**
+   * Fixed number of the latest messages. Writers claim a slot with one atomic
+   * increment and overwrite the oldest message.
+   */
+  private static final class LogRing {
+    private final AtomicReferenceArray<String> messages;
+    private final AtomicLong next;
+
+    LogRing(int capacity) {
+      messages = new AtomicReferenceArray<String>(capacity);
+      next = new AtomicLong();
+    }
+
+    void add(String message) {
+      long slot = next.getAndIncrement();
+      messages.set((int) (slot % messages.length()), message);
+    }
+
+    public String toString() {
+      long end = next.get();
+      StringBuilder text = new StringBuilder();
+      long start = Math.max(0, end - messages.length());
+      for (long slot = start; slot < end; slot++) {
+        String message = messages.get((int) (slot % messages.length()));
+        if (message != null) {
+          text.append(message);
+        }
+      }
+      return text.toString();
+    }
   }
 }
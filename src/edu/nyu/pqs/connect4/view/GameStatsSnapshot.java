@@ -0,0 +1,105 @@
+package edu.nyu.pqs.connect4.view;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of the counters of GameStats at one point in time. Counters
+ * are read one after the other while games go on, so a snapshot taken under
+ * load can be off by the few events that happened while it was taken.
+ *
+ * @author ajaykhanna
+ *
+ */
+public final class GameStatsSnapshot {
+  private final long gamesStarted;
+  private final long gamesStopped;
+  private final long player1Wins;
+  private final long player2Wins;
+  private final long draws;
+  private final long moves;
+  private final long[] gameLengths;
+
+  /**
+   * Constructor of the GameStatsSnapshot.
+   *
+   * @param gamesStarted Number of games started
+   * @param gamesStopped Number of games left by a listener
+   * @param player1Wins Number of games won by PLAYER1
+   * @param player2Wins Number of games won by PLAYER2
+   * @param draws Number of drawn games
+   * @param moves Number of moves played
+   * @param gameLengths Number of finished games by number of moves, the last
+   *          bucket counting all the longer games
+   */
+  public GameStatsSnapshot(long gamesStarted, long gamesStopped,
+      long player1Wins, long player2Wins, long draws, long moves,
+      long[] gameLengths) {
+    this.gamesStarted = gamesStarted;
+    this.gamesStopped = gamesStopped;
+    this.player1Wins = player1Wins;
+    this.player2Wins = player2Wins;
+    this.draws = draws;
+    this.moves = moves;
+    this.gameLengths = Arrays.copyOf(gameLengths, gameLengths.length);
+  }
+
+  public long getGamesStarted() {
+    return gamesStarted;
+  }
+
+  public long getGamesStopped() {
+    return gamesStopped;
+  }
+
+  public long getPlayer1Wins() {
+    return player1Wins;
+  }
+
+  public long getPlayer2Wins() {
+    return player2Wins;
+  }
+
+  public long getDraws() {
+    return draws;
+  }
+
+  public long getMoves() {
+    return moves;
+  }
+
+  /**
+   * @return Number of games that ended in a win or a draw
+   */
+  public long getGamesFinished() {
+    return player1Wins + player2Wins + draws;
+  }
+
+  /**
+   * @param moves Number of moves
+   * @return Number of finished games of that length, or of at least that
+   *         length for the last bucket
+   */
+  public long getGamesOfLength(int moves) {
+    if (moves < 0) {
+      return 0;
+    }
+    return gameLengths[Math.min(moves, gameLengths.length - 1)];
+  }
+
+  /**
+   * @return Copy of the game length histogram
+   */
+  public long[] getGameLengths() {
+    return Arrays.copyOf(gameLengths, gameLengths.length);
+  }
+
+  /**
+   * @return String in format of "started 10, stopped 1, PLAYER1 5, PLAYER2 3,
+   *         draw 1, moves 250"
+   */
+  public String toString() {
+    return "started " + gamesStarted + ", stopped " + gamesStopped
+        + ", PLAYER1 " + player1Wins + ", PLAYER2 " + player2Wins + ", draw "
+        + draws + ", moves " + moves;
+  }
+}
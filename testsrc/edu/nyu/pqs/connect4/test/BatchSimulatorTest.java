@@ -0,0 +1,41 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.sim.BatchSimulator;
+import edu.nyu.pqs.connect4.sim.SimulationReport;
+import edu.nyu.pqs.connect4.sim.Strategy;
+
+public class BatchSimulatorTest {
+
+  @Test
+  public void testRunCountsEveryGame() {
+    SimulationReport report = new BatchSimulator(6, 7, 4, Strategy.RANDOM,
+        Strategy.RANDOM, 2, 1000).run(1000);
+    assertEquals(report.getGames(), 1000);
+    assertEquals(report.getPlayer1Wins() + report.getPlayer2Wins()
+        + report.getDraws(), 1000);
+    assertTrue(report.getAverageGameLength() >= 7);
+    assertTrue(report.getAverageGameLength() <= 42);
+    assertTrue(report.getGamesPerSecond() > 0);
+  }
+
+  @Test
+  public void testOnePlyBeatsRandom() {
+    SimulationReport report = new BatchSimulator(6, 7, 4, Strategy.ONEPLY,
+        Strategy.RANDOM, 1, 1000).run(500);
+    assertTrue(report.getPlayer1WinRatio() > 0.8);
+  }
+
+  @Test
+  public void testEngineOnLargeBoard() {
+    SimulationReport report = new BatchSimulator(10, 12, 5, Strategy.ENGINE,
+        Strategy.RANDOM, 1, 500).run(2);
+    assertEquals(report.getPlayer1Wins(), 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidThreads() {
+    new BatchSimulator(6, 7, 4, Strategy.RANDOM, Strategy.RANDOM, 0, 1000);
+  }
+}
@@ -0,0 +1,97 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.util.Random;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.GameEnums.PlayerType;
+import edu.nyu.pqs.connect4.sim.BoardBatch;
+
+public class BoardBatchTest {
+
+  /**
+   * Plays random games in the batch and one BitBoard per game side by side
+   * and compares every result.
+   */
+  private static void playRandomGames(int rows, int cols, int win,
+      boolean vectorized) {
+    int games = 101;
+    BoardBatch batch = new BoardBatch(rows, cols, win, games, vectorized);
+    assertEquals(batch.isVectorized(), vectorized);
+    BitBoard[] boards = new BitBoard[games];
+    for (int i = 0; i < games; i++) {
+      boards[i] = new BitBoard(rows, cols, win);
+    }
+    Random random = new Random(rows * 31 + cols * 7 + win);
+    int[] moves = new int[games];
+    while (batch.getInPlay() > 0) {
+      for (int i = 0; i < games; i++) {
+        if (batch.isInPlay(i)) {
+          do {
+            moves[i] = random.nextInt(cols);
+          } while (!batch.canPlay(i, moves[i]));
+          boards[i].play(moves[i]);
+        }
+      }
+      batch.play(moves);
+      for (int i = 0; i < games; i++) {
+        BitBoard board = boards[i];
+        boolean over = board.lastMoverWon() || board.isFull();
+        assertEquals(batch.isInPlay(i), !over);
+        assertEquals(batch.getMoves(i), board.getMoves());
+        PlayerType winner = PlayerType.NONE;
+        if (board.lastMoverWon()) {
+          winner = board.getMoves() % 2 == 1 ? PlayerType.PLAYER1
+              : PlayerType.PLAYER2;
+        }
+        assertEquals(batch.getWinner(i), winner);
+        assertEquals(batch.isDraw(i), over && winner == PlayerType.NONE);
+      }
+    }
+  }
+
+  @Test
+  public void testScalarMatchesBitBoard() {
+    playRandomGames(6, 7, 4, false);
+    playRandomGames(4, 5, 3, false);
+    playRandomGames(7, 8, 5, false);
+  }
+
+  @Test
+  public void testVectorMatchesBitBoard() {
+    if (!BoardBatch.isVectorAvailable()) {
+      return;
+    }
+    playRandomGames(6, 7, 4, true);
+    playRandomGames(4, 5, 3, true);
+    playRandomGames(7, 8, 5, true);
+  }
+
+  @Test
+  public void testAlignmentLongerThanWord() {
+    long bottomRow = 0;
+    for (int col = 0; col < 8; col++) {
+      bottomRow |= 1L << (col * 8);
+    }
+    assertFalse(BitBoard.hasAlignment(bottomRow, 8, 16));
+    assertFalse(BitBoard.hasAlignment(bottomRow, 8, 9));
+    playRandomGames(7, 8, 16, false);
+    if (BoardBatch.isVectorAvailable()) {
+      playRandomGames(7, 8, 16, true);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFullColumn() {
+    BoardBatch batch = new BoardBatch(2, 3, 3, 2);
+    int[] moves = { 0, 1 };
+    batch.play(moves);
+    batch.play(moves);
+    batch.play(moves);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBoardTooLarge() {
+    new BoardBatch(10, 12, 5, 8);
+  }
+}
@@ -3,8 +3,10 @@ package edu.nyu.pqs.connect4.test;
 import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
+import edu.nyu.pqs.connect4.engine.MctsPlayer;
 import edu.nyu.pqs.connect4.listener.Connect4Listener;
 import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameSnapshot;
 import edu.nyu.pqs.connect4.model.GameEnums.GameType;
 import edu.nyu.pqs.connect4.model.GameEnums.PlayerType;
 
@@ -19,6 +21,8 @@ public class Connect4ModelTest {
     public boolean gameDraw;
     public int row;
     public int col;
+    public int moves;
+    public GameSnapshot snapshot;
 
     @Override
     public void playNextMove(int row, int col, PlayerType owner,
@@ -26,6 +30,7 @@ public class Connect4ModelTest {
       this.owner = owner;
       this.row = row;
       this.col = col;
+      this.moves++;
     }
 
     @Override
@@ -235,4 +240,252 @@ public class Connect4ModelTest {
     assertTrue(c4l.gameDraw);
   }
 
+  @Test
+  public void testPlayMoveForPlayer1WinningDiagonally() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    int[] cols = { 0, 1, 1, 2, 2, 3, 2, 3, 6, 3, 3 };
+    for (int col : cols) {
+      c4m.playMove(0, col);
+    }
+    assertEquals(c4l.owner, PlayerType.PLAYER1);
+    assertTrue(c4l.gameWon);
+  }
+
+  @Test
+  public void testPlayMoveForVerticalWinOnLargeBoard() {
+    c4m = new Connect4Model(10, 12, 5);
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    for (int i = 0; i < 4; i++) {
+      c4m.playMove(0, 11);
+      c4m.playMove(0, 0);
+    }
+    assertTrue(!c4l.gameWon);
+    c4m.playMove(0, 11);
+    assertEquals(c4l.owner, PlayerType.PLAYER1);
+    assertEquals(c4l.row, 5);
+    assertTrue(c4l.gameWon);
+  }
+
+  @Test
+  public void testConnect6HorizontalWinAfterUndoOnLargeBoard() {
+    c4m = new Connect4Model(10, 12, 6);
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    for (int col = 0; col < 5; col++) {
+      c4m.playMove(0, col);
+      c4m.playMove(0, col);
+    }
+    assertTrue(!c4l.gameWon);
+    c4m.playMove(0, 5);
+    assertTrue(c4l.gameWon);
+    assertEquals(c4m.getWinner(), PlayerType.PLAYER1);
+    c4l.gameWon = false;
+    assertTrue(c4m.undoMove());
+    c4m.playMove(0, 11);
+    c4m.playMove(0, 5);
+    c4m.playMove(0, 11);
+    assertTrue(!c4l.gameWon);
+    c4m.playMove(0, 5);
+    assertTrue(c4l.gameWon);
+    assertEquals(c4m.getWinner(), PlayerType.PLAYER2);
+  }
+
+  @Test
+  public void testColumnHeightsAndLegalColumns() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    for (int i = 0; i < 6; i++) {
+      c4m.playMove(0, 2);
+    }
+    assertEquals(c4m.getColumnHeight(2), 6);
+    assertTrue(c4m.isColumnFull(2));
+    assertArrayEquals(c4m.getLegalColumns(), new int[] { 0, 1, 3, 4, 5, 6 });
+    assertTrue(!c4m.playMove(0, 2));
+  }
+
+  @Test
+  public void testSinglePlayerComputerMoves() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.SINGLEPLAYER);
+    c4m.playMove(0, 3);
+    assertEquals(c4l.owner, PlayerType.PLAYER2);
+    assertEquals(c4m.getNextTurn(), PlayerType.PLAYER1);
+    int discs = 0;
+    for (int col = 0; col < c4m.getGRIDCOLUMNSIZE(); col++) {
+      discs += c4m.getColumnHeight(col);
+    }
+    assertEquals(discs, 2);
+  }
+
+  @Test
+  public void testSinglePlayerMctsBlocksOnLargeBoard() {
+    c4m = new Connect4Model(10, 12, 5);
+    c4m.setComputerPlayer(new MctsPlayer(1, 10000, 10000, 5000));
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.SINGLEPLAYER);
+    assertTrue(c4m.getBitBoard() == null);
+    for (int i = 0; i < 5; i++) {
+      c4m.playMove(0, 11);
+    }
+    assertTrue(!c4l.gameWon);
+    assertEquals(c4m.getGridBoard().getMoves(), 10);
+  }
+
+  @Test
+  public void testLateJoinGetsOneSnapshot() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    c4m.playMove(0, 3);
+    c4m.playMove(0, 3);
+    c4m.playMove(0, 0);
+    TestConnect4View late = new TestConnect4View() {
+      @Override
+      public void gameSnapshot(GameSnapshot snapshot, Connect4Model model) {
+        this.snapshot = snapshot;
+      }
+    };
+    c4m.joinGame(late);
+    assertTrue(late.gameStarted);
+    assertEquals(late.moves, 0);
+    assertEquals(late.snapshot.getMoveCount(), 3);
+    assertEquals(late.snapshot.getOwner(4, 3), PlayerType.PLAYER2);
+    assertEquals(late.snapshot.getOwner(5, 0), PlayerType.PLAYER1);
+    assertEquals(late.snapshot.getOwner(3, 3), PlayerType.NONE);
+    assertEquals(late.snapshot.getNextTurn(), PlayerType.PLAYER2);
+  }
+
+  @Test
+  public void testLateJoinDefaultReplaysInPlayOrder() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    c4m.playMove(0, 3);
+    c4m.playMove(0, 0);
+    c4m.playMove(0, 3);
+    TestConnect4View late = new TestConnect4View();
+    c4m.joinGame(late);
+    assertEquals(late.moves, 3);
+    assertEquals(late.row, 4);
+    assertEquals(late.col, 3);
+    assertEquals(late.owner, PlayerType.PLAYER1);
+  }
+
+  @Test
+  public void testPlayMovesWinsWithOneBatchEvent() {
+    final int[] batches = new int[1];
+    TestConnect4View view = new TestConnect4View() {
+      @Override
+      public void playNextMoves(GameSnapshot snapshot, int firstMove,
+          Connect4Model model) {
+        batches[0]++;
+        this.moves += snapshot.getMoveCount() - firstMove;
+      }
+    };
+    c4m.joinGame(view);
+    c4m.startGame(view, GameType.TWOPLAYER);
+    c4m.playMove(0, 6);
+    assertTrue(c4m.playMoves(new int[] { 2, 0, 3, 0, 4, 0, 5 }));
+    assertEquals(batches[0], 1);
+    assertEquals(view.moves, 8);
+    assertTrue(view.gameWon);
+    assertEquals(view.owner, PlayerType.PLAYER2);
+    assertEquals(c4m.getMovesPlayed(), 8);
+    assertTrue(!c4m.isGameStarted());
+  }
+
+  @Test
+  public void testPlayMovesRejectsWholeSequence() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    assertTrue(!c4m.playMoves(new int[] { 0, 1, 0, 1, 0, 1, 0, 1 }));
+    assertTrue(!c4m.playMoves(new int[] { 2, 2, 2, 2, 2, 2, 2 }));
+    assertEquals(c4m.getMovesPlayed(), 0);
+    assertEquals(c4l.moves, 0);
+    assertEquals(c4m.getNextTurn(), PlayerType.PLAYER1);
+    assertTrue(c4m.playMoves(new int[] { 0, 1, 0 }));
+    assertEquals(c4l.moves, 3);
+    assertEquals(c4l.row, 4);
+    assertEquals(c4l.col, 0);
+    assertEquals(c4m.getNextTurn(), PlayerType.PLAYER2);
+    assertTrue(c4m.playMove(0, 1));
+    assertEquals(c4m.getColumnHeight(1), 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPlayMovesOutOfBounds() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    c4m.playMoves(new int[] { 0, 7 });
+  }
+
+  @Test
+  public void testUndoRedo() {
+    final int[] retracted = new int[1];
+    TestConnect4View view = new TestConnect4View() {
+      @Override
+      public void moveRetracted(int row, int col, PlayerType owner,
+          PlayerType formerWinner, Connect4Model model) {
+        retracted[0]++;
+        this.owner = owner;
+        this.row = row;
+        this.col = col;
+      }
+    };
+    c4m.joinGame(view);
+    c4m.startGame(view, GameType.TWOPLAYER);
+    assertTrue(!c4m.undoMove());
+    assertTrue(c4m.playMoves(new int[] { 3, 4, 3, 4, 3, 4, 3 }));
+    assertTrue(view.gameWon);
+    assertTrue(!c4m.isGameStarted());
+    assertTrue(c4m.undoMove());
+    assertEquals(retracted[0], 1);
+    assertEquals(view.owner, PlayerType.PLAYER1);
+    assertEquals(view.row, 2);
+    assertEquals(view.col, 3);
+    assertTrue(c4m.isGameStarted());
+    assertEquals(c4m.getNextTurn(), PlayerType.PLAYER1);
+    assertEquals(c4m.getWinner(), PlayerType.NONE);
+    assertEquals(c4m.getMovesPlayed(), 6);
+    assertEquals(c4m.getRedoableMoves(), 1);
+    long key = c4m.getBitBoard().key();
+    assertTrue(c4m.undoMove());
+    assertTrue(c4m.redoMove());
+    assertEquals(c4m.getBitBoard().key(), key);
+    assertEquals(c4m.getGridBoard().getMoves(), 6);
+    view.gameWon = false;
+    assertTrue(c4m.redoMove());
+    assertTrue(view.gameWon);
+    assertEquals(c4m.getWinner(), PlayerType.PLAYER1);
+    assertTrue(!c4m.redoMove());
+    assertTrue(c4m.undoMove());
+    assertTrue(c4m.playMove(0, 0));
+    assertEquals(c4m.getRedoableMoves(), 0);
+  }
+
+  @Test
+  public void testUndoAfterEveryoneLeft() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    assertTrue(c4m.playMoves(new int[] { 3, 4, 3, 4, 3, 4, 3 }));
+    assertTrue(c4m.exitGame(c4l));
+    assertTrue(!c4m.undoMove());
+    assertTrue(!c4m.isGameStarted());
+    assertEquals(c4m.getWinner(), PlayerType.PLAYER1);
+    assertEquals(c4m.getMovesPlayed(), 7);
+  }
+
+  @Test
+  public void testUndoReopensFullColumn() {
+    c4m.joinGame(c4l);
+    c4m.startGame(c4l, GameType.TWOPLAYER);
+    assertTrue(c4m.playMoves(new int[] { 6, 6, 6, 6, 6, 6 }));
+    assertEquals(c4m.getLegalColumns().length, 6);
+    assertTrue(c4m.undoMove());
+    assertEquals(c4m.getLegalColumns().length, 7);
+    assertEquals(c4m.getLegalColumns()[6], 6);
+    assertEquals(c4m.getColumnHeight(6), 5);
+    assertTrue(c4m.playMove(0, 6));
+    assertTrue(c4m.isColumnFull(6));
+  }
 }
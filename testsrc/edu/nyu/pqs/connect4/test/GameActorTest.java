@@ -0,0 +1,120 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.actor.GameActor;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums.GameType;
+import edu.nyu.pqs.connect4.model.GameEnums.PlayerType;
+
+public class GameActorTest {
+  private ExecutorService executor;
+
+  private class CountingListener implements Connect4Listener {
+    public final AtomicInteger moves = new AtomicInteger();
+    public final AtomicInteger player1Wins = new AtomicInteger();
+    public final List<PlayerType> owners = new ArrayList<PlayerType>();
+
+    @Override
+    public void gameStarted(PlayerType turn, GameType gameType,
+        Connect4Model model) {
+    }
+
+    @Override
+    public void gameStopped(Connect4Model model) {
+    }
+
+    @Override
+    public void playNextMove(int row, int col, PlayerType owner,
+        Connect4Model model) {
+      moves.incrementAndGet();
+      synchronized (owners) {
+        owners.add(owner);
+      }
+    }
+
+    @Override
+    public void gameWon(int row, int col, PlayerType owner,
+        Connect4Model model) {
+      if (owner == PlayerType.PLAYER1) {
+        player1Wins.incrementAndGet();
+      }
+    }
+
+    @Override
+    public void gameDraw(Connect4Model model) {
+    }
+  }
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testManyGamesOnFewThreads() throws Exception {
+    CountingListener listener = new CountingListener();
+    List<CompletableFuture<Boolean>> results =
+        new ArrayList<CompletableFuture<Boolean>>();
+    for (int game = 0; game < 5000; game++) {
+      GameActor actor = new GameActor(new Connect4Model(6, 7, 4), executor);
+      actor.join(listener);
+      actor.start(listener, GameType.TWOPLAYER);
+      for (int i = 0; i < 3; i++) {
+        actor.move(0, 0);
+        actor.move(0, 1);
+      }
+      results.add(actor.move(0, 0));
+    }
+    for (CompletableFuture<Boolean> result : results) {
+      assertTrue(result.get(10, TimeUnit.SECONDS));
+    }
+    assertEquals(listener.moves.get(), 5000 * 7);
+    assertEquals(listener.player1Wins.get(), 5000);
+  }
+
+  @Test
+  public void testComputerRepliesAfterMove() throws Exception {
+    CountingListener listener = new CountingListener();
+    Connect4Model model = new Connect4Model(6, 7, 4);
+    GameActor actor = new GameActor(model, executor);
+    actor.join(listener);
+    actor.start(listener, GameType.SINGLEPLAYER);
+    assertTrue(actor.move(0, 3).get(5, TimeUnit.SECONDS));
+    assertEquals(listener.moves.get(), 2);
+    assertEquals(listener.owners.get(0), PlayerType.PLAYER1);
+    assertEquals(listener.owners.get(1), PlayerType.PLAYER2);
+    assertEquals(actor.getPendingCommands(), 0);
+  }
+
+  @Test
+  public void testInvalidMoveFailsFuture() throws InterruptedException {
+    CountingListener listener = new CountingListener();
+    GameActor actor = new GameActor(new Connect4Model(6, 7, 4), executor);
+    actor.join(listener);
+    actor.start(listener, GameType.TWOPLAYER);
+    try {
+      actor.move(0, 9).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+  }
+}
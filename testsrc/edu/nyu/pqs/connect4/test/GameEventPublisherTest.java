@@ -0,0 +1,206 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.listener.GameEvent;
+import edu.nyu.pqs.connect4.listener.GameEventPublisher;
+import edu.nyu.pqs.connect4.listener.ListenerSubscriber;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums.GameType;
+import edu.nyu.pqs.connect4.model.GameEnums.PlayerType;
+import edu.nyu.pqs.connect4.view.GameStats;
+
+public class GameEventPublisherTest {
+  private ExecutorService executor;
+  private Connect4Model c4m;
+
+  private class TestSubscriber implements Flow.Subscriber<GameEvent> {
+    public final List<GameEvent> events = new CopyOnWriteArrayList<GameEvent>();
+    public final CountDownLatch completed = new CountDownLatch(1);
+    public final CountDownLatch release = new CountDownLatch(1);
+    public boolean slow;
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(GameEvent event) {
+      try {
+        if (slow) {
+          release.await();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      events.add(event);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      completed.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      completed.countDown();
+    }
+  }
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+    c4m = new Connect4Model(6, 7, 4);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testEventsDeliveredInOrder() throws InterruptedException {
+    GameEventPublisher publisher = new GameEventPublisher(executor, 8, false);
+    TestSubscriber subscriber = new TestSubscriber();
+    publisher.subscribe(subscriber);
+    c4m.joinGame(publisher);
+    c4m.startGame(publisher, GameType.TWOPLAYER);
+    for (int i = 0; i < 3; i++) {
+      c4m.playMove(0, 0);
+      c4m.playMove(0, 1);
+    }
+    c4m.playMove(0, 0);
+    publisher.close();
+    assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(subscriber.events.size(), 9);
+    for (int i = 0; i < 9; i++) {
+      assertEquals(subscriber.events.get(i).getSequence(), i);
+    }
+    assertEquals(subscriber.events.get(0).getType(), GameEvent.Type.STARTED);
+    assertEquals(subscriber.events.get(0).getGameType(), GameType.TWOPLAYER);
+    assertEquals(subscriber.events.get(2).getCol(), 1);
+    GameEvent won = subscriber.events.get(8);
+    assertEquals(won.getType(), GameEvent.Type.WON);
+    assertEquals(won.getPlayer(), PlayerType.PLAYER1);
+    assertEquals(won.getRow(), 2);
+    assertEquals(publisher.getDroppedEvents(), 0);
+  }
+
+  @Test
+  public void testSlowSubscriberDoesNotStallModel()
+      throws InterruptedException {
+    GameEventPublisher publisher = new GameEventPublisher(executor, 2, true);
+    TestSubscriber slow = new TestSubscriber();
+    slow.slow = true;
+    TestSubscriber fast = new TestSubscriber();
+    publisher.subscribe(slow);
+    publisher.subscribe(fast);
+    c4m.joinGame(publisher);
+    c4m.startGame(publisher, GameType.TWOPLAYER);
+    for (int col = 0; col < 7; col++) {
+      assertTrue(c4m.playMove(0, col));
+    }
+    assertTrue(publisher.getDroppedEvents() > 0);
+    slow.release.countDown();
+    publisher.close();
+    assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+    assertTrue(fast.completed.await(5, TimeUnit.SECONDS));
+    assertTrue(slow.events.size() < 8);
+    long last = -1;
+    for (GameEvent event : slow.events) {
+      assertTrue(event.getSequence() > last);
+      last = event.getSequence();
+    }
+  }
+
+  @Test
+  public void testBatchAndSnapshotPublishedAsOneEvent()
+      throws InterruptedException {
+    GameEventPublisher publisher = new GameEventPublisher(executor, 8, false);
+    TestSubscriber subscriber = new TestSubscriber();
+    publisher.subscribe(subscriber);
+    c4m.joinGame(GameStats.getInstance());
+    c4m.startGame(GameStats.getInstance(), GameType.TWOPLAYER);
+    assertTrue(c4m.playMoves(new int[] { 3, 3, 2 }));
+    c4m.joinGame(publisher);
+    assertTrue(c4m.playMoves(new int[] { 2, 4 }));
+    publisher.close();
+    assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(subscriber.events.size(), 3);
+    GameEvent snapshot = subscriber.events.get(1);
+    assertEquals(snapshot.getType(), GameEvent.Type.SNAPSHOT);
+    assertEquals(snapshot.getSnapshot().getMoveCount(), 3);
+    GameEvent batch = subscriber.events.get(2);
+    assertEquals(batch.getType(), GameEvent.Type.BATCH);
+    assertEquals(batch.getFirstMove(), 3);
+    assertEquals(batch.getSnapshot().getMoveCount(), 5);
+    assertEquals(batch.getSequence(), 2);
+  }
+
+  @Test
+  public void testThrowingListenerCancelsSubscription()
+      throws InterruptedException {
+    GameEventPublisher publisher = new GameEventPublisher(executor, 8, false);
+    ListenerSubscriber subscriber = new ListenerSubscriber(
+        GameStats.getInstance(), c4m);
+    ListenerSubscriber failing = new ListenerSubscriber(
+        new ThrowingListener(), c4m);
+    publisher.subscribe(subscriber);
+    publisher.subscribe(failing);
+    c4m.joinGame(publisher);
+    c4m.startGame(publisher, GameType.TWOPLAYER);
+    c4m.playMove(0, 0);
+    for (int i = 0; i < 500 && failing.getFailure() == null; i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(failing.getFailure() instanceof IllegalStateException);
+    assertNull(subscriber.getFailure());
+    for (int i = 0; i < 500 && publisher.getNumberOfSubscribers() > 1; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(publisher.getNumberOfSubscribers(), 1);
+    publisher.close();
+  }
+
+  /**
+   * Listener that throws on every move.
+   */
+  private static class ThrowingListener implements Connect4Listener {
+    @Override
+    public void gameStarted(PlayerType turn, GameType gameType,
+        Connect4Model model) {
+    }
+
+    @Override
+    public void gameStopped(Connect4Model model) {
+    }
+
+    @Override
+    public void playNextMove(int row, int col, PlayerType owner,
+        Connect4Model model) {
+      throw new IllegalStateException("Listener failed");
+    }
+
+    @Override
+    public void gameWon(int row, int col, PlayerType owner,
+        Connect4Model model) {
+    }
+
+    @Override
+    public void gameDraw(Connect4Model model) {
+    }
+  }
+}
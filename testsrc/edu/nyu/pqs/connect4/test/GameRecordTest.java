@@ -0,0 +1,130 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.archive.GameRecord;
+import edu.nyu.pqs.connect4.archive.GameRecordReader;
+import edu.nyu.pqs.connect4.archive.GameRecordWriter;
+import edu.nyu.pqs.connect4.archive.GameRecorder;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums.GameType;
+import edu.nyu.pqs.connect4.model.GridBoard;
+
+public class GameRecordTest {
+
+  private static GameRecord randomGame(int rows, int cols, int win,
+      Random random) {
+    GridBoard board = new GridBoard(rows, cols, win);
+    int[] moves = new int[rows * cols];
+    int count = 0;
+    while (!board.isFull()) {
+      int col = random.nextInt(cols);
+      if (board.canPlay(col)) {
+        board.play(col);
+        moves[count++] = col;
+      }
+    }
+    return new GameRecord(rows, cols, win, GameType.TWOPLAYER,
+        GameRecord.Result.DRAW, Arrays.copyOf(moves, count));
+  }
+
+  private static byte[] encode(List<GameRecord> records) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GameRecordWriter writer = new GameRecordWriter(
+        Channels.newChannel(out))) {
+      for (GameRecord record : records) {
+        writer.write(record);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static GameRecordReader reader(byte[] bytes) throws IOException {
+    return new GameRecordReader(Channels.newChannel(new ByteArrayInputStream(
+        bytes)));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Random random = new Random(5);
+    List<GameRecord> records = new ArrayList<GameRecord>();
+    for (int i = 0; i < 20000; i++) {
+      records.add(randomGame(6, 7, 4, random));
+    }
+    records.add(randomGame(200, 300, 6, random));
+    records.add(randomGame(1, 1, 1, random));
+    byte[] bytes = encode(records);
+    GameRecordReader reader = reader(bytes);
+    for (GameRecord record : records) {
+      assertEquals(reader.read(), record);
+    }
+    assertNull(reader.read());
+    assertEquals(reader.getRecords(), records.size());
+  }
+
+  @Test
+  public void testStandardGameTakesThreeBitsPerMove() throws IOException {
+    int[] moves = new int[42];
+    GameRecord record = new GameRecord(6, 7, 4, GameType.SINGLEPLAYER,
+        GameRecord.Result.PLAYER2, moves);
+    assertEquals(GameRecord.bitsPerMove(7), 3);
+    assertEquals(encode(Arrays.asList(record)).length, 8 + 5 + 16);
+  }
+
+  @Test
+  public void testRecorderArchivesFinishedGames() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    GameRecordWriter writer = new GameRecordWriter(Channels.newChannel(out));
+    GameRecorder recorder = new GameRecorder(writer);
+    Connect4Model model = new Connect4Model(6, 7, 4);
+    model.joinGame(recorder);
+    model.startGame(recorder, GameType.TWOPLAYER);
+    for (int i = 0; i < 3; i++) {
+      model.playMove(0, 2);
+      model.playMove(0, 5);
+    }
+    model.playMove(0, 2);
+    writer.close();
+    GameRecord record = reader(out.toByteArray()).read();
+    assertEquals(record.getResult(), GameRecord.Result.PLAYER1);
+    assertEquals(record.getMoveCount(), 7);
+    assertTrue(Arrays.equals(record.getMoves(), model.getMoveHistory()));
+    assertTrue(record.replay().lastMoverWon());
+  }
+
+  @Test(expected = EOFException.class)
+  public void testTruncatedRecord() throws IOException {
+    byte[] bytes = encode(Arrays.asList(randomGame(6, 7, 4, new Random(1))));
+    reader(Arrays.copyOf(bytes, bytes.length - 1)).read();
+  }
+
+  @Test
+  public void testHugeMoveCountRejected() throws IOException {
+    byte[] header = encode(new ArrayList<GameRecord>());
+    byte[] bytes = Arrays.copyOf(header, header.length + 9);
+    byte[] record = { 6, 7, 4, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+        (byte) 0xFF, 0x07 };
+    System.arraycopy(record, 0, bytes, header.length, record.length);
+    try {
+      reader(bytes).read();
+      fail("Record with more moves than cells was read");
+    } catch (IOException e) {
+      assertFalse(e instanceof EOFException);
+      assertEquals(e.getMessage(), "Corrupt game record");
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotAStream() throws IOException {
+    reader(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+  }
+}
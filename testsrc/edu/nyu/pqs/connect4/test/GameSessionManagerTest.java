@@ -0,0 +1,133 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums.GameType;
+import edu.nyu.pqs.connect4.model.GameEnums.PlayerType;
+import edu.nyu.pqs.connect4.session.GameSession;
+import edu.nyu.pqs.connect4.session.GameSessionManager;
+
+public class GameSessionManagerTest {
+  private ExecutorService executor;
+  private GameSessionManager manager;
+  private Connect4Listener listener;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    manager = new GameSessionManager(executor, 16);
+    listener = new Connect4Listener() {
+      @Override
+      public void gameStarted(PlayerType turn, GameType gameType,
+          Connect4Model model) {
+      }
+
+      @Override
+      public void gameStopped(Connect4Model model) {
+      }
+
+      @Override
+      public void playNextMove(int row, int col, PlayerType owner,
+          Connect4Model model) {
+      }
+
+      @Override
+      public void gameWon(int row, int col, PlayerType owner,
+          Connect4Model model) {
+      }
+
+      @Override
+      public void gameDraw(Connect4Model model) {
+      }
+    };
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testPauseResumeAndEvict() throws Exception {
+    GameSession session = manager.create(6, 7, 4);
+    assertSame(manager.get(session.getId()), session);
+    assertTrue(session.join(listener).get());
+    assertTrue(session.start(listener, GameType.TWOPLAYER).get());
+    assertTrue(session.move(0, 3).get());
+    assertTrue(manager.pause(session.getId()));
+    assertEquals(manager.getActiveGames(), 0);
+    assertEquals(manager.getPausedGames(), 1);
+    try {
+      session.move(0, 3).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    assertTrue(manager.resume(session.getId()));
+    assertTrue(session.move(0, 3).get());
+    assertTrue(manager.evict(session.getId()).get(5, TimeUnit.SECONDS));
+    assertNull(manager.get(session.getId()));
+    assertEquals(session.getState(), GameSession.State.EVICTED);
+    assertEquals(manager.getGames(), 0);
+    assertEquals(manager.getPooledModels(), 1);
+    assertFalse(manager.evict(session.getId()).get());
+  }
+
+  @Test
+  public void testPooledModelIsReset() throws Exception {
+    GameSession first = manager.create(6, 7, 4);
+    first.join(listener);
+    first.start(listener, GameType.TWOPLAYER);
+    first.move(0, 0);
+    manager.evict(first.getId()).get(5, TimeUnit.SECONDS);
+    GameSession second = manager.create(6, 7, 4);
+    assertEquals(manager.getPooledModels(), 0);
+    assertFalse(second.move(0, 0).get());
+    assertTrue(second.join(listener).get());
+    assertTrue(second.start(listener, GameType.TWOPLAYER).get());
+    assertTrue(second.move(0, 0).get());
+  }
+
+  @Test
+  public void testConcurrentCreateAndEvict() throws Exception {
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    ExecutorService clients = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      futures.add(clients.submit(new Runnable() {
+        @Override
+        public void run() {
+          List<CompletableFuture<Boolean>> evictions =
+              new ArrayList<CompletableFuture<Boolean>>();
+          for (int i = 0; i < 500; i++) {
+            GameSession session = manager.create(6, 7, 4);
+            session.join(listener);
+            session.start(listener, GameType.TWOPLAYER);
+            session.move(0, i % 7);
+            evictions.add(manager.evict(session.getId()));
+          }
+          for (CompletableFuture<Boolean> eviction : evictions) {
+            assertTrue(eviction.join());
+          }
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    clients.shutdown();
+    assertEquals(manager.getGames(), 0);
+    assertTrue(manager.getPooledModels() <= 16);
+  }
+}
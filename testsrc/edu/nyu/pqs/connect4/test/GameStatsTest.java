@@ -0,0 +1,108 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums.GameType;
+import edu.nyu.pqs.connect4.view.GameStats;
+import edu.nyu.pqs.connect4.view.GameStatsSnapshot;
+
+public class GameStatsTest {
+
+  @After
+  public void tearDown() {
+    GameStats.getStats().setLogCapacity(1024);
+  }
+
+  private static void playWins(int games) {
+    for (int game = 0; game < games; game++) {
+      Connect4Model model = new Connect4Model(6, 7, 4);
+      model.joinGame(GameStats.getInstance());
+      model.startGame(GameStats.getInstance(), GameType.TWOPLAYER);
+      for (int i = 0; i < 3; i++) {
+        model.playMove(0, 0);
+        model.playMove(0, 1);
+      }
+      model.playMove(0, 0);
+    }
+  }
+
+  @Test
+  public void testCountsFromManyThreads() throws InterruptedException {
+    GameStats stats = GameStats.getStats();
+    stats.setLogCapacity(0);
+    GameStatsSnapshot before = stats.snapshot();
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 0; i < 4; i++) {
+      threads.add(new Thread(new Runnable() {
+        @Override
+        public void run() {
+          playWins(1000);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    GameStatsSnapshot after = stats.snapshot();
+    assertEquals(after.getGamesStarted() - before.getGamesStarted(), 4000);
+    assertEquals(after.getPlayer1Wins() - before.getPlayer1Wins(), 4000);
+    assertEquals(after.getPlayer2Wins() - before.getPlayer2Wins(), 0);
+    assertEquals(after.getMoves() - before.getMoves(), 4000 * 7);
+    assertEquals(after.getGamesOfLength(7) - before.getGamesOfLength(7),
+        4000);
+    assertEquals(stats.toString(), "");
+  }
+
+  @Test
+  public void testLogKeepsLatestMessages() {
+    GameStats stats = GameStats.getStats();
+    stats.setLogCapacity(4);
+    playWins(5);
+    String[] lines = stats.toString().split("\n");
+    assertEquals(lines.length, 4);
+    assertTrue(lines[3].contains("Won the"));
+  }
+
+  @Test
+  public void testUndoneWinCountedOnce() {
+    GameStats stats = GameStats.getStats();
+    GameStatsSnapshot before = stats.snapshot();
+    Connect4Model model = new Connect4Model(6, 7, 4);
+    model.joinGame(GameStats.getInstance());
+    model.startGame(GameStats.getInstance(), GameType.TWOPLAYER);
+    assertTrue(model.playMoves(new int[] { 0, 1, 0, 1, 0, 1, 0 }));
+    assertTrue(model.undoMove());
+    assertTrue(model.undoMove());
+    assertTrue(model.playMoves(new int[] { 2, 0 }));
+    GameStatsSnapshot after = stats.snapshot();
+    assertEquals(after.getPlayer1Wins() - before.getPlayer1Wins(), 1);
+    assertEquals(after.getMoves() - before.getMoves(), 7);
+    assertEquals(after.getGamesOfLength(7) - before.getGamesOfLength(7), 1);
+  }
+
+  @Test
+  public void testUndoneWinKeepsGameNumber() {
+    GameStats stats = GameStats.getStats();
+    stats.setLogCapacity(16);
+    Connect4Model model = new Connect4Model(6, 7, 4);
+    model.joinGame(GameStats.getInstance());
+    model.startGame(GameStats.getInstance(), GameType.TWOPLAYER);
+    assertTrue(model.playMoves(new int[] { 0, 1, 0, 1, 0, 1, 0 }));
+    assertTrue(model.undoMove());
+    assertTrue(model.playMove(0, 0));
+    String[] lines = stats.toString().split("\n");
+    assertEquals(lines.length, 4);
+    String number = lines[0].substring(0, lines[0].indexOf(':'));
+    assertEquals(lines[1], "PLAYER1 Won the  " + number.toLowerCase()
+        + " .");
+    assertEquals(lines[2], number + ": Resumed.");
+    assertEquals(lines[3], lines[1]);
+  }
+}
@@ -0,0 +1,118 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.util.Random;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.engine.LineEvaluator;
+import edu.nyu.pqs.connect4.model.GridBoard;
+
+public class LineEvaluatorTest {
+
+  /**
+   * Counts the open lines of a player with the given number of stones by
+   * walking every line of the board.
+   */
+  private static int openLines(GridBoard board, int player, int stones) {
+    int[][] directions = { { 1, 0 }, { 0, 1 }, { 1, 1 }, { 1, -1 } };
+    int win = board.getWINNINGSIZE();
+    int lines = 0;
+    for (int[] d : directions) {
+      for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+        for (int height = 0; height < board.getROWSIZE(); height++) {
+          int lastCol = col + (win - 1) * d[0];
+          int lastHeight = height + (win - 1) * d[1];
+          if (lastCol < 0 || lastCol >= board.getCOLUMNSIZE()
+              || lastHeight < 0 || lastHeight >= board.getROWSIZE()) {
+            continue;
+          }
+          int own = 0;
+          int opposing = 0;
+          for (int i = 0; i < win; i++) {
+            int cell = board.getCell(col + i * d[0], height + i * d[1]);
+            if (cell == player) {
+              own++;
+            } else if (cell != 0) {
+              opposing++;
+            }
+          }
+          if (opposing == 0 && own == stones) {
+            lines++;
+          }
+        }
+      }
+    }
+    return lines;
+  }
+
+  private static void check(LineEvaluator evaluator, GridBoard board) {
+    for (int player = 1; player <= 2; player++) {
+      int playable = 0;
+      for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+        if (board.canPlay(col)) {
+          boolean wins = board.isWinningMove(col, player);
+          assertEquals(evaluator.isWinningMove(col, player), wins);
+          playable += wins ? 1 : 0;
+        }
+      }
+      assertEquals(evaluator.getPlayableThreats(player), playable);
+      for (int stones = 0; stones <= board.getWINNINGSIZE(); stones++) {
+        assertEquals(evaluator.getOpenLines(player, stones),
+            openLines(board, player, stones));
+      }
+    }
+  }
+
+  private static void playRandomGames(int rows, int cols, int win) {
+    Random random = new Random(rows * 31 + cols * 7 + win);
+    LineEvaluator evaluator = new LineEvaluator(rows, cols, win);
+    for (int game = 0; game < 20; game++) {
+      GridBoard board = new GridBoard(rows, cols, win);
+      int[] moves = new int[rows * cols];
+      int count = 0;
+      while (!board.isFull() && !evaluator.hasWinner()) {
+        int col = random.nextInt(cols);
+        if (board.canPlay(col)) {
+          board.play(col);
+          evaluator.play(col);
+          moves[count++] = col;
+          check(evaluator, board);
+        }
+      }
+      assertEquals(evaluator.hasWinner(), board.lastMoverWon());
+      LineEvaluator loaded = new LineEvaluator(board);
+      assertEquals(loaded.evaluate(), evaluator.evaluate());
+      while (count > 0) {
+        int col = moves[--count];
+        board.undo(col);
+        evaluator.undo(col);
+        check(evaluator, board);
+      }
+      assertEquals(evaluator.evaluate(), 0);
+      assertEquals(evaluator.getOpenLines(1, 0), evaluator.getLines());
+    }
+  }
+
+  @Test
+  public void testMatchesGridBoardOnStandardBoard() {
+    playRandomGames(6, 7, 4);
+  }
+
+  @Test
+  public void testMatchesGridBoardOnOtherSizes() {
+    playRandomGames(10, 12, 5);
+    playRandomGames(4, 5, 4);
+    playRandomGames(3, 3, 1);
+    playRandomGames(2, 9, 3);
+  }
+
+  @Test
+  public void testEvaluateFavoursCenter() {
+    LineEvaluator evaluator = new LineEvaluator(6, 7, 4);
+    evaluator.play(3);
+    long center = -evaluator.evaluate();
+    evaluator.undo(3);
+    evaluator.play(0);
+    assertTrue(center > -evaluator.evaluate());
+    assertEquals(evaluator.getLines(), 69);
+  }
+}
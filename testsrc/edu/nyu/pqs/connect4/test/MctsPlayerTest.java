@@ -0,0 +1,65 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.engine.MctsPlayer;
+import edu.nyu.pqs.connect4.engine.SearchResult;
+import edu.nyu.pqs.connect4.model.GridBoard;
+
+public class MctsPlayerTest {
+
+  private GridBoard play(int rows, int cols, int win, int... columns) {
+    GridBoard board = new GridBoard(rows, cols, win);
+    for (int col : columns) {
+      board.play(col);
+    }
+    return board;
+  }
+
+  @Test
+  public void testGridBoardWins() {
+    GridBoard board = play(6, 7, 4, 0, 1, 0, 1, 0, 1);
+    assertTrue(board.isWinningMove(0));
+    assertFalse(board.isWinningMove(2));
+    board.play(0);
+    assertTrue(board.lastMoverWon());
+    board = play(6, 7, 4, 0, 1, 1, 2, 2, 3, 2, 3, 3, 6);
+    assertTrue(board.isWinningMove(3));
+    assertEquals(board.getCell(3, 2), 1);
+    assertEquals(board.getCell(3, 3), 0);
+    assertEquals(board.getPlayerToMove(), 1);
+  }
+
+  @Test
+  public void testSearchImmediateWin() {
+    MctsPlayer player = new MctsPlayer(1, 10000, 10000, 2000);
+    SearchResult result = player.search(play(6, 7, 4, 0, 1, 0, 1, 0, 1));
+    assertEquals(result.getColumn(), 0);
+    assertTrue(result.getScore() > 90);
+  }
+
+  @Test
+  public void testSearchBlocksOpponent() {
+    MctsPlayer player = new MctsPlayer(2, 100000, 10000, 20000);
+    SearchResult result = player.search(play(6, 7, 4, 0, 1, 0, 1, 0));
+    assertEquals(result.getColumn(), 0);
+    assertEquals(result.getNodes(), 20000);
+    player.shutdown();
+  }
+
+  @Test
+  public void testSearchLargeBoard() {
+    MctsPlayer player = new MctsPlayer(1, 1000, 10000, 5000);
+    SearchResult result = player.search(play(10, 12, 5, 5, 6, 5, 6, 5, 6, 5,
+        6));
+    assertEquals(result.getColumn(), 5);
+    result = player.search(play(10, 12, 5, 5, 6, 5, 6, 5, 6, 5));
+    assertEquals(result.getColumn(), 5);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSearchFinishedGame() {
+    new MctsPlayer(1, 1000, 1000, 1000).search(play(6, 7, 4, 0, 1, 0, 1, 0,
+        1, 0));
+  }
+}
@@ -0,0 +1,118 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.engine.IterativeDeepening;
+import edu.nyu.pqs.connect4.engine.LazySmpSearch;
+import edu.nyu.pqs.connect4.engine.NegamaxSolver;
+import edu.nyu.pqs.connect4.engine.SearchResult;
+import edu.nyu.pqs.connect4.engine.TranspositionTable;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+public class NegamaxSolverTest {
+
+  @Test
+  public void testSolveImmediateWin() {
+    BitBoard board = new BitBoard(6, 7, 4);
+    board.play("121212");
+    SearchResult result = new NegamaxSolver(1000).solve(board);
+    assertEquals(result.getColumn(), 0);
+    assertEquals(result.getScore(), 18);
+    assertTrue(result.isExact());
+  }
+
+  @Test
+  public void testSolveBlocksOpponent() {
+    BitBoard board = new BitBoard(6, 7, 4);
+    board.play("12121");
+    SearchResult result = new NegamaxSolver(1000).solve(board);
+    assertEquals(result.getColumn(), 0);
+  }
+
+  @Test
+  public void testSolveSmallBoards() {
+    SearchResult result = new NegamaxSolver(Long.MAX_VALUE).solve(new BitBoard(
+        4, 4, 4));
+    assertEquals(result.getScore(), 0);
+    assertTrue(result.isExact());
+    result = new NegamaxSolver(Long.MAX_VALUE).solve(new BitBoard(4, 4, 3));
+    assertEquals(result.getScore(), 4);
+    assertEquals(result.getColumn(), 2);
+  }
+
+  @Test
+  public void testSolveWithinNodeBudget() {
+    SearchResult result = new NegamaxSolver(10000).solve(new BitBoard(6, 7, 4));
+    assertTrue(!result.isExact());
+    assertTrue(result.getNodes() <= 10001);
+    assertEquals(result.getColumn(), 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSolveFinishedGame() {
+    BitBoard board = new BitBoard(6, 7, 4);
+    board.play(1);
+    board.play(2);
+    board.play(1);
+    board.play(2);
+    board.play(1);
+    board.play(2);
+    board.play(1);
+    new NegamaxSolver(1000).solve(board);
+  }
+
+  @Test
+  public void testSearchToDepth() {
+    BitBoard board = new BitBoard(6, 7, 4);
+    board.play("4455");
+    SearchResult result = new NegamaxSolver(1000000).search(board, 3,
+        1000000, Long.MAX_VALUE);
+    assertEquals(result.getDepth(), 3);
+    assertEquals(result.getScore(), 18);
+    assertTrue(result.getColumn() == 2 || result.getColumn() == 5);
+  }
+
+  @Test
+  public void testIterativeDeepeningHonorsDeadline() {
+    IterativeDeepening search = new IterativeDeepening(new NegamaxSolver(
+        Long.MAX_VALUE, new TranspositionTable(4)), 200, Long.MAX_VALUE);
+    long start = System.currentTimeMillis();
+    SearchResult result = search.search(new BitBoard(6, 7, 4));
+    assertTrue(System.currentTimeMillis() - start < 1000);
+    assertTrue(result.getDepth() > 0);
+    assertEquals(result.getColumn(), 3);
+  }
+
+  @Test
+  public void testIterativeDeepeningHonorsNodeBudget() {
+    IterativeDeepening search = new IterativeDeepening(new NegamaxSolver(
+        Long.MAX_VALUE), 60000, 5000);
+    SearchResult result = search.search(new BitBoard(6, 7, 4));
+    assertTrue(result.getNodes() <= 5001);
+    assertTrue(!result.isExact());
+  }
+
+  @Test
+  public void testIterativeDeepeningSolvesSmallBoards() {
+    IterativeDeepening search = new IterativeDeepening(new NegamaxSolver(
+        Long.MAX_VALUE, new TranspositionTable(4)), 60000, Long.MAX_VALUE);
+    SearchResult result = search.search(new BitBoard(4, 4, 3));
+    assertTrue(result.getScore() > 0);
+    assertEquals(result.getColumn(), 2);
+    result = search.search(new BitBoard(4, 4, 4));
+    assertTrue(result.isExact());
+    assertEquals(result.getDepth(), 16);
+    assertEquals(result.getScore(), 0);
+  }
+
+  @Test
+  public void testLazySmpSearchSolvesSmallBoard() {
+    LazySmpSearch search = new LazySmpSearch(4, new TranspositionTable(4),
+        60000, Long.MAX_VALUE);
+    SearchResult result = search.search(new BitBoard(5, 5, 4));
+    search.shutdown();
+    assertTrue(result.isExact());
+    assertEquals(result.getScore(), 0);
+    assertEquals(search.getThreads(), 4);
+  }
+}
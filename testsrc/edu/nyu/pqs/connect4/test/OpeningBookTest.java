@@ -0,0 +1,60 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.engine.NegamaxSolver;
+import edu.nyu.pqs.connect4.engine.OpeningBook;
+import edu.nyu.pqs.connect4.engine.OpeningBookGenerator;
+import edu.nyu.pqs.connect4.engine.SearchResult;
+import edu.nyu.pqs.connect4.engine.TranspositionTable;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+public class OpeningBookTest {
+
+  @Test
+  public void testBookMatchesSolver() throws IOException {
+    Path file = Files.createTempFile("connect4", ".book");
+    try {
+      long size = OpeningBookGenerator.generate(4, 5, 4, 3, 2,
+          new TranspositionTable(4), Long.MAX_VALUE, file);
+      OpeningBook book = new OpeningBook(file);
+      assertEquals(book.size(), size);
+      assertEquals(book.getMaxPly(), 3);
+      String[] positions = { "", "1", "5", "3", "24", "42", "153", "351" };
+      for (String moves : positions) {
+        BitBoard position = new BitBoard(4, 5, 4);
+        position.play(moves);
+        SearchResult solved = new NegamaxSolver(Long.MAX_VALUE)
+            .solve(position);
+        SearchResult booked = book.lookup(position);
+        assertNotNull(booked);
+        assertTrue(booked.isExact());
+        assertEquals(booked.getScore(), solved.getScore());
+        BitBoard child = new BitBoard(position);
+        child.play(booked.getColumn());
+        assertEquals(-new NegamaxSolver(Long.MAX_VALUE).solve(child)
+            .getScore(), booked.getScore());
+      }
+      BitBoard deeper = new BitBoard(4, 5, 4);
+      deeper.play("1234");
+      assertNull(book.lookup(deeper));
+      assertNull(book.lookup(new BitBoard(6, 7, 4)));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotABook() throws IOException {
+    Path file = Files.createTempFile("connect4", ".book");
+    try {
+      Files.write(file, new byte[40]);
+      new OpeningBook(file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
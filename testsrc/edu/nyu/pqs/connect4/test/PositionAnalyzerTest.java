@@ -0,0 +1,129 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.engine.NegamaxSolver;
+import edu.nyu.pqs.connect4.engine.PositionAnalysis;
+import edu.nyu.pqs.connect4.engine.PositionAnalyzer;
+import edu.nyu.pqs.connect4.engine.TranspositionTable;
+import edu.nyu.pqs.connect4.listener.Connect4Listener;
+import edu.nyu.pqs.connect4.model.BitBoard;
+import edu.nyu.pqs.connect4.model.Connect4Model;
+import edu.nyu.pqs.connect4.model.GameEnums.GameType;
+import edu.nyu.pqs.connect4.model.GameEnums.PlayerType;
+
+public class PositionAnalyzerTest {
+
+  private static PositionAnalyzer newAnalyzer() {
+    return new PositionAnalyzer(4, 5, 4, new TranspositionTable(4), 60000,
+        Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testScoresMatchSolver() {
+    PositionAnalyzer analyzer = newAnalyzer();
+    String[] positions = { "", "3", "33", "1234", "3322", "55443" };
+    for (String moves : positions) {
+      BitBoard position = new BitBoard(4, 5, 4);
+      position.play(moves);
+      PositionAnalysis analysis = analyzer.analyze(moves);
+      assertEquals(analysis.getMoves(), moves.length());
+      for (int col = 0; col < 5; col++) {
+        assertEquals(analysis.isLegal(col), position.canPlay(col));
+        if (!position.canPlay(col)) {
+          continue;
+        }
+        BitBoard child = new BitBoard(position);
+        int expected;
+        if (child.isWinningMove(col)) {
+          expected = (child.getCells() + 1 - child.getMoves()) / 2;
+        } else {
+          child.play(col);
+          expected = -new NegamaxSolver(Long.MAX_VALUE).solve(child)
+              .getScore();
+        }
+        assertTrue(analysis.isExact(col));
+        assertEquals(analysis.getScore(col), expected);
+        int[] line = analysis.getLine(col);
+        assertEquals(line[0], col);
+        BitBoard replay = new BitBoard(position);
+        for (int move : line) {
+          assertTrue(replay.canPlay(move));
+          replay.play(move);
+        }
+      }
+      assertEquals(analysis.getScore(analysis.getBestColumn()),
+          new NegamaxSolver(Long.MAX_VALUE).solve(position).getScore());
+    }
+  }
+
+  @Test
+  public void testBatchMatchesSingleAnalysis() {
+    PositionAnalyzer analyzer = newAnalyzer();
+    List<String> positions = Arrays.asList("", "1", "2", "3", "4", "5",
+        "31", "32", "33", "34", "35", "4433", "1155", "223344");
+    PositionAnalysis[] batch = analyzer.analyzeAll(positions,
+        new ForkJoinPool(2));
+    assertEquals(batch.length, positions.size());
+    for (int i = 0; i < batch.length; i++) {
+      PositionAnalysis single = analyzer.analyze(positions.get(i));
+      assertEquals(batch[i].getMoves(), positions.get(i).length());
+      for (int col = 0; col < 5; col++) {
+        if (single.isLegal(col)) {
+          assertEquals(batch[i].getScore(col), single.getScore(col));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testModelPosition() {
+    Connect4Model model = new Connect4Model(4, 5, 4);
+    Connect4Listener listener = new Connect4Listener() {
+      @Override
+      public void gameStarted(PlayerType turn, GameType gameType,
+          Connect4Model model) {
+      }
+
+      @Override
+      public void gameStopped(Connect4Model model) {
+      }
+
+      @Override
+      public void playNextMove(int row, int col, PlayerType owner,
+          Connect4Model model) {
+      }
+
+      @Override
+      public void gameWon(int row, int col, PlayerType owner,
+          Connect4Model model) {
+      }
+
+      @Override
+      public void gameDraw(Connect4Model model) {
+      }
+    };
+    model.joinGame(listener);
+    model.startGame(listener, GameType.TWOPLAYER);
+    assertTrue(model.playMoves(new int[] { 2, 2, 1 }));
+    PositionAnalysis fromModel = newAnalyzer().analyze(model);
+    PositionAnalysis fromMoves = newAnalyzer().analyze("332");
+    for (int col = 0; col < 5; col++) {
+      assertEquals(fromModel.getScore(col), fromMoves.getScore(col));
+    }
+    assertEquals(fromModel.getBestColumn(), fromMoves.getBestColumn());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGameOver() {
+    newAnalyzer().analyze("1212121");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMove() {
+    newAnalyzer().analyze("16");
+  }
+}
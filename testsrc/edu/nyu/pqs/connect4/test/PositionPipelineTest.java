@@ -0,0 +1,109 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.archive.PositionPipeline;
+import edu.nyu.pqs.connect4.archive.PositionProcessor;
+import edu.nyu.pqs.connect4.archive.PositionReader;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+public class PositionPipelineTest {
+
+  private static final PositionProcessor KEYS = new PositionProcessor() {
+    @Override
+    public void process(BitBoard position, boolean valid, StringBuilder out) {
+      out.append(valid ? "ok " : "invalid ").append(position.getMoves())
+          .append(' ').append(position.key());
+    }
+  };
+
+  private static PositionReader newReader(String text) {
+    return new PositionReader(Channels.newChannel(new ByteArrayInputStream(
+        text.getBytes(StandardCharsets.US_ASCII))));
+  }
+
+  @Test
+  public void testReaderParsesLines() throws IOException {
+    PositionReader reader = newReader("4453\r\n\n18\n1313131\n12a4\n4453");
+    BitBoard position = new BitBoard(6, 7, 4);
+    BitBoard expected = new BitBoard(6, 7, 4);
+    expected.play("4453");
+    assertTrue(reader.next(position));
+    assertTrue(reader.isValid());
+    assertEquals(position.key(), expected.key());
+    assertTrue(reader.next(position));
+    assertTrue(reader.isValid());
+    assertEquals(position.getMoves(), 0);
+    assertTrue(reader.next(position));
+    assertFalse(reader.isValid());
+    assertEquals(position.getMoves(), 1);
+    assertTrue(reader.next(position));
+    assertFalse(reader.isValid());
+    assertEquals(position.getMoves(), 6);
+    assertTrue(reader.next(position));
+    assertFalse(reader.isValid());
+    assertEquals(position.getMoves(), 2);
+    assertTrue(reader.next(position));
+    assertTrue(reader.isValid());
+    assertEquals(position.key(), expected.key());
+    assertFalse(reader.next(position));
+    assertEquals(reader.getLines(), 6);
+  }
+
+  @Test
+  public void testPipelineKeepsOrder() throws IOException {
+    Random random = new Random(5);
+    StringBuilder input = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    for (int line = 0; line < 20000; line++) {
+      StringBuilder moves = new StringBuilder();
+      int length = random.nextInt(12);
+      for (int i = 0; i < length; i++) {
+        moves.append((char) ('1' + random.nextInt(8)));
+      }
+      BitBoard position = new BitBoard(6, 7, 4);
+      boolean valid = position.play(moves) == moves.length();
+      KEYS.process(position, valid, expected);
+      expected.append('\n');
+      input.append(moves).append(line % 3 == 0 ? "\r\n" : "\n");
+    }
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    long lines = new PositionPipeline(6, 7, 4, 3).process(Channels
+        .newChannel(new ByteArrayInputStream(input.toString().getBytes(
+            StandardCharsets.US_ASCII))), Channels.newChannel(output), KEYS);
+    assertEquals(lines, 20000);
+    assertEquals(new String(output.toByteArray(), StandardCharsets.UTF_8),
+        expected.toString());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testProcessorFailure() throws IOException {
+    StringBuilder input = new StringBuilder();
+    for (int line = 0; line < 5000; line++) {
+      input.append(line == 3000 ? "9\n" : "44\n");
+    }
+    new PositionPipeline(6, 7, 4, 2).process(Channels
+        .newChannel(new ByteArrayInputStream(input.toString().getBytes(
+            StandardCharsets.US_ASCII))), Channels
+        .newChannel(new ByteArrayOutputStream()), new PositionProcessor() {
+      @Override
+      public void process(BitBoard position, boolean valid,
+          StringBuilder out) {
+        if (!valid) {
+          throw new IllegalStateException("Invalid position");
+        }
+      }
+    });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyColumns() {
+    new PositionPipeline(4, 10, 4, 1);
+  }
+}
@@ -0,0 +1,81 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.engine.NegamaxSolver;
+import edu.nyu.pqs.connect4.engine.SearchResult;
+import edu.nyu.pqs.connect4.engine.Tablebase;
+import edu.nyu.pqs.connect4.engine.TablebaseGenerator;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+public class TablebaseTest {
+
+  @Test
+  public void testTablebaseMatchesSolver() throws IOException {
+    Path file = Files.createTempFile("connect4", ".tablebase");
+    try {
+      long size = TablebaseGenerator.generate(4, 4, 3, 2, file);
+      Tablebase tablebase = new Tablebase(file);
+      assertEquals(tablebase.size(), size);
+      Random random = new Random(17);
+      for (int game = 0; game < 20; game++) {
+        BitBoard position = new BitBoard(4, 4, 3);
+        while (true) {
+          SearchResult solved = new NegamaxSolver(Long.MAX_VALUE)
+              .solve(position);
+          SearchResult probed = tablebase.lookup(position);
+          assertNotNull(probed);
+          assertTrue(probed.isExact());
+          assertEquals(probed.getScore(), solved.getScore());
+          assertEquals(Integer.signum(probed.getScore()),
+              tablebase.getResult(position) - Tablebase.DRAW);
+          int col = probed.getColumn();
+          if (position.isWinningMove(col)) {
+            assertEquals(tablebase.getDistance(position), 1);
+            break;
+          }
+          BitBoard child = new BitBoard(position);
+          child.play(col);
+          if (child.isFull()) {
+            assertEquals(probed.getScore(), 0);
+            break;
+          }
+          assertEquals(-new NegamaxSolver(Long.MAX_VALUE).solve(child)
+              .getScore(), probed.getScore());
+          assertEquals(tablebase.getDistance(child),
+              tablebase.getDistance(position) - 1);
+          do {
+            col = random.nextInt(4);
+          } while (!position.canPlay(col) || position.isWinningMove(col));
+          position.play(col);
+          if (position.isFull()) {
+            break;
+          }
+        }
+      }
+      BitBoard won = new BitBoard(4, 4, 3);
+      won.play("1212");
+      won.play(0);
+      assertNull(tablebase.lookup(won));
+      assertEquals(tablebase.getResult(won), -1);
+      assertNull(tablebase.lookup(new BitBoard(6, 7, 4)));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotATablebase() throws IOException {
+    Path file = Files.createTempFile("connect4", ".tablebase");
+    try {
+      Files.write(file, new byte[40]);
+      new Tablebase(file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.engine.NegamaxSolver;
+import edu.nyu.pqs.connect4.engine.SearchResult;
+import edu.nyu.pqs.connect4.engine.TranspositionTable;
+import edu.nyu.pqs.connect4.model.BitBoard;
+
+public class TranspositionTableTest {
+
+  @Test
+  public void testStoreAndProbe() {
+    TranspositionTable table = new TranspositionTable(1);
+    assertEquals(table.capacity(), 65536);
+    assertEquals(table.probe(42L), 0L);
+    table.store(42L, -7, TranspositionTable.UPPER, 12, 3);
+    long data = table.probe(42L);
+    assertEquals(TranspositionTable.score(data), -7);
+    assertEquals(TranspositionTable.bound(data), TranspositionTable.UPPER);
+    assertEquals(TranspositionTable.depth(data), 12);
+    assertEquals(TranspositionTable.move(data), 3);
+    table.clear();
+    assertEquals(table.probe(42L), 0L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() {
+    new TranspositionTable(0);
+  }
+
+  @Test
+  public void testMirrorKey() {
+    BitBoard board = new BitBoard(6, 7, 4);
+    BitBoard mirror = new BitBoard(6, 7, 4);
+    board.play("1123");
+    mirror.play("7765");
+    assertEquals(board.mirror(board.key()), mirror.key());
+  }
+
+  @Test
+  public void testSolveWithTableMatchesPlainSolve() {
+    String[] positions = { "", "3", "33", "2332", "112233" };
+    TranspositionTable table = new TranspositionTable(4);
+    for (String position : positions) {
+      BitBoard board = new BitBoard(4, 5, 4);
+      board.play(position);
+      SearchResult plain = new NegamaxSolver(Long.MAX_VALUE).solve(board);
+      SearchResult cached = new NegamaxSolver(Long.MAX_VALUE, table)
+          .solve(board);
+      assertEquals(plain.getScore(), cached.getScore());
+      assertTrue(cached.getNodes() <= plain.getNodes());
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package edu.nyu.pqs.connect4.test;
+
+import static org.junit.Assert.*;
+import java.util.Random;
+import org.junit.Test;
+import edu.nyu.pqs.connect4.model.GridBoard;
+import edu.nyu.pqs.connect4.model.WideBitBoard;
+
+public class WideBitBoardTest {
+
+  private static void check(WideBitBoard wide, GridBoard board, int last) {
+    assertEquals(wide.lastMoverWon(), board.lastMoverWon());
+    if (board.getMoves() > 0) {
+      assertEquals(wide.isAlignedAt(last), board.lastMoverWon());
+    }
+    assertEquals(wide.isFull(), board.isFull());
+    boolean[] winning = new boolean[board.getCOLUMNSIZE()];
+    int count = wide.findWinningMoves(winning);
+    for (int col = 0; col < board.getCOLUMNSIZE(); col++) {
+      assertEquals(wide.canPlay(col), board.canPlay(col));
+      assertEquals(wide.getHeight(col), board.getHeight(col));
+      boolean wins = board.canPlay(col) && board.isWinningMove(col);
+      assertEquals(winning[col], wins);
+      count -= wins ? 1 : 0;
+      if (board.canPlay(col)) {
+        assertEquals(wide.isWinningMove(col), wins);
+      }
+      for (int height = 0; height < board.getHeight(col); height++) {
+        assertEquals(wide.getCell(col, height), board.getCell(col, height));
+      }
+    }
+    assertEquals(count, 0);
+  }
+
+  private static void playRandomGames(int rows, int cols, int win) {
+    Random random = new Random(rows * 31 + cols * 7 + win);
+    WideBitBoard wide = new WideBitBoard(rows, cols, win);
+    for (int game = 0; game < 10; game++) {
+      wide.reset();
+      GridBoard board = new GridBoard(rows, cols, win);
+      int[] moves = new int[rows * cols];
+      int count = 0;
+      while (!board.isFull() && !board.lastMoverWon()) {
+        int col = random.nextInt(cols);
+        if (board.canPlay(col)) {
+          board.play(col);
+          wide.play(col);
+          moves[count++] = col;
+          check(wide, board, col);
+        }
+      }
+      WideBitBoard copy = new WideBitBoard(wide);
+      assertEquals(copy.lastMoverWon(), board.lastMoverWon());
+      while (count > 0) {
+        int col = moves[--count];
+        board.undo(col);
+        wide.undo(col);
+        check(wide, board, count > 0 ? moves[count - 1] : -1);
+      }
+      assertEquals(wide.getMoves(), 0);
+    }
+  }
+
+  @Test
+  public void testMatchesGridBoardOnLargeBoards() {
+    playRandomGames(10, 12, 5);
+    playRandomGames(20, 20, 6);
+    playRandomGames(70, 3, 3);
+    playRandomGames(3, 70, 4);
+  }
+
+  @Test
+  public void testMatchesGridBoardOnAnyWinningSize() {
+    for (int win = 1; win <= 7; win++) {
+      playRandomGames(9, 9, win);
+    }
+  }
+
+  @Test
+  public void testLinesAcrossWordBoundaries() {
+    WideBitBoard wide = new WideBitBoard(63, 4, 4);
+    assertEquals(wide.getWords(), 4);
+    for (int col = 0; col < 3; col++) {
+      wide.play(col);
+      wide.play(col);
+    }
+    assertFalse(wide.lastMoverWon());
+    assertTrue(wide.isWinningMove(3));
+    wide.play(3);
+    assertTrue(wide.lastMoverWon());
+    assertEquals(wide.getCell(3, 0), 1);
+    assertEquals(wide.toString(),
+        "WideBitBoard 63X4/4 in 4 words after 7 moves");
+  }
+}